@@ -0,0 +1,18 @@
+package by.tolkun.school.entity;
+
+/**
+ * Visitor of cells of tab (sheet) walked by
+ * {@link SpreadsheetTab#forEach(org.apache.poi.ss.util.CellRangeAddress,
+ * boolean, CellVisitor)}.
+ */
+@FunctionalInterface
+public interface CellVisitor {
+
+    /**
+     * Visit cell. The cursor is reused for all cells of the walk, so it must
+     * not be kept after the method returns.
+     *
+     * @param cursor the cursor pointing to current cell
+     */
+    void visit(SpreadsheetCellCursor cursor);
+}
@@ -0,0 +1,173 @@
+package by.tolkun.school.entity;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextAttribute;
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.text.AttributedString;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class to represent texts of cells of one column collected to be measured
+ * apart from Poi objects, for instance by worker threads. Texts are measured
+ * the same way as Poi {@code SheetUtil} measures them to autosize column,
+ * so widths are equal to widths of sequential autosize.
+ */
+final class ColumnContent {
+
+    /**
+     * Character added to every line as padding like Poi does.
+     */
+    private static final char PADDING_CHAR = '0';
+
+    /**
+     * Render context used to measure text like Poi does.
+     */
+    private static final FontRenderContext FONT_RENDER_CONTEXT
+            = new FontRenderContext(null, true, true);
+
+    /**
+     * Texts of cells.
+     */
+    private String[] texts = new String[16];
+
+    /**
+     * Styles of text of cells.
+     */
+    private TextStyle[] styles = new TextStyle[16];
+
+    /**
+     * Quantities of columns cells span (more than one for merged cells).
+     */
+    private int[] spans = new int[16];
+
+    /**
+     * Quantity of collected cells.
+     */
+    private int size;
+
+    /**
+     * Add text of cell.
+     *
+     * @param text  the text of cell
+     * @param style the style of text of cell
+     * @param span  the quantity of columns cell spans
+     */
+    void add(String text, TextStyle style, int span) {
+        if (size == texts.length) {
+            texts = Arrays.copyOf(texts, size * 2);
+            styles = Arrays.copyOf(styles, size * 2);
+            spans = Arrays.copyOf(spans, size * 2);
+        }
+        texts[size] = text;
+        styles[size] = style;
+        spans[size] = span;
+        size++;
+    }
+
+    /**
+     * Compute width of column to fit collected texts.
+     *
+     * @param defaultCharWidth the width of character of default font
+     *                         of workbook as Poi computes it
+     * @return width in units of 1/256th of a character width or {@code -1}
+     * if column has no text
+     */
+    int computeColumnWidth(int defaultCharWidth) {
+        double maxWidth = -1;
+        for (int i = 0; i < size; i++) {
+            for (String line : texts[i].split("\\n")) {
+                maxWidth = Math.max(maxWidth, styles[i].measure(
+                        line + PADDING_CHAR, spans[i], defaultCharWidth));
+            }
+        }
+        if (maxWidth < 0) {
+            return -1;
+        }
+        return (int) Math.round(Math.min(maxWidth * 256, 255 * 256));
+    }
+
+    /**
+     * Class to represent style of text of cell resolved from Poi style
+     * and font, so text can be measured without access to Poi workbook.
+     */
+    static final class TextStyle {
+
+        /**
+         * Attributes of AWT font.
+         */
+        private final Map<TextAttribute, Object> fontAttributes;
+
+        /**
+         * Rotation of text in degrees.
+         */
+        private final short rotation;
+
+        /**
+         * Indention of text in characters.
+         */
+        private final short indention;
+
+        /**
+         * Constructor with parameters.
+         *
+         * @param style the Poi style of cell
+         * @param font  the Poi font of cell
+         */
+        TextStyle(CellStyle style, Font font) {
+            Map<TextAttribute, Object> attributes = new HashMap<>();
+            attributes.put(TextAttribute.FAMILY, font.getFontName());
+            attributes.put(TextAttribute.SIZE,
+                    (float) font.getFontHeightInPoints());
+            if (font.getBold()) {
+                attributes.put(TextAttribute.WEIGHT,
+                        TextAttribute.WEIGHT_BOLD);
+            }
+            if (font.getItalic()) {
+                attributes.put(TextAttribute.POSTURE,
+                        TextAttribute.POSTURE_OBLIQUE);
+            }
+            if (font.getUnderline() == Font.U_SINGLE) {
+                attributes.put(TextAttribute.UNDERLINE,
+                        TextAttribute.UNDERLINE_ON);
+            }
+            this.fontAttributes = Collections.unmodifiableMap(attributes);
+            this.rotation = style.getRotation();
+            this.indention = style.getIndention();
+        }
+
+        /**
+         * Measure width of line of text like Poi does.
+         *
+         * @param line             the line of text
+         * @param span             the quantity of columns cell spans
+         * @param defaultCharWidth the width of character of default font
+         * @return width in characters of default font
+         */
+        private double measure(String line, int span, int defaultCharWidth) {
+            TextLayout layout = new TextLayout(
+                    new AttributedString(line, fontAttributes).getIterator(),
+                    FONT_RENDER_CONTEXT);
+            Rectangle2D bounds;
+            if (rotation != 0) {
+                AffineTransform transform = new AffineTransform();
+                transform.concatenate(AffineTransform.getRotateInstance(
+                        rotation * 2.0 * Math.PI / 360.0));
+                // Poi doubles height of rotated text.
+                transform.concatenate(AffineTransform.getScaleInstance(1, 2));
+                bounds = layout.getOutline(transform).getBounds();
+            } else {
+                bounds = layout.getBounds();
+            }
+            double frameWidth = bounds.getX() + bounds.getWidth();
+            return frameWidth / span / defaultCharWidth + indention;
+        }
+    }
+}
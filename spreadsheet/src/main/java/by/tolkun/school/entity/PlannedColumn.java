@@ -0,0 +1,167 @@
+package by.tolkun.school.entity;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Class to represent statistics of cells of one column collected by width
+ * planning. Statistics are kept per row, so a cell written again replaces
+ * its previous statistics instead of only raising the maximum.
+ */
+final class PlannedColumn {
+
+    /**
+     * Texts of cells by row number, {@code null} for rows without text
+     * and for columns of merged cell except the first one.
+     */
+    private String[] texts = new String[16];
+
+    /**
+     * Indexes of Poi fonts of cells by row number.
+     */
+    private int[] fontIndexes = new int[16];
+
+    /**
+     * Flags of wrapped text of cells by row number.
+     */
+    private boolean[] wrapped = new boolean[16];
+
+    /**
+     * Quantities of columns cells span by row number.
+     */
+    private int[] spans = new int[16];
+
+    /**
+     * Estimated rendered widths of cells in points by row number.
+     */
+    private float[] widths = new float[16];
+
+    /**
+     * Max width of cells in points.
+     */
+    private float maxWidth;
+
+    /**
+     * Is max width of cells to be computed again because the widest cell
+     * was narrowed.
+     */
+    private boolean maxWidthStale;
+
+    /**
+     * Set statistics of cell.
+     *
+     * @param rowNum    the number of row
+     * @param text      the text of cell or {@code null} if cell is measured
+     *                  only for width
+     * @param fontIndex the index of Poi font of cell
+     * @param wrapped   {@code true} if text of cell is wrapped
+     * @param span      the quantity of columns cell spans
+     * @param width     the estimated rendered width of cell in points
+     */
+    void set(int rowNum, String text, int fontIndex, boolean wrapped,
+             int span, float width) {
+        if (rowNum >= texts.length) {
+            int length = Math.max(rowNum + 1, texts.length * 2);
+            texts = Arrays.copyOf(texts, length);
+            fontIndexes = Arrays.copyOf(fontIndexes, length);
+            this.wrapped = Arrays.copyOf(this.wrapped, length);
+            spans = Arrays.copyOf(spans, length);
+            widths = Arrays.copyOf(widths, length);
+        }
+        float previousWidth = widths[rowNum];
+        texts[rowNum] = text;
+        fontIndexes[rowNum] = fontIndex;
+        this.wrapped[rowNum] = wrapped;
+        spans[rowNum] = span;
+        widths[rowNum] = width;
+        if (maxWidthStale) {
+            return;
+        }
+        if (width >= maxWidth) {
+            maxWidth = width;
+        } else if (previousWidth == maxWidth) {
+            maxWidthStale = true;
+        }
+    }
+
+    /**
+     * Remove statistics of cell.
+     *
+     * @param rowNum the number of row
+     */
+    void clear(int rowNum) {
+        if (rowNum < texts.length) {
+            set(rowNum, null, 0, false, 0, 0);
+        }
+    }
+
+    /**
+     * Get max width of cells in points.
+     *
+     * @return max width or {@code 0} if column has no planned cells
+     */
+    float getMaxWidth() {
+        if (maxWidthStale) {
+            maxWidth = 0;
+            for (float width : widths) {
+                maxWidth = Math.max(maxWidth, width);
+            }
+            maxWidthStale = false;
+        }
+        return maxWidth;
+    }
+
+    /**
+     * Get max count of lines of cells with the font. Wrapped text is
+     * wrapped by the current width of columns the cell spans.
+     *
+     * @param metrics   the text metrics
+     * @param fontIndex the index of Poi font or {@code -1} for all fonts
+     * @param spanWidth the function of quantity of columns to their width
+     *                  in units of 1/256th of a character width
+     * @return max count of lines or {@code 0} if column has no planned cells
+     * with the font
+     */
+    int getMaxLineCount(SpreadsheetTextMetrics metrics, int fontIndex,
+                        IntUnaryOperator spanWidth) {
+        int maxLineCount = 0;
+        for (int rowNum = 0; rowNum < texts.length; rowNum++) {
+            String text = texts[rowNum];
+            if (text == null
+                    || fontIndex >= 0 && fontIndexes[rowNum] != fontIndex) {
+                continue;
+            }
+            int lineCount;
+            if (wrapped[rowNum]) {
+                lineCount = metrics.countLines(fontIndexes[rowNum], text,
+                        spanWidth.applyAsInt(spans[rowNum]));
+            } else {
+                lineCount = 1;
+                for (int i = 0; i < text.length(); i++) {
+                    if (text.charAt(i) == '\n') {
+                        lineCount++;
+                    }
+                }
+            }
+            maxLineCount = Math.max(maxLineCount, lineCount);
+        }
+        return maxLineCount;
+    }
+
+    /**
+     * Copy statistics of column.
+     *
+     * @return independent copy of statistics
+     */
+    PlannedColumn copy() {
+        PlannedColumn copy = new PlannedColumn();
+        copy.texts = texts.clone();
+        copy.fontIndexes = fontIndexes.clone();
+        copy.wrapped = wrapped.clone();
+        copy.spans = spans.clone();
+        copy.widths = widths.clone();
+        copy.maxWidth = maxWidth;
+        copy.maxWidthStale = maxWidthStale;
+        return copy;
+    }
+}
@@ -0,0 +1,19 @@
+package by.tolkun.school.entity;
+
+/**
+ * Enumeration of ways to store string values of cells.
+ */
+public enum SharedStringsPolicy {
+
+    /**
+     * Strings are stored once in shared strings table of workbook, cells
+     * keep indexes of strings. Suits sheets that repeat a small vocabulary.
+     */
+    SHARED,
+
+    /**
+     * Strings are stored inline in cells. Writing of strings doesn't touch
+     * state shared by tabs, so it suits streaming of unique strings.
+     */
+    INLINE
+}
@@ -1,11 +1,16 @@
 package by.tolkun.school.entity;
 
 import by.tolkun.school.exception.SpreadsheetException;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.RichTextString;
 import org.apache.poi.xssf.usermodel.XSSFCell;
 import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTRst;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
 
 import java.util.Calendar;
 import java.util.Date;
@@ -25,16 +30,6 @@ public class SpreadsheetCell {
      */
     private final XSSFCell cell;
 
-    /**
-     * Style of cell.
-     */
-    private SpreadsheetCellStyle style;
-
-    /**
-     * Data formatter.
-     */
-    private final DataFormatter dataFormatter = new DataFormatter();
-
     /**
      * Constructor with parameters.
      *
@@ -56,21 +51,45 @@ public class SpreadsheetCell {
     }
 
     /**
-     * Get poi cell.
+     * Get poi cell. Changes made through Poi cell aren't tracked, so once
+     * it is handed out workbook is always written as a whole.
      *
      * @return poi cell
      */
     public XSSFCell getPoiCell() {
+        tab.getWorkbook().markPackageChanged();
+        return cell;
+    }
+
+    /**
+     * Get poi cell for reading by tab. Unlike {@link #getPoiCell()} it
+     * doesn't prevent incremental writing of workbook.
+     *
+     * @return poi cell
+     */
+    XSSFCell getUntrackedPoiCell() {
         return cell;
     }
 
     /**
-     * Get cell style.
+     * Get cell style. Style isn't stored in the cell object, it's resolved
+     * by index of Poi style kept in the Poi cell.
      *
      * @return style of cell
      */
     public SpreadsheetCellStyle getStyle() {
-        return style;
+        return tab.getWorkbook().getRegisteredStyle(getStyleIndex());
+    }
+
+    /**
+     * Get index of Poi style of cell.
+     *
+     * @return index of Poi style
+     */
+    public int getStyleIndex() {
+        return cell.getCTCell().isSetS()
+                ? (int) cell.getCTCell().getS()
+                : 0;
     }
 
     /**
@@ -80,8 +99,16 @@ public class SpreadsheetCell {
      */
     public void setStyle(SpreadsheetCellStyle style) {
         CellStyle cellStyle = tab.registerStyle(style);
-        cell.setCellStyle(cellStyle);
-        this.style = style;
+        long stamp = tab.lockWrite();
+        try {
+            // Style is registered, so its index is set directly without
+            // lookup in styles table shared by tabs.
+            cell.getCTCell().setS(cellStyle.getIndex());
+            tab.markRowChanged(cell.getRowIndex());
+            tab.planContent(this);
+        } finally {
+            tab.unlockWrite(stamp);
+        }
     }
 
     /**
@@ -90,6 +117,7 @@ public class SpreadsheetCell {
      * @param toApplyStyle the style to apply
      */
     public void applyStyle(SpreadsheetCellStyle toApplyStyle) {
+        SpreadsheetCellStyle style = getStyle();
         if (style == null) {
             setStyle(toApplyStyle);
         } else {
@@ -109,51 +137,352 @@ public class SpreadsheetCell {
      * @return the formatted cell value as a String
      */
     public String getValue() {
-        return dataFormatter.formatCellValue(cell);
+        return tab.getWorkbook().getDataFormatter().formatCellValue(cell);
+    }
+
+    /**
+     * Get evaluated value of cell. Works like {@link #getValue()}, but
+     * formulas in formula type cells are evaluated by the formula evaluator
+     * shared by workbook. Results of formulas are cached until cells they
+     * depend on are changed by {@link #setValue(Object)}.
+     *
+     * @return the formatted evaluated cell value as a String
+     */
+    public String getEvaluatedValue() {
+        SpreadsheetWorkbook workbook = tab.getWorkbook();
+        return workbook.getDataFormatter().formatCellValue(cell,
+                workbook.getFormulaEvaluator());
+    }
+
+    /**
+     * Get kind of value stored in cell. For formula cells kind of cached
+     * formula result is returned.
+     *
+     * @return kind of cell value
+     */
+    public CellType getCellKind() {
+        return getCellKind(cell);
+    }
+
+    /**
+     * Get raw numeric value of cell without formatting. Boolean values
+     * are returned as {@code 1} or {@code 0}, blank cells as {@code 0}.
+     *
+     * @return numeric value of cell or {@link Double#NaN} if cell doesn't
+     * contain numeric value
+     */
+    public double getDouble() {
+        return getDouble(cell);
+    }
+
+    /**
+     * Get raw boolean value of cell without formatting. Numeric values other
+     * than {@code 0} are treated as {@code true}.
+     *
+     * @return boolean value of cell or {@code false} if cell doesn't contain
+     * boolean or numeric value
+     */
+    public boolean getBoolean() {
+        return getBoolean(cell);
+    }
+
+    /**
+     * Append raw value of cell to the sink without formatting by data format
+     * of cell. Sink may be reused between calls to read cells in a loop
+     * without creating of intermediate strings.
+     *
+     * @param sink the sink to append value to
+     * @return the sink
+     */
+    public StringBuilder getString(StringBuilder sink) {
+        return getString(cell, sink);
+    }
+
+    /**
+     * Get kind of value stored in Poi cell.
+     *
+     * @param cell the Poi cell
+     * @return kind of cell value
+     */
+    static CellType getCellKind(XSSFCell cell) {
+        CellType cellType = cell.getCellType();
+        if (cellType == CellType.FORMULA) {
+            return cell.getCachedFormulaResultType();
+        }
+        return cellType;
+    }
+
+    /**
+     * Get raw numeric value of Poi cell.
+     *
+     * @param cell the Poi cell
+     * @return numeric value of cell or {@link Double#NaN} if cell doesn't
+     * contain numeric value
+     */
+    static double getDouble(XSSFCell cell) {
+        switch (getCellKind(cell)) {
+            case NUMERIC:
+                return cell.getNumericCellValue();
+            case BOOLEAN:
+                return cell.getBooleanCellValue() ? 1 : 0;
+            case BLANK:
+                return 0;
+            default:
+                return Double.NaN;
+        }
+    }
+
+    /**
+     * Get raw boolean value of Poi cell.
+     *
+     * @param cell the Poi cell
+     * @return boolean value of cell or {@code false} if cell doesn't contain
+     * boolean or numeric value
+     */
+    static boolean getBoolean(XSSFCell cell) {
+        switch (getCellKind(cell)) {
+            case BOOLEAN:
+                return cell.getBooleanCellValue();
+            case NUMERIC:
+                return cell.getNumericCellValue() != 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Append raw value of Poi cell to the sink.
+     *
+     * @param cell the Poi cell
+     * @param sink the sink to append value to
+     * @return the sink
+     */
+    static StringBuilder getString(XSSFCell cell, StringBuilder sink) {
+        switch (getCellKind(cell)) {
+            case STRING:
+                return getText(cell, sink);
+            case NUMERIC:
+                double value = cell.getNumericCellValue();
+                long integral = (long) value;
+                if (integral == value) {
+                    return sink.append(integral);
+                }
+                return sink.append(value);
+            case BOOLEAN:
+                return sink.append(cell.getBooleanCellValue()
+                        ? "TRUE" : "FALSE");
+            case ERROR:
+                return sink.append(cell.getErrorCellString());
+            default:
+                return sink;
+        }
+    }
+
+    /**
+     * Append text of string Poi cell to the sink. Text is read from entry
+     * of shared strings table, inline string or cached result of formula
+     * without creating of intermediate strings.
+     *
+     * @param cell the Poi cell of string kind
+     * @param sink the sink to append text to
+     * @return the sink
+     */
+    private static StringBuilder getText(XSSFCell cell, StringBuilder sink) {
+        CTCell ctCell = cell.getCTCell();
+        if (ctCell.getT() == STCellType.S) {
+            if (!ctCell.isSetV()) {
+                return sink;
+            }
+            // Item of table only wraps its entry, entry isn't copied.
+            RichTextString item = cell.getSheet().getWorkbook()
+                    .getSharedStringSource()
+                    .getItemAt(Integer.parseInt(ctCell.getV()));
+            return getText(((XSSFRichTextString) item).getCTRst(), sink);
+        }
+        if (ctCell.getT() == STCellType.INLINE_STR && ctCell.isSetIs()) {
+            return getText(ctCell.getIs(), sink);
+        }
+        if (ctCell.isSetV()) {
+            SpreadsheetStrings.appendDecoded(ctCell.getV(), sink);
+        }
+        return sink;
+    }
+
+    /**
+     * Append text of string entry to the sink. Formatting runs are joined
+     * like in {@link XSSFRichTextString#getString()}.
+     *
+     * @param entry the string entry
+     * @param sink  the sink to append text to
+     * @return the sink
+     */
+    private static StringBuilder getText(CTRst entry, StringBuilder sink) {
+        int runCount = entry.sizeOfRArray();
+        if (runCount == 0) {
+            if (entry.isSetT()) {
+                SpreadsheetStrings.appendDecoded(entry.getT(), sink);
+            }
+            return sink;
+        }
+        for (int i = 0; i < runCount; i++) {
+            SpreadsheetStrings.appendDecoded(entry.getRArray(i).getT(), sink);
+        }
+        return sink;
     }
 
     /**
-     * Set value of cell.
+     * Set value of cell. Value of unsupported type is reported to standard
+     * error stream and cell is left unchanged.
      *
      * @param value the value is one from {@link String}, {@link Number},
      *              {@link Date}, {@link Calendar}, {@link Boolean},
      *              {@link RichTextString}
      */
     public void setValue(Object value) {
+        if (!isSupportedValue(value)) {
+            reportUnsupportedValue(value);
+            return;
+        }
+        long stamp = tab.lockWrite();
         try {
-            if (value == null) {
-                cell.setCellValue((String) null);
-            } else if (value instanceof String) {
-                if (((String) value).startsWith("=")) {
-                    cell.setCellFormula(((String) value).substring(1));
-                } else {
-                    cell.setCellValue((String) value);
+            if (isSharedWrite(value)) {
+                synchronized (tab.getWorkbook().getPoiLock()) {
+                    writeValue(value);
                 }
-            } else if (value instanceof Number) {
-                double num = ((Number) value).doubleValue();
-                if (Double.isNaN(num) || Double.isInfinite(num)) {
-                    cell.setCellValue("");
-                } else {
-                    cell.setCellValue(num);
-                }
-            } else if (value instanceof Date) {
-                cell.setCellValue((Date) value);
-            } else if (value instanceof Calendar) {
-                cell.setCellValue((Calendar) value);
-            } else if (value instanceof Boolean) {
-                cell.setCellValue((Boolean) value);
-            } else if (value instanceof RichTextString) {
-                cell.setCellValue((RichTextString) value);
             } else {
-                throw new SpreadsheetException(
-                        String.format("Cannot set a %s [%s] as the" +
-                                        " spreadsheet cell content.",
-                                value.getClass().getSimpleName(),
-                                value.toString()));
+                writeValue(value);
+            }
+            tab.getWorkbook().notifyCellUpdated(cell);
+            tab.markRowChanged(cell.getRowIndex());
+            tab.planContent(this);
+        } finally {
+            tab.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Check if value may be set as content of cell.
+     *
+     * @param value the value of cell
+     * @return {@code true} if type of value is supported, {@code false}
+     * otherwise
+     */
+    static boolean isSupportedValue(Object value) {
+        return value == null || value instanceof String
+                || value instanceof Number || value instanceof Date
+                || value instanceof Calendar || value instanceof Boolean
+                || value instanceof RichTextString;
+    }
+
+    /**
+     * Report value of unsupported type to standard error stream. Exception
+     * is created without stack trace, so rejected values are cheap to
+     * report.
+     *
+     * @param value the value of cell of unsupported type
+     */
+    static void reportUnsupportedValue(Object value) {
+        String message = String.format("Cannot set a %s [%s] as the"
+                        + " spreadsheet cell content.",
+                value.getClass().getSimpleName(), value);
+        System.err.println(new SpreadsheetException(message, null, false,
+                false));
+    }
+
+    /**
+     * Check if writing of value changes state of Poi workbook shared by all
+     * tabs: shared strings table or formulas. Such writes are serialized.
+     *
+     * @param value the value of cell
+     * @return {@code true} if writing changes shared state, {@code false}
+     * otherwise
+     */
+    private boolean isSharedWrite(Object value) {
+        if (cell.getCellType() == CellType.FORMULA) {
+            return true;
+        }
+        if (value instanceof String) {
+            return ((String) value).startsWith("=")
+                    || tab.getWorkbook().getSharedStringsPolicy()
+                    != SharedStringsPolicy.INLINE;
+        }
+        if (value instanceof Number) {
+            double num = ((Number) value).doubleValue();
+            return Double.isNaN(num) || Double.isInfinite(num);
+        }
+        return !(value instanceof Date || value instanceof Calendar
+                || value instanceof Boolean);
+    }
+
+    /**
+     * Write value to Poi cell.
+     *
+     * @param value the value of cell of supported type
+     */
+    private void writeValue(Object value) {
+        CTCell ctCell = cell.getCTCell();
+        if (ctCell.isSetIs()) {
+            // Poi keeps inline string of cell when other value is written.
+            ctCell.unsetIs();
+            ctCell.setT(STCellType.N);
+        }
+        if (value == null) {
+            cell.setCellValue((String) null);
+        } else if (value instanceof String) {
+            if (((String) value).startsWith("=")) {
+                cell.setCellFormula(((String) value).substring(1));
+            } else {
+                writeString((String) value);
+            }
+        } else if (value instanceof Number) {
+            double num = ((Number) value).doubleValue();
+            if (Double.isNaN(num) || Double.isInfinite(num)) {
+                cell.setCellValue("");
+            } else {
+                cell.setCellValue(num);
+            }
+        } else if (value instanceof Date) {
+            cell.setCellValue((Date) value);
+        } else if (value instanceof Calendar) {
+            cell.setCellValue((Calendar) value);
+        } else if (value instanceof Boolean) {
+            cell.setCellValue((Boolean) value);
+        } else {
+            cell.setCellValue((RichTextString) value);
+        }
+    }
+
+    /**
+     * Write string to Poi cell by policy of storing of strings of workbook.
+     * Shared strings are looked up in table of workbook without serializing,
+     * if table supports it.
+     *
+     * @param value the string
+     */
+    private void writeString(String value) {
+        SpreadsheetWorkbook workbook = tab.getWorkbook();
+        if (cell.getCellType() == CellType.FORMULA || value.length()
+                > SpreadsheetVersion.EXCEL2007.getMaxTextLength()) {
+            // Poi keeps cached result of formula or rejects too long text.
+            cell.setCellValue(value);
+            return;
+        }
+        CTCell ctCell = cell.getCTCell();
+        if (workbook.getSharedStringsPolicy() == SharedStringsPolicy.INLINE) {
+            if (ctCell.isSetV()) {
+                ctCell.unsetV();
             }
-        } catch (SpreadsheetException e) {
-            e.printStackTrace();
+            ctCell.setT(STCellType.INLINE_STR);
+            ctCell.setIs(new XSSFRichTextString(value).getCTRst());
+            return;
+        }
+        int index = workbook.addSharedString(value);
+        if (index < 0) {
+            cell.setCellValue(value);
+            return;
         }
+        ctCell.setT(STCellType.S);
+        ctCell.setV(Integer.toString(index));
     }
 
     /**
@@ -162,6 +491,7 @@ public class SpreadsheetCell {
      * @return size of font in points
      */
     public int getFontSizeInPoints() {
+        SpreadsheetCellStyle style = getStyle();
         if (style != null) {
             SpreadsheetFont font = style.getFont();
             if (font != null) {
@@ -0,0 +1,158 @@
+package by.tolkun.school.entity;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+
+/**
+ * Class to represent mutable cursor over existing cells of tab (sheet). One
+ * cursor is moved from cell to cell during a walk, so reading of a region
+ * doesn't create row, cell or wrapper objects for every slot.
+ */
+public class SpreadsheetCellCursor {
+
+    /**
+     * Workbook of walked tab.
+     */
+    private final SpreadsheetWorkbook workbook;
+
+    /**
+     * Data formatter.
+     */
+    private final DataFormatter dataFormatter;
+
+    /**
+     * Number of row of current cell.
+     */
+    private int rowNum;
+
+    /**
+     * Number of column of current cell.
+     */
+    private int columnNum;
+
+    /**
+     * Poi cell the cursor points to.
+     */
+    private XSSFCell cell;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param workbook      the workbook of walked tab
+     * @param dataFormatter the data formatter
+     */
+    SpreadsheetCellCursor(SpreadsheetWorkbook workbook,
+                          DataFormatter dataFormatter) {
+        this.workbook = workbook;
+        this.dataFormatter = dataFormatter;
+    }
+
+    /**
+     * Move cursor to the cell.
+     *
+     * @param rowNum    the number of row
+     * @param columnNum the number of column
+     * @param cell      the Poi cell
+     */
+    void moveTo(int rowNum, int columnNum, XSSFCell cell) {
+        this.rowNum = rowNum;
+        this.columnNum = columnNum;
+        this.cell = cell;
+    }
+
+    /**
+     * Get number of row of current cell.
+     *
+     * @return number of row
+     */
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    /**
+     * Get number of column of current cell.
+     *
+     * @return number of column
+     */
+    public int getColumnNum() {
+        return columnNum;
+    }
+
+    /**
+     * Get Poi cell the cursor points to. Changes made through Poi cell
+     * aren't tracked, so once it is handed out workbook is always written
+     * as a whole.
+     *
+     * @return Poi cell
+     */
+    public XSSFCell getPoiCell() {
+        workbook.markPackageChanged();
+        return cell;
+    }
+
+    /**
+     * Check if current cell is blank: it has no value or contains an empty
+     * string.
+     *
+     * @return {@code true} if cell is blank, {@code false} otherwise
+     */
+    public boolean isBlank() {
+        CellType cellKind = getCellKind();
+        return cellKind == CellType.BLANK
+                || cellKind == CellType.STRING
+                && cell.getRichStringCellValue().getString().isEmpty();
+    }
+
+    /**
+     * Get formatted value of current cell. See
+     * {@link SpreadsheetCell#getValue()}.
+     *
+     * @return the formatted cell value as a String
+     */
+    public String getValue() {
+        return dataFormatter.formatCellValue(cell);
+    }
+
+    /**
+     * Get kind of value of current cell. See
+     * {@link SpreadsheetCell#getCellKind()}.
+     *
+     * @return kind of cell value
+     */
+    public CellType getCellKind() {
+        return SpreadsheetCell.getCellKind(cell);
+    }
+
+    /**
+     * Get raw numeric value of current cell. See
+     * {@link SpreadsheetCell#getDouble()}.
+     *
+     * @return numeric value of cell or {@link Double#NaN} if cell doesn't
+     * contain numeric value
+     */
+    public double getDouble() {
+        return SpreadsheetCell.getDouble(cell);
+    }
+
+    /**
+     * Get raw boolean value of current cell. See
+     * {@link SpreadsheetCell#getBoolean()}.
+     *
+     * @return boolean value of cell
+     */
+    public boolean getBoolean() {
+        return SpreadsheetCell.getBoolean(cell);
+    }
+
+    /**
+     * Append raw value of current cell to the sink. See
+     * {@link SpreadsheetCell#getString(StringBuilder)}.
+     *
+     * @param sink the sink to append value to
+     * @return the sink
+     */
+    public StringBuilder getString(StringBuilder sink) {
+        return SpreadsheetCell.getString(cell, sink);
+    }
+}
@@ -0,0 +1,73 @@
+package by.tolkun.school.entity;
+
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTRst;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class to represent shared strings table with index of plain strings.
+ * Poi table looks strings up by their serialized XML, this table looks
+ * plain strings up by the strings themselves, so repeated writes of known
+ * strings don't serialize anything. Table is not thread-safe.
+ */
+final class SpreadsheetSharedStrings extends SharedStringsTable {
+
+    /**
+     * Map of plain string and its index in table.
+     */
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    /**
+     * Add reference to plain string. String is added to table if it's
+     * absent.
+     *
+     * @param value the string
+     * @return index of string in table
+     */
+    int addString(String value) {
+        Integer index = indexes.get(value);
+        if (index != null) {
+            count++;
+            return index;
+        }
+        index = addSharedStringItem(new XSSFRichTextString(value));
+        indexes.put(value, index);
+        return index;
+    }
+
+    /**
+     * Add plain string to table without reference to it.
+     *
+     * @param value the string
+     * @return index of string in table
+     */
+    int preseedString(String value) {
+        int index = addString(value);
+        count--;
+        return index;
+    }
+
+    /**
+     * Add string to table without reference to it.
+     *
+     * @param entry the string with formatting
+     * @return index of string in table
+     */
+    int preseedEntry(CTRst entry) {
+        int index = addSharedStringItem(new XSSFRichTextString(entry));
+        count--;
+        return index;
+    }
+
+    /**
+     * Count references to strings made outside of table.
+     *
+     * @param quantity the quantity of references
+     */
+    void addReferences(int quantity) {
+        count += quantity;
+    }
+}
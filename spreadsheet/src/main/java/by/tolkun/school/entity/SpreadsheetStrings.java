@@ -0,0 +1,89 @@
+package by.tolkun.school.entity;
+
+/**
+ * Class with helpers for text stored in XML of workbook. Characters that
+ * can't be written to XML are escaped there as {@code _xHHHH_}, where
+ * {@code HHHH} is hexadecimal code of character; such escapes are decoded
+ * the same way Poi decodes them in rich text strings.
+ */
+public final class SpreadsheetStrings {
+
+    /**
+     * Length of escape of character: {@code _xHHHH_}.
+     */
+    private static final int ESCAPE_LENGTH = 7;
+
+    /**
+     * Private constructor: class contains static helpers only.
+     */
+    private SpreadsheetStrings() {
+    }
+
+    /**
+     * Decode escaped characters of text.
+     *
+     * @param text the text read from XML or {@code null}
+     * @return decoded text, the same instance if text has no escapes
+     */
+    public static String decode(String text) {
+        if (text == null || text.indexOf("_x") < 0) {
+            return text;
+        }
+        return appendDecoded(text, new StringBuilder(text.length()))
+                .toString();
+    }
+
+    /**
+     * Append text to the sink decoding escaped characters. Text without
+     * escapes is appended as is.
+     *
+     * @param text the text read from XML
+     * @param sink the sink to append text to
+     * @return the sink
+     */
+    public static StringBuilder appendDecoded(CharSequence text,
+                                              StringBuilder sink) {
+        int length = text.length();
+        int start = 0;
+        for (int i = 0; i + ESCAPE_LENGTH <= length; i++) {
+            if (text.charAt(i) != '_' || text.charAt(i + 1) != 'x'
+                    || text.charAt(i + ESCAPE_LENGTH - 1) != '_') {
+                continue;
+            }
+            int code = parseHex(text, i + 2);
+            if (code < 0) {
+                continue;
+            }
+            sink.append(text, start, i).append((char) code);
+            i += ESCAPE_LENGTH - 1;
+            start = i + 1;
+        }
+        return sink.append(text, start, length);
+    }
+
+    /**
+     * Parse four hexadecimal digits of escaped character.
+     *
+     * @param text   the text
+     * @param offset the offset of the first digit
+     * @return code of character or {@code -1} if digits are malformed
+     */
+    private static int parseHex(CharSequence text, int offset) {
+        int code = 0;
+        for (int i = offset; i < offset + 4; i++) {
+            char ch = text.charAt(i);
+            int digit;
+            if (ch >= '0' && ch <= '9') {
+                digit = ch - '0';
+            } else if (ch >= 'a' && ch <= 'f') {
+                digit = ch - 'a' + 10;
+            } else if (ch >= 'A' && ch <= 'F') {
+                digit = ch - 'A' + 10;
+            } else {
+                return -1;
+            }
+            code = (code << 4) | digit;
+        }
+        return code;
+    }
+}
@@ -1,20 +1,54 @@
 package by.tolkun.school.entity;
 
+import by.tolkun.school.exception.SpreadsheetException;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.SheetUtil;
 import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFRow;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
-
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCol;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCols;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTRow;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTSheetData;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorksheet;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
 
 /**
- * Class to represent tab (sheet) of workbook.
+ * Class to represent tab (sheet) of workbook. By default tab is not
+ * thread-safe. In concurrent mode, see {@link #setConcurrent(boolean)},
+ * tab may be read by many threads while it's updated: reads never create
+ * cells, writes are exclusive.
  */
 public class SpreadsheetTab {
 
@@ -29,9 +63,19 @@ public class SpreadsheetTab {
     private final XSSFSheet sheet;
 
     /**
-     * Map of address and cell.
+     * Weak cache of cell wrappers by packed cell position. Wrappers are
+     * created on demand and dropped by garbage collector when they are
+     * no longer used, so the cache is proportional to the working set
+     * of cells instead of the size of sheet. Cache is concurrent, since
+     * readers fill it without lock.
+     */
+    private final Map<Long, WeakCell> cells = new ConcurrentHashMap<>();
+
+    /**
+     * Queue of references to collected cell wrappers to remove from cache.
      */
-    private final Map<String, SpreadsheetCell> cells = new HashMap<>();
+    private final ReferenceQueue<SpreadsheetCell> collectedCells
+            = new ReferenceQueue<>();
 
     /**
      * Max number of existing row.
@@ -43,6 +87,63 @@ public class SpreadsheetTab {
      */
     private int columnCount = -1;
 
+    /**
+     * Metrics to estimate size of text.
+     */
+    private SpreadsheetTextMetrics textMetrics;
+
+    /**
+     * Map of packed position of first cell of merged region and quantity
+     * of columns the region spans.
+     */
+    private final Map<Long, Integer> mergedSpans = new HashMap<>();
+
+    /**
+     * Packed positions of cells of merged regions except the first ones.
+     */
+    private final Set<Long> coveredCells = new HashSet<>();
+
+    /**
+     * Is width of columns planned while values are written.
+     */
+    private boolean widthPlanning;
+
+    /**
+     * Statistics of cells collected by width planning by column number,
+     * {@code null} for columns without planned cells.
+     */
+    private PlannedColumn[] plannedColumns = new PlannedColumn[0];
+
+    /**
+     * Lock of tab in concurrent mode or {@code null} otherwise.
+     */
+    private volatile StampedLock lock;
+
+    /**
+     * Last taken snapshot of tab.
+     */
+    private SpreadsheetTabSnapshot lastSnapshot;
+
+    /**
+     * Numbers of rows changed since last snapshot.
+     */
+    private final BitSet changedRows = new BitSet();
+
+    /**
+     * Are all rows changed since last snapshot, e.g. by shift of rows.
+     */
+    private boolean allRowsChanged;
+
+    /**
+     * Are merged regions changed since last snapshot.
+     */
+    private boolean mergedRegionsChanged;
+
+    /**
+     * Was tab changed since it was created or read.
+     */
+    private boolean modified;
+
     /**
      * Constructor with parameters.
      *
@@ -51,7 +152,7 @@ public class SpreadsheetTab {
      */
     SpreadsheetTab(SpreadsheetWorkbook workbook, String title) {
         this.workbook = workbook;
-        this.sheet = workbook.getPoiWorkbook().createSheet(title);
+        this.sheet = workbook.getUntrackedPoiWorkbook().createSheet(title);
     }
 
     /**
@@ -66,11 +167,42 @@ public class SpreadsheetTab {
     }
 
     /**
-     * Get Poi sheet.
+     * Check if tab was changed since it was created or read. Changes made
+     * directly through Poi objects are not tracked.
+     *
+     * @return {@code true} if tab was changed, {@code false} otherwise
+     */
+    public boolean isModified() {
+        return modified;
+    }
+
+    /**
+     * Get workbook of tab.
+     *
+     * @return workbook
+     */
+    public SpreadsheetWorkbook getWorkbook() {
+        return workbook;
+    }
+
+    /**
+     * Get Poi sheet. Changes made through Poi sheet aren't tracked, so once
+     * it is handed out workbook is always written as a whole.
      *
      * @return Poi sheet
      */
     public XSSFSheet getPoiSheet() {
+        workbook.markPackageChanged();
+        return sheet;
+    }
+
+    /**
+     * Get Poi sheet for reading by workbook. Unlike {@link #getPoiSheet()}
+     * it doesn't mark tab as changed.
+     *
+     * @return Poi sheet
+     */
+    XSSFSheet getUntrackedPoiSheet() {
         return sheet;
     }
 
@@ -108,23 +240,151 @@ public class SpreadsheetTab {
      * Get cell by cell address.
      *
      * @param cellAddress the cell address
-     * @return cell
+     * @return cell or {@code null} if Poi cell doesn't exist
      */
     public SpreadsheetCell getCell(String cellAddress) {
         CellReference cellReference = new CellReference(cellAddress);
-        return cells.get(cellAddress);
+        return getCell(cellReference.getRow(), cellReference.getCol());
     }
 
     /**
-     * Get cell by row number and column number.
+     * Get cell by row number and column number. In concurrent mode Poi cell
+     * is looked up under shared lock.
      *
      * @param rowNum    the number of row
      * @param columnNum the number of column
-     * @return cell
+     * @return cell or {@code null} if Poi cell doesn't exist
      */
     public SpreadsheetCell getCell(int rowNum, int columnNum) {
-        String address = getCellAddress(rowNum, columnNum);
-        return getCell(address);
+        XSSFCell poiCell = read(() -> findPoiCell(rowNum, columnNum));
+        return poiCell == null ? null : wrapCell(rowNum, columnNum, poiCell);
+    }
+
+    /**
+     * Get formatted value of cell by row number and column number. Cell isn't
+     * created if it doesn't exist. In concurrent mode value is read under
+     * shared lock, so readers don't block each other.
+     *
+     * @param rowNum    the number of row
+     * @param columnNum the number of column
+     * @return the formatted value of cell or empty string if cell doesn't
+     * exist
+     */
+    public String readValue(int rowNum, int columnNum) {
+        return read(() -> formatValue(rowNum, columnNum));
+    }
+
+    /**
+     * Read state of tab. In concurrent mode Poi objects are read under shared
+     * lock: rows and cells of Poi are kept in trees that aren't safe to walk
+     * while they are changed, so they aren't read optimistically.
+     *
+     * @param reader the reader of Poi objects
+     * @param <T>    the type of result
+     * @return the result of reader
+     */
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lockRead();
+        try {
+            return reader.get();
+        } finally {
+            unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Find Poi cell by row number and column number.
+     *
+     * @param rowNum    the number of row
+     * @param columnNum the number of column
+     * @return Poi cell or {@code null} if it doesn't exist
+     */
+    private XSSFCell findPoiCell(int rowNum, int columnNum) {
+        XSSFRow row = sheet.getRow(rowNum);
+        return row == null ? null : row.getCell(columnNum);
+    }
+
+    /**
+     * Format value of Poi cell by row number and column number.
+     *
+     * @param rowNum    the number of row
+     * @param columnNum the number of column
+     * @return the formatted value of cell or empty string if cell doesn't
+     * exist
+     */
+    private String formatValue(int rowNum, int columnNum) {
+        XSSFCell cell = findPoiCell(rowNum, columnNum);
+        if (cell == null) {
+            return "";
+        }
+        return workbook.getDataFormatter().formatCellValue(cell);
+    }
+
+    /**
+     * Check if tab is in concurrent mode.
+     *
+     * @return {@code true} if tab is in concurrent mode, {@code false}
+     * otherwise
+     */
+    public boolean isConcurrent() {
+        return lock != null;
+    }
+
+    /**
+     * Turn on or off concurrent mode. In concurrent mode reads of tab take
+     * shared lock, writes take exclusive lock. Lock is
+     * not reentrant: visitors of {@link #forEach} must not write to the tab.
+     * Mode must be switched while tab isn't used by other threads.
+     *
+     * @param concurrent {@code true} to turn on concurrent mode,
+     *                   {@code false} otherwise
+     */
+    public void setConcurrent(boolean concurrent) {
+        lock = concurrent ? new StampedLock() : null;
+    }
+
+    /**
+     * Take shared lock of tab in concurrent mode.
+     *
+     * @return stamp of lock or {@code 0} if tab isn't in concurrent mode
+     */
+    private long lockRead() {
+        StampedLock lock = this.lock;
+        return lock == null ? 0 : lock.readLock();
+    }
+
+    /**
+     * Release shared lock of tab.
+     *
+     * @param stamp the stamp of lock
+     */
+    private void unlockRead(long stamp) {
+        if (stamp != 0) {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Take exclusive lock of tab in concurrent mode. Every change of tab
+     * takes the lock, so tab is marked as modified here.
+     *
+     * @return stamp of lock or {@code 0} if tab isn't in concurrent mode
+     */
+    long lockWrite() {
+        modified = true;
+        StampedLock lock = this.lock;
+        return lock == null ? 0 : lock.writeLock();
+    }
+
+    /**
+     * Release exclusive lock of tab.
+     *
+     * @param stamp the stamp of lock
+     */
+    void unlockWrite(long stamp) {
+        if (stamp != 0) {
+            lock.unlockWrite(stamp);
+        }
     }
 
     /**
@@ -135,29 +395,73 @@ public class SpreadsheetTab {
      * @return cell if it exists or create and return new cell otherwise
      */
     public SpreadsheetCell getOrCreateCell(String cellAddress) {
-        SpreadsheetCell cell = getCell(cellAddress);
-        if (cell == null) {
-            CellReference cellReference = new CellReference(cellAddress);
-            int rowNum = cellReference.getRow();
-            int columnNum = cellReference.getCol();
-            cell = new SpreadsheetCell(this, getOrCreatePoiCell(rowNum,
-                    columnNum));
-            cells.put(cellAddress, cell);
-            recordCellModified(rowNum, columnNum);
-        }
-        return cell;
+        CellReference cellReference = new CellReference(cellAddress);
+        return getOrCreateCell(cellReference.getRow(), cellReference.getCol());
     }
 
     /**
      * Get cell by row number and column number if cell exists or create
-     * and return new cell otherwise.
+     * and return new cell otherwise. Exclusive lock is taken only if cell
+     * is created.
      *
      * @param rowNum    the number of row
      * @param columnNum the number of column
      * @return cell if it exists or create and return new cell otherwise
      */
     public SpreadsheetCell getOrCreateCell(int rowNum, int columnNum) {
-        return getOrCreateCell(getCellAddress(rowNum, columnNum));
+        SpreadsheetCell cell = getCell(rowNum, columnNum);
+        if (cell != null) {
+            return cell;
+        }
+        long stamp = lockWrite();
+        try {
+            XSSFCell poiCell = getOrCreatePoiCell(rowNum, columnNum);
+            recordCellModified(rowNum, columnNum);
+            markRowChanged(rowNum);
+            return wrapCell(rowNum, columnNum, poiCell);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Get cached wrapper of Poi cell or create and cache new one. Cache
+     * is changed without lock, concurrent callers get the same wrapper.
+     *
+     * @param rowNum    the number of row
+     * @param columnNum the number of column
+     * @param poiCell   the Poi cell
+     * @return wrapper of Poi cell
+     */
+    private SpreadsheetCell wrapCell(int rowNum, int columnNum,
+                                     XSSFCell poiCell) {
+        expungeCollectedCells();
+        long key = ((long) rowNum << 32) | columnNum;
+        while (true) {
+            WeakCell reference = cells.get(key);
+            SpreadsheetCell cell = reference == null ? null : reference.get();
+            // Wrapper is stale if rows or columns were shifted.
+            if (cell != null && cell.getUntrackedPoiCell() == poiCell) {
+                return cell;
+            }
+            cell = new SpreadsheetCell(this, poiCell);
+            WeakCell newReference = new WeakCell(cell, key, collectedCells);
+            if (reference == null
+                    ? cells.putIfAbsent(key, newReference) == null
+                    : cells.replace(key, reference, newReference)) {
+                return cell;
+            }
+        }
+    }
+
+    /**
+     * Remove references to collected cell wrappers from cache.
+     */
+    private void expungeCollectedCells() {
+        WeakCell reference;
+        while ((reference = (WeakCell) collectedCells.poll()) != null) {
+            cells.remove(reference.key, reference);
+        }
     }
 
     /**
@@ -188,6 +492,13 @@ public class SpreadsheetTab {
         XSSFCell cell = row.getCell(columnNum);
         if (cell == null) {
             cell = row.createCell(columnNum);
+            // New cell gets default style of its row or column.
+            int styleIndex = row.isFormatted()
+                    ? row.getRowStyle().getIndex() & 0xFFFF
+                    : sheet.getColumnHelper().getColDefaultStyle(columnNum);
+            if (styleIndex > 0) {
+                cell.getCTCell().setS(styleIndex);
+            }
         }
         return cell;
     }
@@ -209,22 +520,113 @@ public class SpreadsheetTab {
         }
     }
 
+    /**
+     * Walk existing cells of the range row by row. Only physical Poi rows
+     * and cells are visited, missing ones are neither created nor passed
+     * to visitor. One cursor is reused for every visited cell. In concurrent
+     * mode cells are walked under shared lock.
+     *
+     * @param range      the range of cells
+     * @param skipBlanks {@code true} to skip cells without value or with
+     *                   an empty string, {@code false} otherwise
+     * @param visitor    the visitor of cells
+     */
+    public void forEach(CellRangeAddress range, boolean skipBlanks,
+                        CellVisitor visitor) {
+        long stamp = lockRead();
+        try {
+            SpreadsheetVersion version = SpreadsheetVersion.EXCEL2007;
+            int firstRowNum = Math.max(range.getFirstRow(), 0);
+            int lastRowNum = range.getLastRow() < 0
+                    ? version.getLastRowIndex() : range.getLastRow();
+            lastRowNum = Math.min(lastRowNum, sheet.getLastRowNum());
+            int firstColumnNum = Math.max(range.getFirstColumn(), 0);
+            int lastColumnNum = range.getLastColumn() < 0
+                    ? version.getLastColumnIndex() : range.getLastColumn();
+
+            SpreadsheetCellCursor cursor = new SpreadsheetCellCursor(
+                    workbook, workbook.getDataFormatter());
+            for (int rowNum = firstRowNum; rowNum <= lastRowNum; rowNum++) {
+                XSSFRow row = sheet.getRow(rowNum);
+                if (row == null) {
+                    continue;
+                }
+                int firstCellNum = Math.max(firstColumnNum,
+                        row.getFirstCellNum());
+                int lastCellNum = Math.min(lastColumnNum,
+                        row.getLastCellNum() - 1);
+                for (int columnNum = firstCellNum; columnNum <= lastCellNum;
+                     columnNum++) {
+                    XSSFCell cell = row.getCell(columnNum);
+                    if (cell == null) {
+                        continue;
+                    }
+                    cursor.moveTo(rowNum, columnNum, cell);
+                    if (skipBlanks && cursor.isBlank()) {
+                        continue;
+                    }
+                    visitor.visit(cursor);
+                }
+            }
+        } finally {
+            unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Walk all existing cells of the range row by row. See
+     * {@link #forEach(CellRangeAddress, boolean, CellVisitor)}.
+     *
+     * @param range   the range of cells
+     * @param visitor the visitor of cells
+     */
+    public void forEach(CellRangeAddress range, CellVisitor visitor) {
+        forEach(range, false, visitor);
+    }
+
+    /**
+     * Walk existing cells of the range between cells' addresses. See
+     * {@link #forEach(CellRangeAddress, boolean, CellVisitor)}.
+     *
+     * @param firstCellAddress the address of first cell
+     * @param lastCellAddress  the address of last cell
+     * @param skipBlanks       {@code true} to skip blank cells,
+     *                         {@code false} otherwise
+     * @param visitor          the visitor of cells
+     */
+    public void forEach(String firstCellAddress, String lastCellAddress,
+                        boolean skipBlanks, CellVisitor visitor) {
+        CellReference firstReference = new CellReference(firstCellAddress);
+        CellReference lastReference = new CellReference(lastCellAddress);
+        forEach(new CellRangeAddress(firstReference.getRow(),
+                        lastReference.getRow(), firstReference.getCol(),
+                        lastReference.getCol()),
+                skipBlanks, visitor);
+    }
+
     /**
      * Set value and style of cell by cell address.
      *
      * @param cellAddress the cell address
      * @param content     the content of cell
      * @param style       the style of cell
+     * @see SpreadsheetCell#setValue(Object)
      */
     public void setValue(String cellAddress, Object content,
                          SpreadsheetCellStyle style) {
+        // Cell for content of unsupported type is neither created nor styled.
+        if (!SpreadsheetCell.isSupportedValue(content)) {
+            SpreadsheetCell.reportUnsupportedValue(content);
+            return;
+        }
         CellReference cellReference = new CellReference(cellAddress);
         SpreadsheetCell cell = getOrCreateCell(cellReference.getRow(),
                 cellReference.getCol());
-        cell.setValue(content);
+        // Style is set first to measure planned width with the right font.
         if (style != null) {
             cell.setStyle(style);
         }
+        cell.setValue(content);
     }
 
     /**
@@ -261,6 +663,48 @@ public class SpreadsheetTab {
         setValue(rowNum, columnNum, content, null);
     }
 
+    /**
+     * Set values of block of cells row by row starting from the cell with
+     * number of row and column. Values of unsupported types are not written
+     * and their cells are neither created nor styled; their positions and
+     * types are collected to report instead of printing every value
+     * to standard error stream like {@link SpreadsheetCell#setValue(Object)}
+     * does. {@code null} rows are skipped.
+     *
+     * @param rowNum    the number of first row
+     * @param columnNum the number of first column
+     * @param values    the values of cells by rows
+     * @param style     the style of cells or {@code null} to keep styles
+     * @return report of write
+     */
+    public SpreadsheetWriteReport setValues(int rowNum, int columnNum,
+                                            Object[][] values,
+                                            SpreadsheetCellStyle style) {
+        SpreadsheetWriteReport report = new SpreadsheetWriteReport();
+        for (int i = 0; i < values.length; i++) {
+            Object[] rowValues = values[i];
+            if (rowValues == null) {
+                continue;
+            }
+            for (int j = 0; j < rowValues.length; j++) {
+                Object value = rowValues[j];
+                if (!SpreadsheetCell.isSupportedValue(value)) {
+                    report.addError(rowNum + i, columnNum + j,
+                            value.getClass());
+                    continue;
+                }
+                SpreadsheetCell cell = getOrCreateCell(rowNum + i,
+                        columnNum + j);
+                if (style != null) {
+                    cell.setStyle(style);
+                }
+                cell.setValue(value);
+                report.addWritten();
+            }
+        }
+        return report;
+    }
+
     /**
      * Print values column down cell by cell using number of first cell
      * row and column.
@@ -346,15 +790,21 @@ public class SpreadsheetTab {
                          SpreadsheetCellStyle style) {
         CellReference firstReference = new CellReference(firstCellAddress);
         CellReference lastReference = new CellReference(lastCellAddress);
-        for (int row = firstReference.getRow();
-             row <= lastReference.getRow();
-             row++) {
-            for (int col = firstReference.getCol();
-                 col <= lastReference.getCol();
-                 col++) {
-                getOrCreateCell(row, col).setStyle(style);
-            }
-        }
+        setStyle(firstReference.getRow(), firstReference.getCol(),
+                lastReference.getRow(), lastReference.getCol(), style);
+    }
+
+    /**
+     * Set style for range of cells. If the range covers whole columns or whole
+     * rows, default styles of columns or existing rows are set instead
+     * of styling every cell one by one.
+     *
+     * @param range the range of cells
+     * @param style the style of cell
+     */
+    public void setStyle(CellRangeAddress range, SpreadsheetCellStyle style) {
+        setStyle(range.getFirstRow(), range.getFirstColumn(),
+                range.getLastRow(), range.getLastColumn(), style);
     }
 
     /**
@@ -381,8 +831,180 @@ public class SpreadsheetTab {
     public void setStyle(int firstRowNum, int firstColumnNum,
                          int lastRowNum, int lastColumnNum,
                          SpreadsheetCellStyle style) {
-        setStyle(getCellAddress(firstRowNum, firstColumnNum),
-                getCellAddress(lastRowNum, lastColumnNum), style);
+        SpreadsheetVersion version = SpreadsheetVersion.EXCEL2007;
+        firstRowNum = Math.max(firstRowNum, 0);
+        firstColumnNum = Math.max(firstColumnNum, 0);
+        if (lastRowNum < 0) {
+            lastRowNum = version.getLastRowIndex();
+        }
+        if (lastColumnNum < 0) {
+            lastColumnNum = version.getLastColumnIndex();
+        }
+
+        if (firstRowNum == 0 && lastRowNum == version.getLastRowIndex()) {
+            setColumnsStyle(firstColumnNum, lastColumnNum, style);
+        } else if (firstColumnNum == 0
+                && lastColumnNum == version.getLastColumnIndex()) {
+            setRowsStyle(firstRowNum, lastRowNum, style);
+        } else {
+            for (int row = firstRowNum; row <= lastRowNum; row++) {
+                for (int col = firstColumnNum; col <= lastColumnNum; col++) {
+                    getOrCreateCell(row, col).setStyle(style);
+                }
+            }
+        }
+    }
+
+    /**
+     * Set default style of row. Cells of row that don't exist yet are not
+     * created: they are shown with the row style and get it when created.
+     * Existing cells of row are restyled.
+     *
+     * @param rowNum the number of row
+     * @param style  the style of row
+     */
+    public void setRowStyle(int rowNum, SpreadsheetCellStyle style) {
+        CellStyle cellStyle = registerStyle(style);
+        long stamp = lockWrite();
+        try {
+            XSSFRow row = getOrCreatePoiRow(rowNum);
+            synchronized (workbook.getPoiLock()) {
+                setRowStyle(row, cellStyle);
+            }
+            if (rowNum > rowCount) {
+                rowCount = rowNum;
+            }
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Set default style of rows from {@code firstRowNum} to
+     * {@code lastRowNum} row, missing rows are created. If range is open
+     * to the last row of sheet, it ends with the last existing row; rows
+     * created later below it don't get the style.
+     *
+     * @param firstRowNum the number of first row
+     * @param lastRowNum  the number of last row
+     * @param style       the style of rows
+     */
+    public void setRowsStyle(int firstRowNum, int lastRowNum,
+                             SpreadsheetCellStyle style) {
+        CellStyle cellStyle = registerStyle(style);
+        long stamp = lockWrite();
+        try {
+            if (lastRowNum >= SpreadsheetVersion.EXCEL2007.getLastRowIndex()) {
+                lastRowNum = sheet.getLastRowNum();
+            }
+            synchronized (workbook.getPoiLock()) {
+                for (int rowNum = Math.max(firstRowNum, 0);
+                     rowNum <= lastRowNum; rowNum++) {
+                    setRowStyle(getOrCreatePoiRow(rowNum), cellStyle);
+                }
+            }
+            if (lastRowNum > rowCount) {
+                rowCount = lastRowNum;
+            }
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Set default style of Poi row and restyle its existing cells.
+     *
+     * @param row       the Poi row
+     * @param cellStyle the registered Poi style
+     */
+    private void setRowStyle(XSSFRow row, CellStyle cellStyle) {
+        row.setRowStyle(cellStyle);
+        for (Cell cell : row) {
+            cell.setCellStyle(cellStyle);
+        }
+        markRowChanged(row.getRowNum());
+    }
+
+    /**
+     * Set default style of column. Cells of column that don't exist yet are
+     * not created: they are shown with the column style and get it when
+     * created. Existing cells of column are restyled.
+     *
+     * @param columnNum the number of column
+     * @param style     the style of column
+     */
+    public void setColumnStyle(int columnNum, SpreadsheetCellStyle style) {
+        setColumnsStyle(columnNum, columnNum, style);
+    }
+
+    /**
+     * Set default style of columns from {@code firstColumnNum} to
+     * {@code lastColumnNum} column. Style is kept by one column span
+     * of the sheet, existing cells of columns are restyled in one walk
+     * over existing rows. Count of columns of tab isn't changed.
+     *
+     * @param firstColumnNum the number of first column
+     * @param lastColumnNum  the number of last column
+     * @param style          the style of columns
+     */
+    public void setColumnsStyle(int firstColumnNum, int lastColumnNum,
+                                SpreadsheetCellStyle style) {
+        CellStyle cellStyle = registerStyle(style);
+        long stamp = lockWrite();
+        try {
+            CTCol span = CTCol.Factory.newInstance();
+            span.setMin(firstColumnNum + 1);
+            span.setMax(lastColumnNum + 1);
+            span.setStyle(cellStyle.getIndex() & 0xFFFF);
+            synchronized (workbook.getPoiLock()) {
+                CTWorksheet worksheet = sheet.getCTWorksheet();
+                CTCols cols = worksheet.sizeOfColsArray() == 0
+                        ? worksheet.addNewCols()
+                        : worksheet.getColsArray(0);
+                sheet.getColumnHelper().addCleanColIntoCols(cols, span);
+                for (Row row : sheet) {
+                    for (Cell cell : row) {
+                        int columnNum = cell.getColumnIndex();
+                        if (columnNum >= firstColumnNum
+                                && columnNum <= lastColumnNum) {
+                            cell.setCellStyle(cellStyle);
+                        }
+                    }
+                }
+            }
+            markAllRowsChanged();
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Get default style of row.
+     *
+     * @param rowNum the number of row
+     * @return style of row or {@code null} if row has no default style
+     */
+    public SpreadsheetCellStyle getRowStyle(int rowNum) {
+        XSSFRow row = sheet.getRow(rowNum);
+        if (row == null || !row.isFormatted()) {
+            return null;
+        }
+        return workbook.getRegisteredStyle(
+                Short.toUnsignedInt(row.getRowStyle().getIndex()));
+    }
+
+    /**
+     * Get default style of column.
+     *
+     * @param columnNum the number of column
+     * @return style of column or {@code null} if column has no default style
+     */
+    public SpreadsheetCellStyle getColumnStyle(int columnNum) {
+        int index = sheet.getColumnHelper().getColDefaultStyle(columnNum);
+        if (index <= 0) {
+            return null;
+        }
+        return workbook.getRegisteredStyle(index);
     }
 
     /**
@@ -553,7 +1175,15 @@ public class SpreadsheetTab {
      * @param insertedRowCount the count of rows to insert
      */
     public void insertRows(int rowNum, int insertedRowCount) {
-        sheet.shiftRows(rowNum, insertedRowCount - 1, insertedRowCount);
+        long stamp = lockWrite();
+        try {
+            // Poi updates formulas of other sheets and named ranges too.
+            workbook.markPackageChanged();
+            sheet.shiftRows(rowNum, insertedRowCount - 1, insertedRowCount);
+            markAllRowsChanged();
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
     /**
@@ -573,8 +1203,14 @@ public class SpreadsheetTab {
      * @param insertedColumnCount the count of columns to insert
      */
     public void insertColumns(int columnNum, int insertedColumnCount) {
-        sheet.shiftColumns(columnNum, columnCount - 1,
-                insertedColumnCount);
+        long stamp = lockWrite();
+        try {
+            sheet.shiftColumns(columnNum, columnCount - 1,
+                    insertedColumnCount);
+            markAllRowsChanged();
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
     /**
@@ -593,9 +1229,17 @@ public class SpreadsheetTab {
      * @param lastRowNum  the number of last row
      */
     public void removeRows(int firstRowNum, int lastRowNum) {
-        int delta = lastRowNum - firstRowNum + 1;
-        sheet.shiftRows(lastRowNum + 1, rowCount, delta);
-        rowCount -= delta;
+        long stamp = lockWrite();
+        try {
+            int delta = lastRowNum - firstRowNum + 1;
+            // Poi updates formulas of other sheets and named ranges too.
+            workbook.markPackageChanged();
+            sheet.shiftRows(lastRowNum + 1, rowCount, delta);
+            rowCount -= delta;
+            markAllRowsChanged();
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
     /**
@@ -614,10 +1258,16 @@ public class SpreadsheetTab {
      * @param lastColumnNum  the number of last column
      */
     public void removeColumns(int firstColumnNum, int lastColumnNum) {
-        int delta = lastColumnNum - firstColumnNum + 1;
-        sheet.shiftColumns(lastColumnNum + 1, columnCount,
-                delta);
-        columnCount -= delta;
+        long stamp = lockWrite();
+        try {
+            int delta = lastColumnNum - firstColumnNum + 1;
+            sheet.shiftColumns(lastColumnNum + 1, columnCount,
+                    delta);
+            columnCount -= delta;
+            markAllRowsChanged();
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
     /**
@@ -649,7 +1299,12 @@ public class SpreadsheetTab {
      *               -1 resets to the default height
      */
     public void setRowHeight(int rowNum, short height) {
-        sheet.getRow(rowNum).setHeight(height);
+        long stamp = lockWrite();
+        try {
+            sheet.getRow(rowNum).setHeight(height);
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
     /**
@@ -717,7 +1372,12 @@ public class SpreadsheetTab {
      * @param width     the width in units of 1/256th of a character width
      */
     public void setColumnWidth(int columnNum, int width) {
-        sheet.setColumnWidth(columnNum, width);
+        long stamp = lockWrite();
+        try {
+            sheet.setColumnWidth(columnNum, width);
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
     /**
@@ -736,36 +1396,71 @@ public class SpreadsheetTab {
     }
 
     /**
-     * Adjusts the row height to fit the contents.
+     * Adjusts the row height to fit the contents. Text of cells with wrapped
+     * text style is wrapped by the current width of their columns using
+     * metrics of their fonts.
      *
      * @param rowNum the number of row
      */
     public void autoSizeRow(int rowNum) {
-        float maxCellHeight = -1;
-        for (int columnNum = 0; columnNum <= columnCount; columnNum++) {
-            SpreadsheetCell cell = getOrCreateCell(rowNum, columnNum);
-            int fontSize = cell.getFontSizeInPoints();
-            XSSFCell poiCell = cell.getPoiCell();
-            if (poiCell.getCellType() == CellType.STRING) {
-                String value = poiCell.getStringCellValue();
-                int numLines = 1;
-                for (int i = 0; i < value.length(); i++) {
-                    if (value.charAt(i) == '\n') numLines++;
+        long stamp = lockWrite();
+        try {
+            XSSFRow row = sheet.getRow(rowNum);
+            if (row == null) {
+                return;
+            }
+            SpreadsheetTextMetrics metrics = getTextMetrics();
+            float maxCellHeight = -1;
+            for (Cell cell : row) {
+                if (cell.getCellType() != CellType.STRING) {
+                    continue;
+                }
+                String value = cell.getStringCellValue();
+                CellStyle cellStyle = cell.getCellStyle();
+                int fontIndex = cellStyle.getFontIndexAsInt();
+                int numLines;
+                if (cellStyle.getWrapText()) {
+                    numLines = metrics.countLines(fontIndex, value,
+                            sheet.getColumnWidth(cell.getColumnIndex()));
+                } else {
+                    numLines = 1;
+                    for (int i = 0; i < value.length(); i++) {
+                        if (value.charAt(i) == '\n') numLines++;
+                    }
                 }
+                int fontSize = workbook.getUntrackedPoiWorkbook()
+                        .getFontAt(fontIndex).getFontHeightInPoints();
                 float cellHeight = computeRowHeightInPoints(fontSize, numLines);
                 if (cellHeight > maxCellHeight) {
                     maxCellHeight = cellHeight;
                 }
             }
-        }
 
-        float defaultRowHeightInPoints = sheet.getDefaultRowHeightInPoints();
-        float rowHeight = maxCellHeight;
-        if (rowHeight < defaultRowHeightInPoints + 1) {
-            rowHeight = -1; // resets to the default.
+            float defaultRowHeightInPoints
+                    = sheet.getDefaultRowHeightInPoints();
+            float rowHeight = maxCellHeight;
+            if (rowHeight < defaultRowHeightInPoints + 1) {
+                rowHeight = -1; // resets to the default.
+            }
+
+            row.setHeightInPoints(rowHeight);
+        } finally {
+            unlockWrite(stamp);
         }
+    }
 
-        sheet.getRow(rowNum).setHeightInPoints(rowHeight);
+    /**
+     * Get text metrics of tab. Metrics cache widths of glyphs and counts
+     * of wrapped lines, so sizing of a whole sheet stays cheap.
+     *
+     * @return text metrics
+     */
+    public SpreadsheetTextMetrics getTextMetrics() {
+        if (textMetrics == null) {
+            textMetrics = new SpreadsheetTextMetrics(
+                    workbook.getUntrackedPoiWorkbook());
+        }
+        return textMetrics;
     }
 
     /**
@@ -796,7 +1491,12 @@ public class SpreadsheetTab {
      * @param columnNum the number of column
      */
     public void autoSizeColumn(int columnNum) {
-        sheet.autoSizeColumn(columnNum, true);
+        long stamp = lockWrite();
+        try {
+            sheet.autoSizeColumn(columnNum, true);
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
     /**
@@ -817,6 +1517,486 @@ public class SpreadsheetTab {
         }
     }
 
+    /**
+     * Adjusts the all columns' widths to fit the contents measuring columns
+     * concurrently. Texts of cells and their fonts are collected from Poi
+     * objects on the calling thread, measured by workers of executor without
+     * access to Poi workbook, and computed widths are applied to the sheet
+     * on the calling thread. Texts are measured like Poi autosize does,
+     * so widths are equal to widths set by {@link #autosizeCols()}.
+     *
+     * @param executor the executor to run workers
+     * @throws SpreadsheetException if measuring of columns failed
+     *                              or was interrupted
+     */
+    public void autosizeCols(ExecutorService executor)
+            throws SpreadsheetException {
+        List<ColumnContent> contents;
+        int defaultCharWidth;
+        long stamp = lockRead();
+        try {
+            contents = collectColumnContents();
+            defaultCharWidth = SheetUtil.getDefaultCharWidth(
+                    workbook.getUntrackedPoiWorkbook());
+        } finally {
+            unlockRead(stamp);
+        }
+        int[] widths = new int[contents.size()];
+        int workerCount = Math.max(1, Math.min(contents.size(),
+                Runtime.getRuntime().availableProcessors()));
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int worker = 0; worker < workerCount; worker++) {
+            int firstColumnNum = worker;
+            futures.add(executor.submit(() -> {
+                for (int colNum = firstColumnNum; colNum < widths.length;
+                     colNum += workerCount) {
+                    widths[colNum] = contents.get(colNum)
+                            .computeColumnWidth(defaultCharWidth);
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SpreadsheetException("Autosize of columns was"
+                    + " interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new SpreadsheetException("Cannot autosize columns.",
+                    e.getCause());
+        }
+
+        stamp = lockWrite();
+        try {
+            for (int colNum = 0; colNum < widths.length; colNum++) {
+                if (widths[colNum] >= 0) {
+                    sheet.setColumnWidth(colNum, widths[colNum]);
+                    sheet.getColumnHelper().setColBestFit(colNum, true);
+                }
+            }
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Adjusts the all columns' widths to fit the contents measuring columns
+     * in the common fork/join pool. See {@link #autosizeCols(ExecutorService)}.
+     *
+     * @throws SpreadsheetException if measuring of columns failed
+     *                              or was interrupted
+     */
+    public void autosizeColsInParallel() throws SpreadsheetException {
+        autosizeCols(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Collect texts of cells by columns in one pass over physical cells.
+     * Like Poi autosize, every cell of merged region is measured by the cell
+     * of the same row in the first column of the region.
+     *
+     * @return list of contents of columns by column number
+     */
+    private List<ColumnContent> collectColumnContents() {
+        Map<Integer, List<CellRangeAddress>> regionsByRow = new HashMap<>();
+        for (CellRangeAddress region : sheet.getMergedRegions()) {
+            for (int rowNum = region.getFirstRow();
+                 rowNum <= region.getLastRow(); rowNum++) {
+                regionsByRow.computeIfAbsent(rowNum, k -> new ArrayList<>())
+                        .add(region);
+            }
+        }
+        // Fonts are resolved here, workers do not touch Poi workbook.
+        Map<Integer, ColumnContent.TextStyle> textStyles = new HashMap<>();
+
+        List<ColumnContent> contents = new ArrayList<>();
+        for (Row row : sheet) {
+            List<CellRangeAddress> regions = regionsByRow.getOrDefault(
+                    row.getRowNum(), Collections.emptyList());
+            for (Cell cell : row) {
+                int colNum = cell.getColumnIndex();
+                Cell measuredCell = cell;
+                int span = 1;
+                for (CellRangeAddress region : regions) {
+                    if (region.isInRange(row.getRowNum(), colNum)) {
+                        measuredCell = row.getCell(region.getFirstColumn());
+                        span = region.getLastColumn()
+                                - region.getFirstColumn() + 1;
+                    }
+                }
+                String text = measuredCell == null
+                        ? null
+                        : getMeasuredText(measuredCell);
+                if (text == null) {
+                    continue;
+                }
+                while (contents.size() <= colNum) {
+                    contents.add(new ColumnContent());
+                }
+                CellStyle cellStyle = measuredCell.getCellStyle();
+                ColumnContent.TextStyle textStyle = textStyles.computeIfAbsent(
+                        (int) cellStyle.getIndex(),
+                        k -> new ColumnContent.TextStyle(cellStyle,
+                                workbook.getUntrackedPoiWorkbook().getFontAt(
+                                        cellStyle.getFontIndexAsInt())));
+                contents.get(colNum).add(text, textStyle, span);
+            }
+        }
+        return contents;
+    }
+
+    /**
+     * Get text of cell as Poi autosize measures it.
+     *
+     * @param cell the cell
+     * @return text of cell or {@code null} if cell is not measured
+     */
+    private String getMeasuredText(Cell cell) {
+        CellType cellType = cell.getCellType();
+        if (cellType == CellType.FORMULA) {
+            cellType = cell.getCachedFormulaResultType();
+        }
+        switch (cellType) {
+            case STRING:
+                return cell.getRichStringCellValue().getString();
+            case NUMERIC:
+                if (cell.getCellType() != CellType.FORMULA) {
+                    return workbook.getDataFormatter().formatCellValue(cell);
+                }
+                // Cached result of formula is formatted, not the formula.
+                CellStyle cellStyle = cell.getCellStyle();
+                return workbook.getDataFormatter().formatRawCellContents(
+                        cell.getNumericCellValue(), cellStyle.getDataFormat(),
+                        cellStyle.getDataFormatString());
+            case BOOLEAN:
+                return String.valueOf(cell.getBooleanCellValue())
+                        .toUpperCase(Locale.ROOT);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Check if width of columns is planned while values are written.
+     *
+     * @return {@code true} if width planning is on, {@code false} otherwise
+     */
+    public boolean isWidthPlanning() {
+        return widthPlanning;
+    }
+
+    /**
+     * Turn on or off planning of columns' widths. When planning is on,
+     * statistics of rendered width and text are updated per cell every time
+     * a value or a style of cell is set, so columns can be sized by
+     * {@link #applyPlannedWidths()} without a second pass over cells.
+     * A cell written again replaces its previous statistics, so overwriting
+     * a cell with a shorter text narrows the planned width. Like Poi
+     * autosize, every column of a merged region is measured by the first
+     * cell of the region divided by quantity of columns it spans, other
+     * cells of the region are ignored. Only regions merged by
+     * {@link #mergeCells(int, int, int, int, Object, SpreadsheetCellStyle)}
+     * are known to planning.
+     *
+     * @param widthPlanning {@code true} to plan width of columns,
+     *                      {@code false} otherwise
+     */
+    public void setWidthPlanning(boolean widthPlanning) {
+        this.widthPlanning = widthPlanning;
+    }
+
+    /**
+     * Update statistics of the cell by its content. Empty cells remove
+     * their statistics.
+     *
+     * @param cell the written cell
+     */
+    void planContent(SpreadsheetCell cell) {
+        if (!widthPlanning) {
+            return;
+        }
+        XSSFCell poiCell = cell.getUntrackedPoiCell();
+        int rowNum = poiCell.getRowIndex();
+        int columnNum = poiCell.getColumnIndex();
+        long position = ((long) rowNum << 32) | columnNum;
+        // Merged region is measured by its first cell only.
+        if (coveredCells.contains(position)) {
+            return;
+        }
+        Integer mergedSpan = mergedSpans.get(position);
+        int span = mergedSpan == null ? 1 : mergedSpan;
+        String text = workbook.getDataFormatter().formatCellValue(poiCell);
+        if (text.isEmpty()) {
+            for (int colNum = columnNum; colNum < columnNum + span; colNum++) {
+                getPlannedColumn(colNum).clear(rowNum);
+            }
+            return;
+        }
+        XSSFCellStyle cellStyle = workbook.getUntrackedPoiWorkbook()
+                .getCellStyleAt(cell.getStyleIndex());
+        int fontIndex = cellStyle.getFontIndexAsInt();
+        float width = getTextMetrics().getCellTextWidth(fontIndex, text, span);
+        getPlannedColumn(columnNum).set(rowNum, text, fontIndex,
+                cellStyle.getWrapText(), span, width);
+        for (int colNum = columnNum + 1; colNum < columnNum + span; colNum++) {
+            getPlannedColumn(colNum).set(rowNum, null, fontIndex, false,
+                    span, width);
+        }
+    }
+
+    /**
+     * Get statistics of column collected by width planning, creating them
+     * if column has no planned cells yet.
+     *
+     * @param columnNum the number of column
+     * @return statistics of column
+     */
+    private PlannedColumn getPlannedColumn(int columnNum) {
+        if (columnNum >= plannedColumns.length) {
+            plannedColumns = Arrays.copyOf(plannedColumns,
+                    Math.max(columnNum + 1, plannedColumns.length * 2));
+        }
+        if (plannedColumns[columnNum] == null) {
+            plannedColumns[columnNum] = new PlannedColumn();
+        }
+        return plannedColumns[columnNum];
+    }
+
+    /**
+     * Get max count of lines of cells of column collected by width planning.
+     * Wrapped text is wrapped by the current width of columns of the cell.
+     *
+     * @param columnNum the number of column
+     * @return max count of lines or {@code 0} if column has no planned cells
+     */
+    public int getPlannedLineCount(int columnNum) {
+        return getPlannedLineCount(columnNum, -1);
+    }
+
+    /**
+     * Get max count of lines of cells of column with the font collected
+     * by width planning. Wrapped text is wrapped by the current width
+     * of columns of the cell.
+     *
+     * @param columnNum the number of column
+     * @param fontIndex the index of Poi font or {@code -1} for all fonts
+     * @return max count of lines or {@code 0} if column has no planned cells
+     * with the font
+     */
+    public int getPlannedLineCount(int columnNum, int fontIndex) {
+        if (columnNum >= plannedColumns.length
+                || plannedColumns[columnNum] == null) {
+            return 0;
+        }
+        return plannedColumns[columnNum].getMaxLineCount(getTextMetrics(),
+                fontIndex, span -> {
+                    int width = 0;
+                    for (int colNum = columnNum; colNum < columnNum + span;
+                         colNum++) {
+                        width += sheet.getColumnWidth(colNum);
+                    }
+                    return width;
+                });
+    }
+
+    /**
+     * Set widths of all columns by statistics collected by width planning.
+     * Cells are not read again. Columns without planned cells are left
+     * untouched.
+     */
+    public void applyPlannedWidths() {
+        SpreadsheetTextMetrics metrics = getTextMetrics();
+        for (int colNum = 0; colNum < plannedColumns.length; colNum++) {
+            float width = plannedColumns[colNum] == null
+                    ? 0
+                    : plannedColumns[colNum].getMaxWidth();
+            if (width > 0) {
+                setColumnWidth(colNum, Math.min(metrics.getColumnWidth(width),
+                        255 * 256));
+            }
+        }
+    }
+
+    /**
+     * Copy content of tab filled in a staging workbook into this empty tab.
+     * Settings of sheet except views, columns, merged regions and cells are
+     * copied as is, indexes of styles and shared strings of staging workbook
+     * are replaced by indexes of this workbook.
+     *
+     * @param staging       the tab of staging workbook
+     * @param styleIndexes  the indexes of styles of this workbook by indexes
+     *                      of styles of staging workbook
+     * @param stringIndexes the indexes of shared strings of this workbook by
+     *                      indexes of shared strings of staging workbook
+     */
+    void copyFrom(SpreadsheetTab staging, int[] styleIndexes,
+                  int[] stringIndexes) {
+        CTWorksheet worksheet = (CTWorksheet) staging.sheet.getCTWorksheet()
+                .copy();
+        worksheet.setSheetData(CTSheetData.Factory.newInstance());
+        // Selection of tabs depends on position of sheet in workbook.
+        worksheet.setSheetViews(sheet.getCTWorksheet().getSheetViews());
+        for (int i = 0; i < worksheet.sizeOfColsArray(); i++) {
+            CTCols cols = worksheet.getColsArray(i);
+            for (int j = 0; j < cols.sizeOfColArray(); j++) {
+                CTCol col = cols.getColArray(j);
+                if (col.isSetStyle()) {
+                    col.setStyle(styleIndexes[(int) col.getStyle()]);
+                }
+            }
+        }
+        sheet.getCTWorksheet().set(worksheet);
+
+        for (Row stagingRow : staging.sheet) {
+            XSSFRow row = sheet.createRow(stagingRow.getRowNum());
+            CTRow ctRow = (CTRow) ((XSSFRow) stagingRow).getCTRow().copy();
+            ctRow.setCArray(null);
+            if (ctRow.isSetS()) {
+                ctRow.setS(styleIndexes[(int) ctRow.getS()]);
+            }
+            row.getCTRow().set(ctRow);
+            for (Cell stagingCell : stagingRow) {
+                CTCell ctCell = row.createCell(stagingCell.getColumnIndex())
+                        .getCTCell();
+                ctCell.set(((XSSFCell) stagingCell).getCTCell());
+                if (ctCell.isSetS()) {
+                    ctCell.setS(styleIndexes[(int) ctCell.getS()]);
+                }
+                if (ctCell.getT() == STCellType.S) {
+                    ctCell.setV(Integer.toString(stringIndexes[
+                            Integer.parseInt(ctCell.getV())]));
+                }
+            }
+        }
+
+        rowCount = staging.rowCount;
+        columnCount = staging.columnCount;
+        mergedSpans.putAll(staging.mergedSpans);
+        coveredCells.addAll(staging.coveredCells);
+        widthPlanning = staging.widthPlanning;
+        plannedColumns = new PlannedColumn[staging.plannedColumns.length];
+        for (int colNum = 0; colNum < plannedColumns.length; colNum++) {
+            if (staging.plannedColumns[colNum] != null) {
+                plannedColumns[colNum] = staging.plannedColumns[colNum].copy();
+            }
+        }
+        markAllRowsChanged();
+        modified = true;
+    }
+
+    /**
+     * Take immutable snapshot of values, styles and merged regions of tab.
+     * Only rows changed since previous snapshot are read from sheet, arrays
+     * of other rows are shared with previous snapshot; if nothing was changed
+     * previous snapshot is returned. Changes made directly through Poi
+     * objects are not tracked. In concurrent mode snapshot is taken under
+     * shared lock.
+     *
+     * @return snapshot of tab
+     */
+    public synchronized SpreadsheetTabSnapshot snapshot() {
+        long stamp = lockRead();
+        try {
+            if (lastSnapshot != null && !allRowsChanged
+                    && changedRows.isEmpty() && !mergedRegionsChanged) {
+                return lastSnapshot;
+            }
+            int sheetRowCount = sheet.getPhysicalNumberOfRows() == 0
+                    ? 0
+                    : sheet.getLastRowNum() + 1;
+            String[][] values = new String[sheetRowCount][];
+            int[][] styleIndexes = new int[sheetRowCount][];
+            DataFormatter dataFormatter = workbook.getDataFormatter();
+            if (lastSnapshot == null || allRowsChanged) {
+                for (Row row : sheet) {
+                    snapshotRow((XSSFRow) row, values, styleIndexes,
+                            dataFormatter);
+                }
+            } else {
+                lastSnapshot.copyRows(values, styleIndexes);
+                for (int rowNum = changedRows.nextSetBit(0);
+                     rowNum >= 0 && rowNum < sheetRowCount;
+                     rowNum = changedRows.nextSetBit(rowNum + 1)) {
+                    values[rowNum] = null;
+                    styleIndexes[rowNum] = null;
+                    snapshotRow(sheet.getRow(rowNum), values, styleIndexes,
+                            dataFormatter);
+                }
+            }
+
+            List<CellRangeAddress> mergedRegions;
+            if (lastSnapshot == null || allRowsChanged
+                    || mergedRegionsChanged) {
+                mergedRegions = Collections.unmodifiableList(
+                        sheet.getMergedRegions());
+            } else {
+                mergedRegions = lastSnapshot.getMergedRegions();
+            }
+
+            lastSnapshot = new SpreadsheetTabSnapshot(workbook, values,
+                    styleIndexes, mergedRegions);
+            changedRows.clear();
+            allRowsChanged = false;
+            mergedRegionsChanged = false;
+            return lastSnapshot;
+        } finally {
+            unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Read values and indexes of styles of cells of row to arrays
+     * of snapshot.
+     *
+     * @param row           the Poi row or {@code null} if row doesn't exist
+     * @param values        the formatted values of cells by rows
+     * @param styleIndexes  the indexes of Poi styles of cells by rows
+     * @param dataFormatter the data formatter
+     */
+    private void snapshotRow(XSSFRow row, String[][] values,
+                             int[][] styleIndexes,
+                             DataFormatter dataFormatter) {
+        if (row == null || row.getLastCellNum() <= 0) {
+            return;
+        }
+        int cellCount = row.getLastCellNum();
+        String[] rowValues = new String[cellCount];
+        int[] rowStyleIndexes = new int[cellCount];
+        for (Cell cell : row) {
+            int columnNum = cell.getColumnIndex();
+            rowValues[columnNum] = dataFormatter.formatCellValue(cell);
+            CTCell ctCell = ((XSSFCell) cell).getCTCell();
+            rowStyleIndexes[columnNum] = ctCell.isSetS()
+                    ? (int) ctCell.getS()
+                    : 0;
+        }
+        values[row.getRowNum()] = rowValues;
+        styleIndexes[row.getRowNum()] = rowStyleIndexes;
+    }
+
+    /**
+     * Remember that row was changed since last snapshot.
+     *
+     * @param rowNum the number of row
+     */
+    void markRowChanged(int rowNum) {
+        if (lastSnapshot != null) {
+            changedRows.set(rowNum);
+        }
+    }
+
+    /**
+     * Remember that all rows and merged regions were changed since last
+     * snapshot.
+     */
+    private void markAllRowsChanged() {
+        allRowsChanged = true;
+        changedRows.clear();
+    }
+
     /**
      * Adjusts the  all rows' heights and all columns' widths to fit
      * the contents.
@@ -835,18 +2015,64 @@ public class SpreadsheetTab {
      * @param lastColumnNum  the number of last column
      * @param content        the content of merged cell
      * @param style          the style of cell
+     * @see SpreadsheetCell#setValue(Object)
      */
     public void mergeCells(int firstRowNum, int firstColumnNum,
                            int lastRowNum, int lastColumnNum,
                            Object content, SpreadsheetCellStyle style) {
-        setValue(firstRowNum, firstColumnNum, content);
+        // Cells are left unchanged if type of content is not supported.
+        if (!SpreadsheetCell.isSupportedValue(content)) {
+            SpreadsheetCell.reportUnsupportedValue(content);
+            return;
+        }
+        registerMergedRegion(firstRowNum, firstColumnNum, lastRowNum,
+                lastColumnNum);
         for (int col = firstColumnNum; col <= lastColumnNum; col++) {
             for (int row = firstRowNum; row <= lastRowNum; row++) {
                 setStyle(row, col, style);
             }
         }
-        sheet.addMergedRegion(new CellRangeAddress(firstRowNum, lastRowNum,
-                firstColumnNum, lastColumnNum));
+        setValue(firstRowNum, firstColumnNum, content);
+        long stamp = lockWrite();
+        try {
+            sheet.addMergedRegion(new CellRangeAddress(firstRowNum, lastRowNum,
+                    firstColumnNum, lastColumnNum));
+            mergedRegionsChanged = true;
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remember merged region, so planning measures it by its first cell.
+     * Statistics of other cells of the region are removed.
+     *
+     * @param firstRowNum    the number of first row
+     * @param firstColumnNum the number of first column
+     * @param lastRowNum     the number of last row
+     * @param lastColumnNum  the number of last column
+     */
+    private void registerMergedRegion(int firstRowNum, int firstColumnNum,
+                                      int lastRowNum, int lastColumnNum) {
+        long stamp = lockWrite();
+        try {
+            mergedSpans.put(((long) firstRowNum << 32) | firstColumnNum,
+                    lastColumnNum - firstColumnNum + 1);
+            for (int row = firstRowNum; row <= lastRowNum; row++) {
+                for (int col = firstColumnNum; col <= lastColumnNum; col++) {
+                    if (row == firstRowNum && col == firstColumnNum) {
+                        continue;
+                    }
+                    coveredCells.add(((long) row << 32) | col);
+                    if (col < plannedColumns.length
+                            && plannedColumns[col] != null) {
+                        plannedColumns[col].clear(row);
+                    }
+                }
+            }
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
     /**
@@ -881,8 +2107,16 @@ public class SpreadsheetTab {
      * Clear all rows.
      */
     public void clearAll() {
-        sheet.shiftRows(rowCount, rowCount * 2,
-                -rowCount);
+        long stamp = lockWrite();
+        try {
+            // Poi updates formulas of other sheets and named ranges too.
+            workbook.markPackageChanged();
+            sheet.shiftRows(rowCount, rowCount * 2,
+                    -rowCount);
+            markAllRowsChanged();
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
     /**
@@ -902,8 +2136,7 @@ public class SpreadsheetTab {
         return rowCount == that.rowCount &&
                 columnCount == that.columnCount &&
                 Objects.equals(workbook, that.workbook) &&
-                Objects.equals(sheet, that.sheet) &&
-                Objects.equals(cells, that.cells);
+                Objects.equals(sheet, that.sheet);
     }
 
     /**
@@ -913,8 +2146,7 @@ public class SpreadsheetTab {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(workbook, sheet, cells, rowCount,
-                columnCount);
+        return Objects.hash(workbook, sheet, rowCount, columnCount);
     }
 
     /**
@@ -927,9 +2159,34 @@ public class SpreadsheetTab {
         return "SpreadsheetTab{" +
                 "workbook=" + workbook +
                 ", sheet=" + sheet +
-                ", cells=" + cells +
                 ", highestModifiedRow=" + rowCount +
                 ", highestModifiedCol=" + columnCount +
                 '}';
     }
+
+    /**
+     * Weak reference to cell wrapper that remembers its key in cache.
+     */
+    private static final class WeakCell
+            extends WeakReference<SpreadsheetCell> {
+
+        /**
+         * Packed position of cell: row number in high and column number
+         * in low 32 bits.
+         */
+        private final long key;
+
+        /**
+         * Constructor with parameters.
+         *
+         * @param cell  the cell wrapper
+         * @param key   the packed position of cell
+         * @param queue the queue to register reference with
+         */
+        private WeakCell(SpreadsheetCell cell, long key,
+                         ReferenceQueue<SpreadsheetCell> queue) {
+            super(cell, queue);
+            this.key = key;
+        }
+    }
 }
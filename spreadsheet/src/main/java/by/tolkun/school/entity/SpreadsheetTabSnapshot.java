@@ -0,0 +1,155 @@
+package by.tolkun.school.entity;
+
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.util.List;
+
+/**
+ * Class to represent immutable snapshot of values, styles and merged regions
+ * of tab (sheet) at the moment it was taken. Snapshot is backed by arrays
+ * of rows and may be read by many threads without locking while the tab
+ * keeps changing. Arrays of rows that weren't changed between snapshots are
+ * shared by them.
+ */
+public final class SpreadsheetTabSnapshot {
+
+    /**
+     * Workbook of tab.
+     */
+    private final SpreadsheetWorkbook workbook;
+
+    /**
+     * Formatted values of cells by row and column number. Missing rows
+     * and cells are {@code null}.
+     */
+    private final String[][] values;
+
+    /**
+     * Indexes of Poi styles of cells by row and column number. Missing rows
+     * are {@code null}.
+     */
+    private final int[][] styleIndexes;
+
+    /**
+     * Unmodifiable list of merged regions.
+     */
+    private final List<CellRangeAddress> mergedRegions;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param workbook      the workbook of tab
+     * @param values        the formatted values of cells by rows
+     * @param styleIndexes  the indexes of Poi styles of cells by rows
+     * @param mergedRegions the unmodifiable list of merged regions
+     */
+    SpreadsheetTabSnapshot(SpreadsheetWorkbook workbook, String[][] values,
+                           int[][] styleIndexes,
+                           List<CellRangeAddress> mergedRegions) {
+        this.workbook = workbook;
+        this.values = values;
+        this.styleIndexes = styleIndexes;
+        this.mergedRegions = mergedRegions;
+    }
+
+    /**
+     * Get quantity of rows in snapshot, i.e. number of last row plus one.
+     *
+     * @return quantity of rows
+     */
+    public int getRowCount() {
+        return values.length;
+    }
+
+    /**
+     * Get quantity of cells in row, i.e. number of last cell plus one.
+     *
+     * @param rowNum the number of row
+     * @return quantity of cells or {@code 0} if row doesn't exist
+     */
+    public int getCellCount(int rowNum) {
+        if (rowNum < 0 || rowNum >= values.length || values[rowNum] == null) {
+            return 0;
+        }
+        return values[rowNum].length;
+    }
+
+    /**
+     * Get formatted value of cell.
+     *
+     * @param rowNum    the number of row
+     * @param columnNum the number of column
+     * @return formatted value of cell or empty string if cell doesn't exist
+     */
+    public String getValue(int rowNum, int columnNum) {
+        if (columnNum < 0 || columnNum >= getCellCount(rowNum)) {
+            return "";
+        }
+        String value = values[rowNum][columnNum];
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Get index of Poi style of cell.
+     *
+     * @param rowNum    the number of row
+     * @param columnNum the number of column
+     * @return index of Poi style or {@code 0} if cell doesn't exist
+     */
+    public int getStyleIndex(int rowNum, int columnNum) {
+        if (columnNum < 0 || columnNum >= getCellCount(rowNum)) {
+            return 0;
+        }
+        return styleIndexes[rowNum][columnNum];
+    }
+
+    /**
+     * Get style of cell.
+     *
+     * @param rowNum    the number of row
+     * @param columnNum the number of column
+     * @return style of cell or {@code null} if cell doesn't exist or its
+     * style wasn't registered in workbook
+     */
+    public SpreadsheetCellStyle getStyle(int rowNum, int columnNum) {
+        return workbook.getRegisteredStyle(getStyleIndex(rowNum, columnNum));
+    }
+
+    /**
+     * Get merged regions.
+     *
+     * @return unmodifiable list of merged regions
+     */
+    public List<CellRangeAddress> getMergedRegions() {
+        return mergedRegions;
+    }
+
+    /**
+     * Copy references to arrays of rows to arrays of new snapshot. Rows
+     * that don't fit into new arrays are skipped.
+     *
+     * @param values       the formatted values of cells by rows
+     *                     of new snapshot
+     * @param styleIndexes the indexes of Poi styles of cells by rows
+     *                     of new snapshot
+     */
+    void copyRows(String[][] values, int[][] styleIndexes) {
+        int rowCount = Math.min(this.values.length, values.length);
+        System.arraycopy(this.values, 0, values, 0, rowCount);
+        System.arraycopy(this.styleIndexes, 0, styleIndexes, 0, rowCount);
+    }
+
+    /**
+     * Check if row of snapshot is shared with another snapshot, i.e. row
+     * wasn't changed between snapshots.
+     *
+     * @param other  the other snapshot
+     * @param rowNum the number of row
+     * @return {@code true} if row is shared, {@code false} otherwise
+     */
+    public boolean isRowShared(SpreadsheetTabSnapshot other, int rowNum) {
+        return rowNum >= 0 && rowNum < values.length
+                && rowNum < other.values.length
+                && values[rowNum] == other.values[rowNum];
+    }
+}
@@ -0,0 +1,346 @@
+package by.tolkun.school.entity;
+
+import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Class to estimate rendered size of text in cells. Widths of glyphs are
+ * measured once per font of workbook and cached, counts of wrapped lines are
+ * memoized per text, font and column width. Object is not thread-safe,
+ * every thread should use its own metrics.
+ */
+public class SpreadsheetTextMetrics {
+
+    /**
+     * Max quantity of memoized counts of wrapped lines.
+     */
+    private static final int MAX_CACHED_LINE_COUNTS = 8192;
+
+    /**
+     * Padding of cell in points: 4 pixels of margin plus 1 pixel
+     * of gridline at 96 dpi.
+     */
+    private static final float CELL_PADDING_IN_POINTS = 3.75f;
+
+    /**
+     * Quantity of glyphs in a page of glyph widths cache.
+     */
+    private static final int GLYPH_PAGE_SIZE = 256;
+
+    /**
+     * Poi workbook to get fonts from.
+     */
+    private final XSSFWorkbook workbook;
+
+    /**
+     * Render context used to measure glyphs.
+     */
+    private final FontRenderContext fontRenderContext
+            = new FontRenderContext(null, true, true);
+
+    /**
+     * Map of index of Poi font and its AWT font.
+     */
+    private final Map<Integer, Font> awtFonts = new HashMap<>();
+
+    /**
+     * Map of index of Poi font and pages of widths of its glyphs in points.
+     */
+    private final Map<Integer, float[][]> glyphWidths = new HashMap<>();
+
+    /**
+     * Memoized counts of wrapped lines, least recently used are evicted.
+     */
+    private final Map<LineCountKey, Integer> lineCounts
+            = new LinkedHashMap<LineCountKey, Integer>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(
+                Map.Entry<LineCountKey, Integer> eldest) {
+            return size() > MAX_CACHED_LINE_COUNTS;
+        }
+    };
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param workbook the Poi workbook
+     */
+    public SpreadsheetTextMetrics(XSSFWorkbook workbook) {
+        this.workbook = workbook;
+    }
+
+    /**
+     * Get width of glyph in points.
+     *
+     * @param fontIndex the index of Poi font
+     * @param c         the character
+     * @return width of glyph in points
+     */
+    public float getCharWidth(int fontIndex, char c) {
+        float[][] pages = glyphWidths.get(fontIndex);
+        if (pages == null) {
+            pages = new float[(Character.MAX_VALUE + 1) / GLYPH_PAGE_SIZE][];
+            glyphWidths.put(fontIndex, pages);
+        }
+        float[] page = pages[c / GLYPH_PAGE_SIZE];
+        if (page == null) {
+            page = new float[GLYPH_PAGE_SIZE];
+            // Mark widths as not measured yet.
+            Arrays.fill(page, -1);
+            pages[c / GLYPH_PAGE_SIZE] = page;
+        }
+        float width = page[c % GLYPH_PAGE_SIZE];
+        if (width < 0) {
+            width = (float) getAwtFont(fontIndex)
+                    .getStringBounds(String.valueOf(c), fontRenderContext)
+                    .getWidth();
+            page[c % GLYPH_PAGE_SIZE] = width;
+        }
+        return width;
+    }
+
+    /**
+     * Get width of text in points as a single line.
+     *
+     * @param fontIndex the index of Poi font
+     * @param text      the text
+     * @param from      the index of first character, inclusive
+     * @param to        the index of last character, exclusive
+     * @return width of text in points
+     */
+    public float getTextWidth(int fontIndex, CharSequence text,
+                              int from, int to) {
+        float width = 0;
+        for (int i = from; i < to; i++) {
+            width += getCharWidth(fontIndex, text.charAt(i));
+        }
+        return width;
+    }
+
+    /**
+     * Get width of the widest line of text in points. Lines are separated
+     * by {@code '\n'}.
+     *
+     * @param fontIndex the index of Poi font
+     * @param text      the text
+     * @return width of the widest line in points
+     */
+    public float getMaxLineWidth(int fontIndex, CharSequence text) {
+        float maxWidth = 0;
+        float width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                maxWidth = Math.max(maxWidth, width);
+                width = 0;
+            } else {
+                width += getCharWidth(fontIndex, c);
+            }
+        }
+        return Math.max(maxWidth, width);
+    }
+
+    /**
+     * Get width of text of cell in points as Poi measures it to autosize
+     * column: width of the widest line plus width of one more character
+     * as padding, divided by quantity of columns the cell spans.
+     *
+     * @param fontIndex the index of Poi font
+     * @param text      the text of cell
+     * @param span      the quantity of columns the cell spans
+     * @return width of cell text in points
+     */
+    public float getCellTextWidth(int fontIndex, CharSequence text, int span) {
+        return (getMaxLineWidth(fontIndex, text)
+                + getCharWidth(fontIndex, '0')) / span;
+    }
+
+    /**
+     * Get width of character of default font of workbook in whole points
+     * like Poi computes it. Width of columns is measured in these characters.
+     *
+     * @return width of default character in points
+     */
+    public float getDefaultCharWidth() {
+        return Math.max(1, (int) getCharWidth(0, '0'));
+    }
+
+    /**
+     * Convert width of column to points of text area without padding.
+     *
+     * @param columnWidth the width in units of 1/256th of a character width
+     * @return width of text area in points
+     */
+    public float getColumnWidthInPoints(int columnWidth) {
+        return columnWidth / 256f * getDefaultCharWidth()
+                - CELL_PADDING_IN_POINTS;
+    }
+
+    /**
+     * Convert width of text in points to width of column. Padding is not
+     * added, it should be included in width of text.
+     *
+     * @param textWidth the width of text in points
+     * @return width in units of 1/256th of a character width
+     */
+    public int getColumnWidth(float textWidth) {
+        return (int) (textWidth / getDefaultCharWidth() * 256);
+    }
+
+    /**
+     * Count lines of text wrapped in column of the width. Text is wrapped
+     * greedily by words like Excel does, words wider than column are broken
+     * by characters. Results are memoized.
+     *
+     * @param fontIndex   the index of Poi font
+     * @param text        the text
+     * @param columnWidth the width in units of 1/256th of a character width
+     * @return count of lines
+     */
+    public int countLines(int fontIndex, String text, int columnWidth) {
+        LineCountKey key = new LineCountKey(text, fontIndex, columnWidth);
+        Integer lineCount = lineCounts.get(key);
+        if (lineCount == null) {
+            lineCount = wrap(fontIndex, text,
+                    getColumnWidthInPoints(columnWidth));
+            lineCounts.put(key, lineCount);
+        }
+        return lineCount;
+    }
+
+    /**
+     * Simulate greedy word wrap of text.
+     *
+     * @param fontIndex      the index of Poi font
+     * @param text           the text
+     * @param availableWidth the width of text area in points
+     * @return count of lines
+     */
+    private int wrap(int fontIndex, String text, float availableWidth) {
+        float spaceWidth = getCharWidth(fontIndex, ' ');
+        int lineCount = 1;
+        float lineWidth = 0;
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                lineCount++;
+                lineWidth = 0;
+                i++;
+                continue;
+            }
+            if (c == ' ') {
+                lineWidth += spaceWidth;
+                i++;
+                continue;
+            }
+            int wordEnd = i;
+            while (wordEnd < text.length() && text.charAt(wordEnd) != ' '
+                    && text.charAt(wordEnd) != '\n') {
+                wordEnd++;
+            }
+            float wordWidth = getTextWidth(fontIndex, text, i, wordEnd);
+            if (lineWidth > 0 && lineWidth + wordWidth > availableWidth) {
+                lineCount++;
+                lineWidth = 0;
+            }
+            if (wordWidth <= availableWidth) {
+                lineWidth += wordWidth;
+            } else {
+                // Word is wider than column: break it by characters.
+                for (int j = i; j < wordEnd; j++) {
+                    float charWidth = getCharWidth(fontIndex, text.charAt(j));
+                    if (lineWidth > 0
+                            && lineWidth + charWidth > availableWidth) {
+                        lineCount++;
+                        lineWidth = 0;
+                    }
+                    lineWidth += charWidth;
+                }
+            }
+            i = wordEnd;
+        }
+        return lineCount;
+    }
+
+    /**
+     * Get AWT font by index of Poi font.
+     *
+     * @param fontIndex the index of Poi font
+     * @return AWT font
+     */
+    private Font getAwtFont(int fontIndex) {
+        Font awtFont = awtFonts.get(fontIndex);
+        if (awtFont == null) {
+            XSSFFont font = workbook.getFontAt(fontIndex);
+            int style = Font.PLAIN;
+            if (font.getBold()) {
+                style |= Font.BOLD;
+            }
+            if (font.getItalic()) {
+                style |= Font.ITALIC;
+            }
+            awtFont = new Font(font.getFontName(), style,
+                    font.getFontHeightInPoints());
+            awtFonts.put(fontIndex, awtFont);
+        }
+        return awtFont;
+    }
+
+    /**
+     * Key of memoized count of wrapped lines.
+     */
+    private static final class LineCountKey {
+
+        /**
+         * Text.
+         */
+        private final String text;
+
+        /**
+         * Index of Poi font.
+         */
+        private final int fontIndex;
+
+        /**
+         * Width of column.
+         */
+        private final int columnWidth;
+
+        /**
+         * Constructor with parameters.
+         *
+         * @param text        the text
+         * @param fontIndex   the index of Poi font
+         * @param columnWidth the width of column
+         */
+        private LineCountKey(String text, int fontIndex, int columnWidth) {
+            this.text = text;
+            this.fontIndex = fontIndex;
+            this.columnWidth = columnWidth;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof LineCountKey)) return false;
+            LineCountKey that = (LineCountKey) o;
+            return fontIndex == that.fontIndex &&
+                    columnWidth == that.columnWidth &&
+                    text.equals(that.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(text, fontIndex, columnWidth);
+        }
+    }
+}
@@ -1,21 +1,67 @@
 package by.tolkun.school.entity;
 
+import by.tolkun.school.exception.SpreadsheetException;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
+import org.apache.poi.ooxml.POIXMLDocumentPart;
+import org.apache.poi.ooxml.POIXMLRelation;
+import org.apache.poi.ooxml.POIXMLTypeLoader;
+import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.FillPatternType;
 import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.model.CalculationChain;
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCell;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFColor;
 import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.apache.poi.xssf.usermodel.XSSFFactory;
+import org.apache.poi.xssf.usermodel.XSSFFormulaEvaluator;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.apache.poi.xssf.usermodel.XSSFRow;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.xmlbeans.XmlOptions;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCol;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCols;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTRow;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTSheetData;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorksheet;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import javax.xml.namespace.QName;
 
 /**
- * Class to represent workbook.
+ * Class to represent workbook. Registries of styles and fonts are safe to use
+ * from several threads, so different tabs of one workbook may be filled
+ * concurrently. Formula evaluation is not thread-safe.
  */
 public class SpreadsheetWorkbook {
 
@@ -27,31 +73,92 @@ public class SpreadsheetWorkbook {
     /**
      * Map of tabs by index.
      */
-    private final Map<Integer, SpreadsheetTab> tabsByIndex = new HashMap<>();
+    private final Map<Integer, SpreadsheetTab> tabsByIndex
+            = new ConcurrentHashMap<>();
 
     /**
      * Map of tabs by title.
      */
-    private final Map<String, SpreadsheetTab> tabsByTitle = new HashMap<>();
+    private final Map<String, SpreadsheetTab> tabsByTitle
+            = new ConcurrentHashMap<>();
 
     /**
      * Map of spreadsheet font {@link SpreadsheetFont}
      * and Poi font {@link Font}.
      */
-    private final Map<SpreadsheetFont, Font> fontMap = new HashMap<>();
+    private final Map<SpreadsheetFont, Font> fontMap
+            = new ConcurrentHashMap<>();
 
     /**
      * Map of spreadsheet style {@link SpreadsheetCellStyle}
      * and Poi style {@link CellStyle}.
      */
     private final Map<SpreadsheetCellStyle, CellStyle> styleMap
-            = new HashMap<>();
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Map of index of Poi style {@link CellStyle} and spreadsheet style
+     * {@link SpreadsheetCellStyle} it was created from.
+     */
+    private final Map<Integer, SpreadsheetCellStyle> stylesByIndex
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Lock to serialize changes of Poi workbook shared by all tabs: creation
+     * of styles, fonts and sheets, changes of shared strings table.
+     */
+    private final Object poiLock = new Object();
+
+    /**
+     * Data formatters shared by all cells of workbook, one per thread.
+     */
+    private final ThreadLocal<DataFormatter> dataFormatters
+            = ThreadLocal.withInitial(DataFormatter::new);
+
+    /**
+     * Formula evaluator shared by all tabs of workbook. It is created on first
+     * use and keeps evaluated results cached until cells they depend on are
+     * updated.
+     */
+    private volatile XSSFFormulaEvaluator formulaEvaluator;
+
+    /**
+     * Policy of storing of string values of cells.
+     */
+    private volatile SharedStringsPolicy sharedStringsPolicy
+            = SharedStringsPolicy.SHARED;
+
+    /**
+     * Strings added to shared strings table in advance, in order they were
+     * added.
+     */
+    private final List<String> preseededStrings = new ArrayList<>();
+
+    /**
+     * Content of file workbook was read from or {@code null} if workbook
+     * wasn't read from file. Unchanged entries are copied from this snapshot,
+     * so file may be changed or overwritten by written workbook.
+     */
+    private final byte[] sourceBytes;
+
+    /**
+     * Quantity of sheets of workbook when it was read.
+     */
+    private final int sourceSheetCount;
+
+    /**
+     * Was Poi workbook handed out or could parts of package other than
+     * sheets, styles and shared strings be changed, so workbook can be
+     * written only as a whole.
+     */
+    private volatile boolean packageChanged;
 
     /**
-     * Default constructor.
+     * Default constructor. Shared strings table of created workbook looks
+     * plain strings up without serializing them.
      */
     public SpreadsheetWorkbook() {
-        this(new XSSFWorkbook());
+        this(new XSSFWorkbook(new SharedStringsFactory()));
     }
 
     /**
@@ -60,13 +167,64 @@ public class SpreadsheetWorkbook {
      * @param workbook the workbook
      */
     public SpreadsheetWorkbook(XSSFWorkbook workbook) {
+        this(workbook, null);
+    }
+
+    /**
+     * Constructor with parameters. Workbook is read from file into memory
+     * together with content of file, file isn't locked. When workbook is
+     * written incrementally, parts of file that weren't changed are copied
+     * byte for byte from content read, see
+     * {@link #write(OutputStream, WriteMode)}.
+     *
+     * @param file the file of workbook
+     * @throws IOException if file can't be read
+     */
+    public SpreadsheetWorkbook(File file) throws IOException {
+        this(Files.readAllBytes(file.toPath()));
+    }
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param sourceBytes the content of file of workbook
+     * @throws IOException if workbook can't be read
+     */
+    private SpreadsheetWorkbook(byte[] sourceBytes) throws IOException {
+        this(readWorkbook(sourceBytes), sourceBytes);
+    }
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param workbook    the workbook
+     * @param sourceBytes the content of file workbook was read from
+     *                    or {@code null}
+     */
+    private SpreadsheetWorkbook(XSSFWorkbook workbook, byte[] sourceBytes) {
         this.workbook = workbook;
+        this.sourceBytes = sourceBytes;
         if (workbook.getNumberOfSheets() > 0) {
             for (int index = 0; index < workbook.getNumberOfSheets(); index++) {
                 XSSFSheet sheet = workbook.getSheetAt(index);
                 createExistingTab(sheet);
             }
         }
+        sourceSheetCount = workbook.getNumberOfSheets();
+    }
+
+    /**
+     * Read Poi workbook from content of file.
+     *
+     * @param sourceBytes the content of file of workbook
+     * @return Poi workbook
+     * @throws IOException if workbook can't be read
+     */
+    private static XSSFWorkbook readWorkbook(byte[] sourceBytes)
+            throws IOException {
+        try (InputStream in = new ByteArrayInputStream(sourceBytes)) {
+            return new XSSFWorkbook(in);
+        }
     }
 
     /**
@@ -77,7 +235,7 @@ public class SpreadsheetWorkbook {
     private void createExistingTab(XSSFSheet sheet) {
         SpreadsheetTab tab = new SpreadsheetTab(this, sheet);
         tabsByTitle.put(sheet.getSheetName(), tab);
-        tabsByIndex.put(getPoiWorkbook().getSheetIndex(tab.getPoiSheet()), tab);
+        tabsByIndex.put(workbook.getSheetIndex(sheet), tab);
     }
 
     /**
@@ -87,26 +245,314 @@ public class SpreadsheetWorkbook {
      * @return tab (sheet)
      */
     public SpreadsheetTab createTab(String title) {
-        if (getTab(title) != null) {
-            throw new IllegalArgumentException("Workbook already has a sheet"
-                    + " with title: " + title);
+        synchronized (poiLock) {
+            if (getTab(title) != null) {
+                throw new IllegalArgumentException("Workbook already has"
+                        + " a sheet with title: " + title);
+            }
+            // Create tab by creating sheet in poi workbook.
+            SpreadsheetTab tab = new SpreadsheetTab(this, title);
+            tabsByTitle.put(title, tab);
+            tabsByIndex.put(
+                    workbook.getSheetIndex(tab.getUntrackedPoiSheet()), tab);
+            return tab;
+        }
+    }
+
+    /**
+     * Build tabs by producers concurrently. Every producer fills its tab
+     * in an isolated staging workbook, so producers don't contend for locks
+     * of this workbook. When all producers are finished, tabs are assembled
+     * into this workbook in iteration order of the map: fonts, styles and
+     * shared strings of every staging workbook are registered in order they
+     * were created, so the result is the same as if producers were run one
+     * by one on this workbook. Producers must change only the tab they get,
+     * formulas may refer to cells of this tab only.
+     *
+     * @param producers the producers of tabs by titles of tabs
+     * @param executor  the executor to run producers
+     * @throws SpreadsheetException if a producer failed or was interrupted
+     */
+    public void buildTabs(Map<String, Consumer<SpreadsheetTab>> producers,
+                          ExecutorService executor)
+            throws SpreadsheetException {
+        for (String title : producers.keySet()) {
+            if (getTab(title) != null) {
+                throw new IllegalArgumentException("Workbook already has"
+                        + " a sheet with title: " + title);
+            }
+        }
+
+        SpreadsheetTab[] stagingTabs = new SpreadsheetTab[producers.size()];
+        List<Future<?>> futures = new ArrayList<>();
+        int tabIndex = 0;
+        for (Map.Entry<String, Consumer<SpreadsheetTab>> producer
+                : producers.entrySet()) {
+            int stagingIndex = tabIndex++;
+            futures.add(executor.submit(() -> {
+                SpreadsheetTab stagingTab = createStagingWorkbook()
+                        .createTab(producer.getKey());
+                producer.getValue().accept(stagingTab);
+                stagingTabs[stagingIndex] = stagingTab;
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SpreadsheetException("Building of tabs was"
+                    + " interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new SpreadsheetException("Cannot build tabs.",
+                    e.getCause());
+        }
+
+        for (SpreadsheetTab stagingTab : stagingTabs) {
+            assembleTab(stagingTab);
+        }
+    }
+
+    /**
+     * Build tabs by producers concurrently in the common fork/join pool.
+     * See {@link #buildTabs(Map, ExecutorService)}.
+     *
+     * @param producers the producers of tabs by titles of tabs
+     * @throws SpreadsheetException if a producer failed or was interrupted
+     */
+    public void buildTabs(Map<String, Consumer<SpreadsheetTab>> producers)
+            throws SpreadsheetException {
+        buildTabs(producers, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create staging workbook to build tab in. Staging workbook gets policy
+     * of strings and preseeded strings of this workbook.
+     *
+     * @return staging workbook
+     */
+    private SpreadsheetWorkbook createStagingWorkbook() {
+        SpreadsheetWorkbook staging = new SpreadsheetWorkbook();
+        staging.setSharedStringsPolicy(sharedStringsPolicy);
+        synchronized (poiLock) {
+            staging.preseedSharedStrings(preseededStrings);
+        }
+        return staging;
+    }
+
+    /**
+     * Create tab from tab of staging workbook. Fonts and styles of staging
+     * workbook are registered in order of their Poi indexes, shared strings
+     * are added in order of their indexes and total count of their uses
+     * is kept.
+     *
+     * @param stagingTab the tab of staging workbook
+     */
+    private void assembleTab(SpreadsheetTab stagingTab) {
+        SpreadsheetWorkbook staging = stagingTab.getWorkbook();
+        XSSFWorkbook stagingPoiWorkbook = staging.getUntrackedPoiWorkbook();
+
+        List<Map.Entry<SpreadsheetFont, Font>> fonts
+                = new ArrayList<>(staging.getFonts().entrySet());
+        fonts.sort(Comparator.comparingInt(entry
+                -> entry.getValue().getIndexAsInt()));
+        for (Map.Entry<SpreadsheetFont, Font> font : fonts) {
+            registerFont(font.getKey());
+        }
+
+        int[] styleIndexes = new int[stagingPoiWorkbook.getNumCellStyles()];
+        for (int index = 0; index < styleIndexes.length; index++) {
+            SpreadsheetCellStyle style = staging
+                    .getRegisteredStyle(index);
+            styleIndexes[index] = style == null
+                    ? index
+                    : registerStyle(style).getIndex();
+        }
+
+        SharedStringsTable stagingStrings = stagingPoiWorkbook
+                .getSharedStringSource();
+        int[] stringIndexes = new int[stagingStrings.getUniqueCount()];
+        SpreadsheetTab tab;
+        synchronized (poiLock) {
+            SharedStringsTable strings = workbook.getSharedStringSource();
+            if (strings instanceof SpreadsheetSharedStrings) {
+                SpreadsheetSharedStrings sharedStrings
+                        = (SpreadsheetSharedStrings) strings;
+                for (int index = 0; index < stringIndexes.length; index++) {
+                    // Item of table only wraps its entry, entry isn't copied.
+                    XSSFRichTextString item = (XSSFRichTextString)
+                            stagingStrings.getItemAt(index);
+                    stringIndexes[index] = sharedStrings.preseedEntry(
+                            item.getCTRst());
+                }
+                // Every write of string counts as use of shared string.
+                sharedStrings.addReferences(stagingStrings.getCount());
+            } else {
+                // Table wasn't created by this workbook, so only the first
+                // use of every string is counted.
+                for (int index = 0; index < stringIndexes.length; index++) {
+                    stringIndexes[index] = strings.addSharedStringItem(
+                            stagingStrings.getItemAt(index));
+                }
+            }
+            tab = createTab(stagingTab.getUntrackedPoiSheet().getSheetName());
+        }
+        tab.copyFrom(stagingTab, styleIndexes, stringIndexes);
+    }
+
+    /**
+     * Get policy of storing of string values of cells.
+     *
+     * @return policy of storing of strings
+     */
+    public SharedStringsPolicy getSharedStringsPolicy() {
+        return sharedStringsPolicy;
+    }
+
+    /**
+     * Set policy of storing of string values of cells. Policy affects only
+     * strings written after it's set.
+     *
+     * @param sharedStringsPolicy the policy of storing of strings
+     */
+    public void setSharedStringsPolicy(
+            SharedStringsPolicy sharedStringsPolicy) {
+        this.sharedStringsPolicy = sharedStringsPolicy;
+    }
+
+    /**
+     * Add strings of dictionary to shared strings table in advance, e.g.
+     * names of subjects. Indexes of strings in table follow order of
+     * dictionary and don't depend on order cells are written in.
+     *
+     * @param dictionary the strings to add
+     */
+    public void preseedSharedStrings(Collection<String> dictionary) {
+        synchronized (poiLock) {
+            SharedStringsTable strings = workbook.getSharedStringSource();
+            for (String value : dictionary) {
+                if (strings instanceof SpreadsheetSharedStrings) {
+                    ((SpreadsheetSharedStrings) strings)
+                            .preseedString(value);
+                } else {
+                    strings.addSharedStringItem(
+                            new XSSFRichTextString(value));
+                }
+                preseededStrings.add(value);
+            }
+        }
+    }
+
+    /**
+     * Add reference to plain string to shared strings table without
+     * serializing of string. Must be called under lock of Poi workbook.
+     *
+     * @param value the string
+     * @return index of string in table or {@code -1} if table of Poi
+     * workbook doesn't support lookup of plain strings
+     */
+    int addSharedString(String value) {
+        SharedStringsTable strings = workbook.getSharedStringSource();
+        if (strings instanceof SpreadsheetSharedStrings) {
+            return ((SpreadsheetSharedStrings) strings).addString(value);
         }
-        // Create tab by creating sheet in poi workbook.
-        SpreadsheetTab tab = new SpreadsheetTab(this, title);
-        tabsByTitle.put(title, tab);
-        tabsByIndex.put(getPoiWorkbook().getSheetIndex(tab.getPoiSheet()), tab);
-        return tab;
+        return -1;
     }
 
     /**
-     * Get Poi workbook.
+     * Get Poi workbook. Changes made through Poi workbook aren't tracked, so
+     * once it is handed out workbook is always written as a whole.
      *
      * @return Poi workbook
      */
     public XSSFWorkbook getPoiWorkbook() {
+        packageChanged = true;
         return workbook;
     }
 
+    /**
+     * Get Poi workbook for changes made by tabs themselves. Unlike
+     * {@link #getPoiWorkbook()} it doesn't prevent incremental writing.
+     *
+     * @return Poi workbook
+     */
+    XSSFWorkbook getUntrackedPoiWorkbook() {
+        return workbook;
+    }
+
+    /**
+     * Mark that parts of package other than sheets, styles and shared
+     * strings could be changed, e.g. when Poi objects were handed out or
+     * rows were shifted and Poi updated formulas of other sheets and named
+     * ranges.
+     */
+    void markPackageChanged() {
+        packageChanged = true;
+    }
+
+    /**
+     * Get data formatter shared by all cells of workbook. Every thread gets
+     * its own formatter.
+     *
+     * @return data formatter
+     */
+    public DataFormatter getDataFormatter() {
+        return dataFormatters.get();
+    }
+
+    /**
+     * Get lock to serialize changes of Poi workbook shared by all tabs.
+     *
+     * @return lock object
+     */
+    Object getPoiLock() {
+        return poiLock;
+    }
+
+    /**
+     * Get formula evaluator of workbook. Evaluator is created once per workbook
+     * and caches results of evaluated formulas, so repeated reads of formula
+     * cells don't recompute the whole workbook.
+     *
+     * @return formula evaluator
+     */
+    public XSSFFormulaEvaluator getFormulaEvaluator() {
+        if (formulaEvaluator == null) {
+            synchronized (poiLock) {
+                if (formulaEvaluator == null) {
+                    formulaEvaluator = workbook.getCreationHelper()
+                            .createFormulaEvaluator();
+                }
+            }
+        }
+        return formulaEvaluator;
+    }
+
+    /**
+     * Notify formula evaluator that value or formula of cell was changed. Only
+     * cached results of formulas that depend on the cell are invalidated.
+     *
+     * @param cell the updated Poi cell
+     */
+    void notifyCellUpdated(XSSFCell cell) {
+        if (formulaEvaluator != null) {
+            synchronized (poiLock) {
+                formulaEvaluator.notifyUpdateCell(cell);
+            }
+        }
+    }
+
+    /**
+     * Clear all cached results of evaluated formulas. Should be called
+     * if cells were modified directly through Poi objects.
+     */
+    public void clearFormulaCache() {
+        if (formulaEvaluator != null) {
+            formulaEvaluator.clearAllCachedResultValues();
+        }
+    }
+
     /**
      * Get tab by index.
      *
@@ -150,7 +596,8 @@ public class SpreadsheetWorkbook {
     /**
      * Register style: return registered style if it exists,
      * create Poi style {@link CellStyle} from {@link SpreadsheetCellStyle}
-     * and add it to style map otherwise.
+     * and add it to style map otherwise. Lookup of registered styles doesn't
+     * lock, creation of new Poi styles is serialized.
      *
      * @param style the style {@link SpreadsheetCellStyle}
      * @return Poi style {@link CellStyle}
@@ -158,12 +605,30 @@ public class SpreadsheetWorkbook {
     public CellStyle registerStyle(SpreadsheetCellStyle style) {
         CellStyle cellStyle = styleMap.get(style);
         if (cellStyle == null) {
-            cellStyle = createNewStyle(style);
-            styleMap.put(style, cellStyle);
+            synchronized (poiLock) {
+                cellStyle = styleMap.get(style);
+                if (cellStyle == null) {
+                    cellStyle = createNewStyle(style);
+                    stylesByIndex.put(Short.toUnsignedInt(cellStyle.getIndex()),
+                            style);
+                    styleMap.put(style, cellStyle);
+                }
+            }
         }
         return cellStyle;
     }
 
+    /**
+     * Get registered spreadsheet style by index of Poi style.
+     *
+     * @param index the index of Poi style {@link CellStyle}
+     * @return spreadsheet style {@link SpreadsheetCellStyle} or {@code null}
+     * if Poi style wasn't created by {@link #registerStyle}
+     */
+    public SpreadsheetCellStyle getRegisteredStyle(int index) {
+        return stylesByIndex.get(index);
+    }
+
     /**
      * Create Poi style {@link CellStyle} from spreadsheet style
      * {@link SpreadsheetCellStyle}
@@ -239,7 +704,8 @@ public class SpreadsheetWorkbook {
     /**
      * Register font: return registered font if it exists
      * create Poi font {@link Font} from {@link SpreadsheetCell}
-     * and add it to font map.
+     * and add it to font map. Lookup of registered fonts doesn't lock,
+     * creation of new Poi fonts is serialized.
      *
      * @param font the font {@link SpreadsheetFont}
      * @return Poi font {@link Font}
@@ -247,8 +713,13 @@ public class SpreadsheetWorkbook {
     public Font registerFont(SpreadsheetFont font) {
         Font poiFont = fontMap.get(font);
         if (poiFont == null) {
-            poiFont = createNewFont(font);
-            fontMap.put(font, poiFont);
+            synchronized (poiLock) {
+                poiFont = fontMap.get(font);
+                if (poiFont == null) {
+                    poiFont = createNewFont(font);
+                    fontMap.put(font, poiFont);
+                }
+            }
         }
         return poiFont;
     }
@@ -302,6 +773,246 @@ public class SpreadsheetWorkbook {
      * @throws IOException if anything can't be written.
      */
     public void write(OutputStream out) throws IOException {
-        workbook.write(out);
+        write(out, WriteMode.FULL);
+    }
+
+    /**
+     * Write out this document to an Outputstream in given mode, see
+     * {@link #write(OutputStream)}. In {@link WriteMode#INCREMENTAL} mode
+     * changed sheets, styles and shared strings are serialized and other
+     * entries of source file are copied as is from its content read with
+     * workbook, so workbook may be written back to its source file. Workbook
+     * is written as a whole if it wasn't read by
+     * {@link #SpreadsheetWorkbook(File)}, tabs were added, rows were shifted,
+     * Poi workbook, sheets or cells were handed out or a changed sheet has
+     * hyperlinks or related parts like comments or drawings.
+     *
+     * @param out  the output stream
+     * @param mode the mode of writing
+     * @throws IOException if anything can't be written.
+     */
+    public void write(OutputStream out, WriteMode mode) throws IOException {
+        if (mode == WriteMode.FULL || sourceBytes == null || packageChanged
+                || workbook.getNumberOfSheets() != sourceSheetCount) {
+            workbook.write(out);
+            return;
+        }
+
+        Map<String, POIXMLDocumentPart> modifiedParts = new HashMap<>();
+        for (SpreadsheetTab tab : tabsByIndex.values()) {
+            if (tab.isModified()) {
+                XSSFSheet sheet = tab.getUntrackedPoiSheet();
+                if (!isWritableAlone(sheet)) {
+                    workbook.write(out);
+                    return;
+                }
+                putPart(modifiedParts, sheet);
+            }
+        }
+        // Registered Poi styles and fonts may be changed in place, so styles
+        // and shared strings are always serialized.
+        putPart(modifiedParts, workbook.getStylesSource());
+        putPart(modifiedParts, workbook.getSharedStringSource());
+        if (workbook.getCalculationChain() != null) {
+            putPart(modifiedParts, workbook.getCalculationChain());
+        }
+
+        try (ZipFile source = new ZipFile(
+                new SeekableInMemoryByteChannel(sourceBytes))) {
+            for (String name : modifiedParts.keySet()) {
+                if (source.getEntry(name) == null) {
+                    workbook.write(out);
+                    return;
+                }
+            }
+            copyUnchangedParts(source, modifiedParts, out);
+        }
+    }
+
+    /**
+     * Check if sheet can be serialized apart from package: it has no
+     * hyperlinks and related parts, its rows and cells are kept in order
+     * of their numbers. Poi appends rows and cells created out of order and
+     * sorts them only when whole package is saved.
+     *
+     * @param sheet the sheet
+     * @return {@code true} if sheet can be serialized apart from package,
+     * {@code false} otherwise
+     */
+    private static boolean isWritableAlone(XSSFSheet sheet) {
+        CTWorksheet worksheet = sheet.getCTWorksheet();
+        if (worksheet.isSetHyperlinks() || sheet.getNumHyperlinks() > 0
+                || !sheet.getRelations().isEmpty()) {
+            return false;
+        }
+        CTSheetData sheetData = worksheet.getSheetData();
+        if (sheetData.sizeOfRowArray() != sheet.getPhysicalNumberOfRows()) {
+            return false;
+        }
+        int rowIndex = 0;
+        for (Row row : sheet) {
+            CTRow ctRow = ((XSSFRow) row).getCTRow();
+            if (sheetData.getRowArray(rowIndex++) != ctRow
+                    || ctRow.sizeOfCArray() != row.getPhysicalNumberOfCells()) {
+                return false;
+            }
+            int cellIndex = 0;
+            for (Cell cell : row) {
+                if (ctRow.getCArray(cellIndex++)
+                        != ((XSSFCell) cell).getCTCell()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Put part of Poi workbook to map by name of its zip entry.
+     *
+     * @param parts the map of parts by names of zip entries
+     * @param part  the part of Poi workbook
+     */
+    private static void putPart(Map<String, POIXMLDocumentPart> parts,
+                                POIXMLDocumentPart part) {
+        // Names of parts start with slash, names of zip entries don't.
+        parts.put(part.getPackagePart().getPartName().getName().substring(1),
+                part);
+    }
+
+    /**
+     * Write package copying raw compressed entries of source file for parts
+     * that weren't changed and serializing changed parts.
+     *
+     * @param source        the zip file workbook was read from
+     * @param modifiedParts the changed parts by names of zip entries
+     * @param out           the output stream
+     * @throws IOException if anything can't be read or written
+     */
+    private static void copyUnchangedParts(
+            ZipFile source, Map<String, POIXMLDocumentPart> modifiedParts,
+            OutputStream out) throws IOException {
+        ZipArchiveOutputStream zip = new ZipArchiveOutputStream(out);
+        Enumeration<ZipArchiveEntry> entries
+                = source.getEntriesInPhysicalOrder();
+        while (entries.hasMoreElements()) {
+            ZipArchiveEntry entry = entries.nextElement();
+            POIXMLDocumentPart part = modifiedParts.get(entry.getName());
+            if (part == null) {
+                try (InputStream raw = source.getRawInputStream(entry)) {
+                    zip.addRawArchiveEntry(entry, raw);
+                }
+            } else {
+                zip.putArchiveEntry(new ZipArchiveEntry(entry.getName()));
+                writePart(part, zip);
+                zip.closeArchiveEntry();
+            }
+        }
+        // Output stream is left open like by Poi workbook.
+        zip.finish();
+    }
+
+    /**
+     * Serialize part of Poi workbook.
+     *
+     * @param part the styles, shared strings, calculation chain or sheet
+     * @param out  the output stream
+     * @throws IOException if part can't be written
+     */
+    private static void writePart(POIXMLDocumentPart part, OutputStream out)
+            throws IOException {
+        if (part instanceof StylesTable) {
+            ((StylesTable) part).writeTo(out);
+        } else if (part instanceof SharedStringsTable) {
+            ((SharedStringsTable) part).writeTo(out);
+        } else if (part instanceof CalculationChain) {
+            ((CalculationChain) part).writeTo(out);
+        } else {
+            writeSheet((XSSFSheet) part, out);
+        }
+    }
+
+    /**
+     * Serialize sheet the way Poi does when whole package is saved: empty
+     * list of columns is left out, widths of columns are set and dimension
+     * of sheet is updated.
+     *
+     * @param sheet the sheet
+     * @param out   the output stream
+     * @throws IOException if sheet can't be written
+     */
+    private static void writeSheet(XSSFSheet sheet, OutputStream out)
+            throws IOException {
+        CTWorksheet worksheet = sheet.getCTWorksheet();
+        // Excel treats file with empty list of columns as corrupted.
+        boolean emptyCols = worksheet.sizeOfColsArray() == 1
+                && worksheet.getColsArray(0).sizeOfColArray() == 0;
+        if (emptyCols) {
+            worksheet.removeCols(0);
+        } else if (worksheet.sizeOfColsArray() == 1) {
+            CTCols cols = worksheet.getColsArray(0);
+            for (int i = 0; i < cols.sizeOfColArray(); i++) {
+                CTCol col = cols.getColArray(i);
+                if (!col.isSetWidth()) {
+                    col.setWidth(sheet.getDefaultColumnWidth());
+                    col.setCustomWidth(false);
+                }
+            }
+        }
+
+        int firstColumnNum = Integer.MAX_VALUE;
+        int lastColumnNum = Integer.MIN_VALUE;
+        for (Row row : sheet) {
+            if (row.getFirstCellNum() != -1) {
+                firstColumnNum = Math.min(firstColumnNum,
+                        row.getFirstCellNum());
+                lastColumnNum = Math.max(lastColumnNum,
+                        row.getLastCellNum() - 1);
+            }
+        }
+        if (firstColumnNum != Integer.MAX_VALUE) {
+            String ref = new CellRangeAddress(sheet.getFirstRowNum(),
+                    sheet.getLastRowNum(), firstColumnNum, lastColumnNum)
+                    .formatAsString();
+            if (worksheet.isSetDimension()) {
+                worksheet.getDimension().setRef(ref);
+            } else {
+                worksheet.addNewDimension().setRef(ref);
+            }
+        }
+
+        XmlOptions options = new XmlOptions(
+                POIXMLTypeLoader.DEFAULT_XML_OPTIONS);
+        options.setSaveSyntheticDocumentElement(new QName(
+                CTWorksheet.type.getName().getNamespaceURI(), "worksheet"));
+        try {
+            worksheet.save(out, options);
+        } finally {
+            if (emptyCols) {
+                worksheet.addNewCols();
+            }
+        }
+    }
+
+    /**
+     * Factory of parts of Poi workbook that creates shared strings table
+     * with lookup of plain strings.
+     */
+    private static final class SharedStringsFactory extends XSSFFactory {
+
+        /**
+         * Create new part of document.
+         *
+         * @param descriptor the relation of part
+         * @return new part of document
+         */
+        @Override
+        public POIXMLDocumentPart newDocumentPart(
+                POIXMLRelation descriptor) {
+            if (descriptor == XSSFRelation.SHARED_STRINGS) {
+                return new SpreadsheetSharedStrings();
+            }
+            return super.newDocumentPart(descriptor);
+        }
     }
 }
@@ -0,0 +1,194 @@
+package by.tolkun.school.entity;
+
+import by.tolkun.school.exception.SpreadsheetException;
+
+import java.util.Arrays;
+
+/**
+ * Class to represent report of batch write to tab (sheet). Report keeps
+ * positions and types of values that couldn't be written in compact arrays,
+ * no exception is created for rejected values.
+ */
+public final class SpreadsheetWriteReport {
+
+    /**
+     * Max quantity of rejected values described in message of exception.
+     */
+    private static final int MAX_DESCRIBED_ERRORS = 10;
+
+    /**
+     * Numbers of rows of rejected values.
+     */
+    private int[] rowNums = new int[0];
+
+    /**
+     * Numbers of columns of rejected values.
+     */
+    private int[] columnNums = new int[0];
+
+    /**
+     * Types of rejected values.
+     */
+    private Class<?>[] types = new Class<?>[0];
+
+    /**
+     * Quantity of rejected values.
+     */
+    private int errorCount;
+
+    /**
+     * Quantity of written values.
+     */
+    private int writtenCount;
+
+    /**
+     * Add rejected value.
+     *
+     * @param rowNum    the number of row
+     * @param columnNum the number of column
+     * @param type      the type of value
+     */
+    void addError(int rowNum, int columnNum, Class<?> type) {
+        if (errorCount == rowNums.length) {
+            int length = Math.max(8, errorCount * 2);
+            rowNums = Arrays.copyOf(rowNums, length);
+            columnNums = Arrays.copyOf(columnNums, length);
+            types = Arrays.copyOf(types, length);
+        }
+        rowNums[errorCount] = rowNum;
+        columnNums[errorCount] = columnNum;
+        types[errorCount] = type;
+        errorCount++;
+    }
+
+    /**
+     * Count written value.
+     */
+    void addWritten() {
+        writtenCount++;
+    }
+
+    /**
+     * Get quantity of written values.
+     *
+     * @return quantity of written values
+     */
+    public int getWrittenCount() {
+        return writtenCount;
+    }
+
+    /**
+     * Get quantity of rejected values.
+     *
+     * @return quantity of rejected values
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Check if any value was rejected.
+     *
+     * @return {@code true} if report has errors, {@code false} otherwise
+     */
+    public boolean hasErrors() {
+        return errorCount > 0;
+    }
+
+    /**
+     * Get number of row of rejected value.
+     *
+     * @param index the index of error
+     * @return number of row
+     */
+    public int getRowNum(int index) {
+        checkIndex(index);
+        return rowNums[index];
+    }
+
+    /**
+     * Get number of column of rejected value.
+     *
+     * @param index the index of error
+     * @return number of column
+     */
+    public int getColumnNum(int index) {
+        checkIndex(index);
+        return columnNums[index];
+    }
+
+    /**
+     * Get type of rejected value.
+     *
+     * @param index the index of error
+     * @return type of value
+     */
+    public Class<?> getType(int index) {
+        checkIndex(index);
+        return types[index];
+    }
+
+    /**
+     * Check index of error.
+     *
+     * @param index the index of error
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= errorCount) {
+            throw new IndexOutOfBoundsException("Index: " + index
+                    + ", error count: " + errorCount);
+        }
+    }
+
+    /**
+     * Throw exception if any value was rejected. Exception describes first
+     * rejected values and doesn't fill stack trace.
+     *
+     * @throws SpreadsheetException if report has errors
+     */
+    public void check() throws SpreadsheetException {
+        if (errorCount > 0) {
+            throw new SpreadsheetException(describeErrors(), null,
+                    false, false);
+        }
+    }
+
+    /**
+     * Describe first rejected values.
+     *
+     * @return description of errors
+     */
+    private String describeErrors() {
+        StringBuilder message = new StringBuilder("Cannot set ")
+                .append(errorCount)
+                .append(" value(s) as the spreadsheet cell content:");
+        int describedCount = Math.min(errorCount, MAX_DESCRIBED_ERRORS);
+        for (int i = 0; i < describedCount; i++) {
+            message.append(i == 0 ? " " : ", ")
+                    .append(SpreadsheetTab.getCellAddress(rowNums[i],
+                            columnNums[i]))
+                    .append(" [")
+                    .append(types[i].getSimpleName())
+                    .append(']');
+        }
+        if (errorCount > describedCount) {
+            message.append(", ...");
+        }
+        return message.toString();
+    }
+
+    /**
+     * Returns the string representation of the
+     * {@code SpreadsheetWriteReport}.
+     *
+     * @return the string representation of the
+     * {@code SpreadsheetWriteReport}
+     */
+    @Override
+    public String toString() {
+        return "SpreadsheetWriteReport{" +
+                "writtenCount=" + writtenCount +
+                ", errorCount=" + errorCount +
+                '}';
+    }
+}
@@ -101,7 +101,9 @@ public class StudentTimetableSheet {
 
     /**
      * Get cell by row and column number. Return existing cell, create new and
-     * return otherwise.
+     * return otherwise. New cell gets style of its row or column, see
+     * {@link #setRowStyle(int, CellStyle)} and
+     * {@link #setColumnStyle(int, CellStyle)}.
      *
      * @param rowNum the row number
      * @param colNum the column number
@@ -109,7 +111,18 @@ public class StudentTimetableSheet {
      */
     public Cell getCell(int rowNum, int colNum) {
         Row row = getRow(rowNum);
-        return row.getCell(colNum, Row.MissingCellPolicy.CREATE_NULL_AS_BLANK);
+        Cell cell = row.getCell(colNum);
+        if (cell == null) {
+            cell = row.createCell(colNum);
+            // Poi doesn't pass default style of row or column to new cell.
+            CellStyle style = row.isFormatted()
+                    ? row.getRowStyle()
+                    : sheet.getColumnStyle(colNum);
+            if (style != null) {
+                cell.setCellStyle(style);
+            }
+        }
+        return cell;
     }
 
     /**
@@ -167,27 +180,36 @@ public class StudentTimetableSheet {
     }
 
     /**
-     * Set row style by number of the row.
+     * Set row style by number of the row. Style is set to existing cells
+     * of row and to cells created later by {@link #getCell(int, int)}.
      *
      * @param rowNum    the number of the row to set style
      * @param cellStyle the style of cells in row with number {@code rowNum}
      */
     public void setRowStyle(int rowNum, CellStyle cellStyle) {
-        for (int i = 0; i < getPhysicalNumberOfColumns(); i++) {
-            getCell(rowNum, i).setCellStyle(cellStyle);
+        Row row = getRow(rowNum);
+        row.setRowStyle(cellStyle);
+        for (Cell cell : row) {
+            cell.setCellStyle(cellStyle);
         }
     }
 
     /**
-     * Set column style by number of the column.
+     * Set column style by number of the column. Style is set to existing
+     * cells of column and to cells created later by
+     * {@link #getCell(int, int)}.
      *
      * @param columnNum the number of the column to set style
      * @param cellStyle the style of cells in column with number
      *                  {@code columnNum}
      */
     public void setColumnStyle(int columnNum, CellStyle cellStyle) {
-        for (int i = 0; i < getPhysicalNumberOfRows(); i++) {
-            getCell(i, columnNum).setCellStyle(cellStyle);
+        sheet.setDefaultColumnStyle(columnNum, cellStyle);
+        for (Row row : sheet) {
+            Cell cell = row.getCell(columnNum);
+            if (cell != null) {
+                cell.setCellStyle(cellStyle);
+            }
         }
     }
 
@@ -0,0 +1,21 @@
+package by.tolkun.school.entity;
+
+/**
+ * Enumeration of ways to write workbook.
+ */
+public enum WriteMode {
+
+    /**
+     * Whole package is serialized by Poi. Suits any workbook and any changes,
+     * including changes made directly through Poi objects.
+     */
+    FULL,
+
+    /**
+     * Only changed sheets, styles and shared strings are serialized, other
+     * entries of file workbook was read from are copied as is. Suits large
+     * workbooks read from file where a few tabs are changed. Workbook is
+     * written as a whole if incremental writing isn't possible.
+     */
+    INCREMENTAL
+}
@@ -0,0 +1,107 @@
+package by.tolkun.school.entity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark of policies of storing of strings. Fills a tab with strings of
+ * a small vocabulary and with unique strings under every policy and prints
+ * time of filling, time of writing and size of written workbook. It isn't
+ * run as a test; run it with {@code main} and optional arguments: quantity
+ * of rows, quantity of measured rounds.
+ */
+public class SharedStringsPolicyBenchmark {
+
+    /**
+     * Quantity of columns of filled tab.
+     */
+    private static final int COLUMN_COUNT = 10;
+
+    /**
+     * Quantity of strings of vocabulary.
+     */
+    private static final int VOCABULARY_SIZE = 200;
+
+    /**
+     * Quantity of rounds run before measuring.
+     */
+    private static final int WARMUP_ROUNDS = 3;
+
+    /**
+     * Run benchmark.
+     *
+     * @param args quantity of rows and quantity of measured rounds
+     * @throws IOException if workbook can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        List<String> vocabulary = new ArrayList<>();
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            vocabulary.add("Subject " + i);
+        }
+
+        System.out.printf("%-10s %-10s %12s %12s %12s%n", "values", "policy",
+                "fill, ms", "write, ms", "size, KiB");
+        for (boolean unique : new boolean[]{false, true}) {
+            for (String policy : new String[]{"SHARED", "PRESEEDED",
+                    "INLINE"}) {
+                for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                    run(policy, unique, vocabulary, rowCount);
+                }
+                long[] total = new long[3];
+                for (int round = 0; round < rounds; round++) {
+                    long[] result = run(policy, unique, vocabulary, rowCount);
+                    for (int i = 0; i < total.length; i++) {
+                        total[i] += result[i];
+                    }
+                }
+                System.out.printf("%-10s %-10s %12.1f %12.1f %12d%n",
+                        unique ? "unique" : "vocabulary", policy,
+                        total[0] / 1e6 / rounds, total[1] / 1e6 / rounds,
+                        total[2] / rounds / 1024);
+            }
+        }
+    }
+
+    /**
+     * Fill and write one workbook.
+     *
+     * @param policy     the name of policy
+     * @param unique     {@code true} to write unique strings,
+     *                   {@code false} to write strings of vocabulary
+     * @param vocabulary the vocabulary
+     * @param rowCount   the quantity of rows
+     * @return time of filling and writing in nanoseconds and size of
+     * workbook in bytes
+     * @throws IOException if workbook can't be written
+     */
+    private static long[] run(String policy, boolean unique,
+                              List<String> vocabulary, int rowCount)
+            throws IOException {
+        long start = System.nanoTime();
+        SpreadsheetWorkbook workbook = new SpreadsheetWorkbook();
+        if ("INLINE".equals(policy)) {
+            workbook.setSharedStringsPolicy(SharedStringsPolicy.INLINE);
+        } else if ("PRESEEDED".equals(policy)) {
+            workbook.preseedSharedStrings(vocabulary);
+        }
+        SpreadsheetTab tab = workbook.createTab("Benchmark");
+        for (int rowNum = 0; rowNum < rowCount; rowNum++) {
+            for (int columnNum = 0; columnNum < COLUMN_COUNT; columnNum++) {
+                int num = rowNum * COLUMN_COUNT + columnNum;
+                tab.setValue(rowNum, columnNum, unique
+                        ? "Value " + num
+                        : vocabulary.get(num % vocabulary.size()));
+            }
+        }
+        long filled = System.nanoTime();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        workbook.write(out);
+        long written = System.nanoTime();
+        return new long[]{filled - start, written - filled, out.size()};
+    }
+}
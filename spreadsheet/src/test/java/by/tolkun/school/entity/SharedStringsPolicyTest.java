@@ -0,0 +1,82 @@
+package by.tolkun.school.entity;
+
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of policies of storing of strings and preseeding of shared strings.
+ */
+public class SharedStringsPolicyTest {
+
+    private static SpreadsheetWorkbook reread(SpreadsheetWorkbook workbook)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        workbook.write(out);
+        return new SpreadsheetWorkbook(new XSSFWorkbook(
+                new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    @Test
+    public void sharedStringsAreStoredOnce() throws IOException {
+        SpreadsheetWorkbook workbook = new SpreadsheetWorkbook();
+        SpreadsheetTab tab = workbook.createTab("Shared");
+        for (int rowNum = 0; rowNum < 10; rowNum++) {
+            tab.setValue(rowNum, 0, "Subject " + rowNum % 3);
+        }
+        SharedStringsTable strings
+                = workbook.getPoiWorkbook().getSharedStringSource();
+        assertEquals(3, strings.getUniqueCount());
+        assertEquals(10, strings.getCount());
+        assertEquals(STCellType.S, tab.getCell("A1").getPoiCell()
+                .getCTCell().getT());
+
+        SpreadsheetTab read = reread(workbook).getTab(0);
+        assertEquals("Subject 2", read.getCell("A6").getValue());
+    }
+
+    @Test
+    public void inlineStringsBypassTable() throws IOException {
+        SpreadsheetWorkbook workbook = new SpreadsheetWorkbook();
+        workbook.setSharedStringsPolicy(SharedStringsPolicy.INLINE);
+        SpreadsheetTab tab = workbook.createTab("Inline");
+        tab.setValue("A1", "unique text");
+        tab.setValue("A2", 5);
+        tab.getCell("A2").setValue("replaced");
+
+        assertEquals(0, workbook.getPoiWorkbook().getSharedStringSource()
+                .getUniqueCount());
+        assertEquals(STCellType.INLINE_STR, tab.getCell("A1").getPoiCell()
+                .getCTCell().getT());
+
+        SpreadsheetTab read = reread(workbook).getTab(0);
+        assertEquals("unique text", read.getCell("A1").getValue());
+        assertEquals("replaced", read.getCell("A2").getValue());
+    }
+
+    @Test
+    public void preseededStringsComeFirstAndAreNotCounted() {
+        SpreadsheetWorkbook workbook = new SpreadsheetWorkbook();
+        workbook.preseedSharedStrings(Arrays.asList("Math", "History"));
+        SharedStringsTable strings
+                = workbook.getPoiWorkbook().getSharedStringSource();
+        assertEquals(2, strings.getUniqueCount());
+        assertEquals(0, strings.getCount());
+
+        SpreadsheetTab tab = workbook.createTab("Preseeded");
+        tab.setValue("A1", "History");
+        tab.setValue("A2", "Art");
+        assertEquals("1", tab.getCell("A1").getPoiCell().getCTCell().getV());
+        assertEquals("2", tab.getCell("A2").getPoiCell().getCTCell().getV());
+        assertEquals(3, strings.getUniqueCount());
+        assertEquals(2, strings.getCount());
+    }
+}
@@ -0,0 +1,111 @@
+package by.tolkun.school.entity;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of typed raw-value accessors of {@link SpreadsheetCell}.
+ */
+public class SpreadsheetCellAccessorsTest {
+
+    private SpreadsheetWorkbook workbook;
+    private SpreadsheetTab tab;
+
+    @Before
+    public void setUp() {
+        workbook = new SpreadsheetWorkbook();
+        tab = workbook.createTab("Values");
+    }
+
+    private String getString(String cellAddress) {
+        return tab.getCell(cellAddress).getString(new StringBuilder())
+                .toString();
+    }
+
+    @Test
+    public void numericValues() {
+        tab.setValue("A1", 12);
+        tab.setValue("A2", 2.5);
+        assertEquals(CellType.NUMERIC, tab.getCell("A1").getCellKind());
+        assertEquals(12, tab.getCell("A1").getDouble(), 0);
+        assertEquals("12", getString("A1"));
+        assertEquals("2.5", getString("A2"));
+        assertTrue(tab.getCell("A1").getBoolean());
+    }
+
+    @Test
+    public void booleanValues() {
+        tab.setValue("A1", true);
+        assertEquals(1, tab.getCell("A1").getDouble(), 0);
+        assertTrue(tab.getCell("A1").getBoolean());
+        assertEquals("TRUE", getString("A1"));
+    }
+
+    @Test
+    public void sharedStrings() {
+        workbook.setSharedStringsPolicy(SharedStringsPolicy.SHARED);
+        tab.setValue("A1", "Math");
+        tab.setValue("A2", "Math");
+        assertEquals("Math", getString("A1"));
+        assertEquals("Math", getString("A2"));
+        assertTrue(Double.isNaN(tab.getCell("A1").getDouble()));
+        assertFalse(tab.getCell("A1").getBoolean());
+    }
+
+    @Test
+    public void inlineStrings() {
+        workbook.setSharedStringsPolicy(SharedStringsPolicy.INLINE);
+        tab.setValue("A1", "History");
+        assertEquals("History", getString("A1"));
+    }
+
+    @Test
+    public void richTextIsJoined() {
+        XSSFRichTextString text = new XSSFRichTextString("Bold");
+        XSSFFont font = workbook.getPoiWorkbook().createFont();
+        font.setBold(true);
+        text.applyFont(0, 2, font);
+        tab.setValue("A1", text);
+        assertEquals("Bold", getString("A1"));
+    }
+
+    @Test
+    public void escapedCharactersAreDecoded() {
+        tab.setValue("A1", "Tab_x0009_here");
+        assertEquals(tab.getCell("A1").getPoiCell().getStringCellValue(),
+                getString("A1"));
+        assertEquals("Tab\there", getString("A1"));
+    }
+
+    @Test
+    public void cachedStringResultOfFormula() {
+        tab.setValue("A1", "=\"a\"&\"b\"");
+        tab.getCell("A1").getPoiCell().setCellValue("ab");
+        assertEquals(CellType.STRING, tab.getCell("A1").getCellKind());
+        assertEquals("ab", getString("A1"));
+    }
+
+    @Test
+    public void sinkIsReused() {
+        tab.setValue("A1", "x");
+        tab.setValue("B1", 1);
+        StringBuilder sink = new StringBuilder();
+        tab.getCell("A1").getString(sink);
+        tab.getCell("B1").getString(sink);
+        assertEquals("x1", sink.toString());
+    }
+
+    @Test
+    public void styleIndexIsNotTruncated() {
+        tab.setValue("A1", 1);
+        tab.getCell("A1").getPoiCell().getCTCell().setS(40000);
+        assertEquals(40000, tab.getCell("A1").getStyleIndex());
+    }
+}
@@ -0,0 +1,61 @@
+package by.tolkun.school.entity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of weakly held wrappers of cells of {@link SpreadsheetTab}.
+ */
+public class SpreadsheetCellCacheTest {
+
+    private SpreadsheetTab tab;
+
+    @Before
+    public void setUp() {
+        tab = new SpreadsheetWorkbook().createTab("Cells");
+        tab.setValue("B2", "value");
+    }
+
+    @Test
+    public void missingCellIsNotCreated() {
+        assertNull(tab.getCell("C3"));
+        assertNull(tab.getPoiSheet().getRow(2));
+    }
+
+    @Test
+    public void wrapperIsReusedWhileReachable() {
+        SpreadsheetCell cell = tab.getCell("B2");
+        assertSame(cell, tab.getCell(1, 1));
+        assertSame(cell, tab.getOrCreateCell("B2"));
+    }
+
+    @Test
+    public void wrapperFollowsShiftedCells() {
+        SpreadsheetCell cell = tab.getCell("B2");
+        tab.getPoiSheet().shiftRows(0, 1, 1);
+        SpreadsheetCell shifted = tab.getCell("B3");
+        assertEquals("value", shifted.getValue());
+        assertSame(shifted.getPoiCell(),
+                tab.getPoiSheet().getRow(2).getCell(1));
+        assertNotSame(cell, tab.getOrCreateCell("B2"));
+    }
+
+    @Test
+    public void unreachableWrapperIsCollected() throws InterruptedException {
+        WeakReference<SpreadsheetCell> reference
+                = new WeakReference<>(tab.getCell("B2"));
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+        assertEquals("value", tab.getCell("B2").getValue());
+    }
+}
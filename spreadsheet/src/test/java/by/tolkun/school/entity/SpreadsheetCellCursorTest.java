@@ -0,0 +1,71 @@
+package by.tolkun.school.entity;
+
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests of walk over cells of tab by {@link SpreadsheetCellCursor}.
+ */
+public class SpreadsheetCellCursorTest {
+
+    private SpreadsheetTab tab;
+
+    @Before
+    public void setUp() {
+        tab = new SpreadsheetWorkbook().createTab("Cursor");
+        tab.setValue("A1", "a1");
+        tab.setValue("C1", 3);
+        tab.setValue("B3", "b3");
+        tab.setValue("D3", "");
+        tab.setValue("A5", "a5");
+    }
+
+    private List<String> walk(CellRangeAddress range, boolean skipBlanks) {
+        List<String> visited = new ArrayList<>();
+        tab.forEach(range, skipBlanks, cursor -> visited.add(
+                SpreadsheetTab.getCellAddress(cursor.getRowNum(),
+                        cursor.getColumnNum()) + "="
+                        + cursor.getString(new StringBuilder())));
+        return visited;
+    }
+
+    @Test
+    public void existingCellsAreVisitedRowByRow() {
+        assertEquals(Arrays.asList("A1=a1", "C1=3", "B3=b3", "D3=", "A5=a5"),
+                walk(CellRangeAddress.valueOf("A1:D5"), false));
+    }
+
+    @Test
+    public void blankCellsAreSkipped() {
+        assertEquals(Arrays.asList("A1=a1", "C1=3", "B3=b3", "A5=a5"),
+                walk(CellRangeAddress.valueOf("A1:D5"), true));
+    }
+
+    @Test
+    public void rangeIsRespected() {
+        assertEquals(Arrays.asList("C1=3", "B3=b3"),
+                walk(CellRangeAddress.valueOf("B1:C4"), false));
+    }
+
+    @Test
+    public void openRangeCoversWholeColumns() {
+        assertEquals(Arrays.asList("A1=a1", "A5=a5"),
+                walk(new CellRangeAddress(-1, -1, 0, 0), false));
+    }
+
+    @Test
+    public void missingRowsAndCellsAreNotCreated() {
+        walk(CellRangeAddress.valueOf("A1:Z100"), false);
+        assertNull(tab.getPoiSheet().getRow(1));
+        assertNull(tab.getPoiSheet().getRow(0).getCell(1));
+        assertEquals(4, tab.getPoiSheet().getLastRowNum());
+    }
+}
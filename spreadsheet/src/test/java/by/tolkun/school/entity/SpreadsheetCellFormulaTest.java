@@ -0,0 +1,52 @@
+package by.tolkun.school.entity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of evaluation of formulas by evaluator shared by workbook.
+ */
+public class SpreadsheetCellFormulaTest {
+
+    private SpreadsheetWorkbook workbook;
+    private SpreadsheetTab tab;
+
+    @Before
+    public void setUp() {
+        workbook = new SpreadsheetWorkbook();
+        tab = workbook.createTab("Formulas");
+        tab.setValue("A1", 2);
+        tab.setValue("B1", 3);
+        tab.setValue("C1", "=A1+B1");
+    }
+
+    @Test
+    public void evaluatorIsSharedByWorkbook() {
+        assertSame(workbook.getFormulaEvaluator(),
+                workbook.getFormulaEvaluator());
+    }
+
+    @Test
+    public void formulaIsEvaluated() {
+        assertEquals("5", tab.getCell("C1").getEvaluatedValue());
+        assertEquals("A1+B1", tab.getCell("C1").getValue());
+    }
+
+    @Test
+    public void cachedResultIsInvalidatedBySetValue() {
+        assertEquals("5", tab.getCell("C1").getEvaluatedValue());
+        tab.getCell("A1").setValue(10);
+        assertEquals("13", tab.getCell("C1").getEvaluatedValue());
+    }
+
+    @Test
+    public void cachedResultIsClearedAfterPoiEdit() {
+        assertEquals("5", tab.getCell("C1").getEvaluatedValue());
+        tab.getPoiSheet().getRow(0).getCell(1).setCellValue(7);
+        workbook.clearFormulaCache();
+        assertEquals("9", tab.getCell("C1").getEvaluatedValue());
+    }
+}
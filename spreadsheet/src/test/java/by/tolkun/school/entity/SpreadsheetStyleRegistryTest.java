@@ -0,0 +1,83 @@
+package by.tolkun.school.entity;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of registry of styles and fonts shared by concurrent writers.
+ */
+public class SpreadsheetStyleRegistryTest {
+
+    private static final int STYLE_COUNT = 20;
+
+    private static SpreadsheetCellStyle createStyle(int num) {
+        return new SpreadsheetCellStyle.Builder()
+                .font(new SpreadsheetFont.Builder()
+                        .sizeInPoints((short) (8 + num % 5))
+                        .build())
+                .indention((short) num)
+                .build();
+    }
+
+    @Test
+    public void equalStylesAreRegisteredOnce() throws Exception {
+        SpreadsheetWorkbook workbook = new SpreadsheetWorkbook();
+        int initialStyleCount = workbook.getPoiWorkbook().getNumCellStyles();
+        int initialFontCount = workbook.getPoiWorkbook().getNumberOfFonts();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<CellStyle[]>> futures = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < 8; thread++) {
+                Callable<CellStyle[]> task = () -> {
+                    CellStyle[] styles = new CellStyle[STYLE_COUNT];
+                    for (int num = 0; num < STYLE_COUNT; num++) {
+                        styles[num] = workbook.registerStyle(createStyle(num));
+                    }
+                    return styles;
+                };
+                futures.add(executor.submit(task));
+            }
+            CellStyle[] expected = futures.get(0).get();
+            for (Future<CellStyle[]> future : futures) {
+                CellStyle[] styles = future.get();
+                for (int num = 0; num < STYLE_COUNT; num++) {
+                    assertSame(expected[num], styles[num]);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(initialStyleCount + STYLE_COUNT,
+                workbook.getPoiWorkbook().getNumCellStyles());
+        assertEquals(initialFontCount + 5,
+                workbook.getPoiWorkbook().getNumberOfFonts());
+        for (int num = 0; num < STYLE_COUNT; num++) {
+            CellStyle cellStyle = workbook.registerStyle(createStyle(num));
+            assertEquals(createStyle(num),
+                    workbook.getRegisteredStyle(cellStyle.getIndex()));
+        }
+    }
+
+    @Test
+    public void equalFontsAreRegisteredOnce() {
+        SpreadsheetWorkbook workbook = new SpreadsheetWorkbook();
+        SpreadsheetFont font = new SpreadsheetFont.Builder()
+                .isBold(true).build();
+        Font poiFont = workbook.registerFont(font);
+        assertSame(poiFont, workbook.registerFont(
+                new SpreadsheetFont.Builder().isBold(true).build()));
+        assertEquals(1, workbook.getFonts().size());
+    }
+}
@@ -0,0 +1,111 @@
+package by.tolkun.school.entity;
+
+import by.tolkun.school.exception.SpreadsheetException;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of autosize of columns measured by workers of a pool.
+ */
+public class SpreadsheetTabAutosizeTest {
+
+    private static final int COLUMN_COUNT = 12;
+
+    static SpreadsheetTab fill(SpreadsheetTab tab) {
+        for (int rowNum = 0; rowNum < 30; rowNum++) {
+            for (int columnNum = 0; columnNum < COLUMN_COUNT; columnNum++) {
+                StringBuilder text = new StringBuilder();
+                for (int i = 0; i <= (rowNum * 7 + columnNum * 3) % 25; i++) {
+                    text.append((char) ('a' + i));
+                }
+                tab.setValue(rowNum, columnNum, text.toString());
+            }
+        }
+        return tab;
+    }
+
+    private static int[] getWidths(SpreadsheetTab tab) {
+        int[] widths = new int[COLUMN_COUNT + 1];
+        for (int columnNum = 0; columnNum < widths.length; columnNum++) {
+            widths[columnNum] = tab.getPoiSheet().getColumnWidth(columnNum);
+        }
+        return widths;
+    }
+
+    @Test
+    public void widthsDoNotDependOnQuantityOfWorkers()
+            throws SpreadsheetException {
+        SpreadsheetTab sequential = fill(
+                new SpreadsheetWorkbook().createTab("Sequential"));
+        SpreadsheetTab parallel = fill(
+                new SpreadsheetWorkbook().createTab("Parallel"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            sequential.autosizeCols(executor);
+        } finally {
+            executor.shutdown();
+        }
+        parallel.autosizeColsInParallel();
+
+        assertArrayEquals(getWidths(sequential), getWidths(parallel));
+    }
+
+    @Test
+    public void columnsFitTheirWidestText() throws SpreadsheetException {
+        SpreadsheetTab tab = new SpreadsheetWorkbook().createTab("Widths");
+        tab.setValue("A1", "short");
+        tab.setValue("B1", "a considerably longer text of cell");
+        tab.setValue("C5", 12345);
+        int defaultWidth = tab.getPoiSheet().getColumnWidth(3);
+        tab.autosizeColsInParallel();
+
+        int shortWidth = tab.getPoiSheet().getColumnWidth(0);
+        int longWidth = tab.getPoiSheet().getColumnWidth(1);
+        assertTrue(longWidth > shortWidth);
+        assertTrue(tab.getPoiSheet().getColumnWidth(2) > 0);
+        assertEquals(defaultWidth, tab.getPoiSheet().getColumnWidth(3));
+        tab.autoSizeColumn(1);
+        assertEquals(tab.getPoiSheet().getColumnWidth(1), longWidth);
+    }
+
+    @Test
+    public void parallelWidthsMatchSequentialAutosize()
+            throws SpreadsheetException {
+        SpreadsheetTab sequential = fillStyled(
+                new SpreadsheetWorkbook().createTab("Sequential"));
+        SpreadsheetTab parallel = fillStyled(
+                new SpreadsheetWorkbook().createTab("Parallel"));
+        sequential.autosizeCols();
+        parallel.autosizeColsInParallel();
+
+        assertArrayEquals(getWidths(sequential), getWidths(parallel));
+    }
+
+    private static SpreadsheetTab fillStyled(SpreadsheetTab tab) {
+        fill(tab);
+        tab.setValue("A2", "bold text of cell", new SpreadsheetCellStyle
+                .Builder()
+                .font(new SpreadsheetFont.Builder().isBold(true).build())
+                .build());
+        tab.setValue("B3", "first line\nthe second line of cell");
+        tab.setValue("C4", 1234567.5);
+        tab.setValue("D5", true);
+        tab.setValue("E6", "indented text", new SpreadsheetCellStyle
+                .Builder()
+                .indention((short) 3)
+                .build());
+        tab.setValue("F7", "rotated text of cell", new SpreadsheetCellStyle
+                .Builder()
+                .rotation((short) 90)
+                .build());
+        tab.mergeCells(31, 2, 31, 5, "a text of merged cell spanning columns",
+                new SpreadsheetCellStyle.Builder().build());
+        return tab;
+    }
+}
@@ -0,0 +1,133 @@
+package by.tolkun.school.entity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of tab in concurrent mode read and written by many threads.
+ */
+public class SpreadsheetTabConcurrencyTest {
+
+    private static final int ROW_COUNT = 200;
+    private static final int COLUMN_COUNT = 8;
+    private static final int THREAD_COUNT = 8;
+
+    private SpreadsheetTab tab;
+
+    @Before
+    public void setUp() {
+        tab = new SpreadsheetWorkbook().createTab("Concurrent");
+        for (int rowNum = 0; rowNum < ROW_COUNT; rowNum++) {
+            for (int columnNum = 0; columnNum < COLUMN_COUNT; columnNum++) {
+                tab.setValue(rowNum, columnNum, rowNum + ":" + columnNum);
+            }
+        }
+        tab.setConcurrent(true);
+    }
+
+    private static List<Object> runAll(List<Callable<Object>> tasks)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (Callable<Object> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            List<Object> results = new ArrayList<>();
+            for (Future<Object> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void readersSeeWholeValuesWhileWritersWrite() throws Exception {
+        CyclicBarrier start = new CyclicBarrier(THREAD_COUNT);
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (int thread = 0; thread < THREAD_COUNT; thread++) {
+            boolean writer = thread % 2 == 0;
+            int seed = thread;
+            tasks.add(() -> {
+                start.await();
+                for (int i = 0; i < 5000; i++) {
+                    int rowNum = (i * 31 + seed * 7) % ROW_COUNT;
+                    int columnNum = (i + seed) % COLUMN_COUNT;
+                    String prefix = rowNum + ":" + columnNum;
+                    if (writer) {
+                        tab.setValue(rowNum, columnNum, prefix + ":" + i);
+                    } else {
+                        String value = tab.readValue(rowNum, columnNum);
+                        assertTrue(value, value.equals(prefix)
+                                || value.startsWith(prefix + ":"));
+                        SpreadsheetCell cell = tab.getCell(rowNum, columnNum);
+                        assertTrue(cell.getValue().startsWith(prefix));
+                    }
+                }
+                return null;
+            });
+        }
+        runAll(tasks);
+    }
+
+    @Test
+    public void concurrentReadersShareWrapper() throws Exception {
+        CyclicBarrier start = new CyclicBarrier(THREAD_COUNT);
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (int thread = 0; thread < THREAD_COUNT; thread++) {
+            tasks.add(() -> {
+                start.await();
+                return tab.getCell(7, 3);
+            });
+        }
+        List<Object> cells = runAll(tasks);
+        for (Object cell : cells) {
+            assertSame(cells.get(0), cell);
+        }
+    }
+
+    @Test
+    public void missingCellIsCreatedOnce() throws Exception {
+        CyclicBarrier start = new CyclicBarrier(THREAD_COUNT);
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (int thread = 0; thread < THREAD_COUNT; thread++) {
+            tasks.add(() -> {
+                start.await();
+                return tab.getOrCreateCell(ROW_COUNT + 5, 2).getPoiCell();
+            });
+        }
+        List<Object> poiCells = runAll(tasks);
+        for (Object poiCell : poiCells) {
+            assertSame(poiCells.get(0), poiCell);
+        }
+        assertEquals(ROW_COUNT + 5, tab.getRowCount());
+    }
+
+    @Test
+    public void gettingExistingCellIsNotModification() throws Exception {
+        SpreadsheetWorkbook workbook = new SpreadsheetWorkbook(
+                tab.getWorkbook().getPoiWorkbook());
+        SpreadsheetTab loaded = workbook.getTab(0);
+        loaded.setConcurrent(true);
+        assertFalse(loaded.isModified());
+        assertEquals("1:1", loaded.getOrCreateCell(1, 1).getValue());
+        assertFalse(loaded.isModified());
+        loaded.getOrCreateCell(ROW_COUNT, 0);
+        assertTrue(loaded.isModified());
+    }
+}
@@ -0,0 +1,92 @@
+package by.tolkun.school.entity;
+
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests of default styles of rows and columns set for whole-row and
+ * whole-column ranges.
+ */
+public class SpreadsheetTabDefaultStyleTest {
+
+    private SpreadsheetTab tab;
+    private SpreadsheetCellStyle style;
+
+    @Before
+    public void setUp() {
+        tab = new SpreadsheetWorkbook().createTab("Styles");
+        style = new SpreadsheetCellStyle.Builder().isTextWrapped(true).build();
+        tab.setValue("B2", "b2");
+        tab.setValue("D4", "d4");
+    }
+
+    @Test
+    public void wholeColumnsAreStyledByOneSpan() {
+        tab.setColumnWidth(2, 5000);
+        tab.setStyle(CellRangeAddress.valueOf("B:D"), style);
+
+        // Span is split around the column with width only.
+        assertEquals(3, tab.getPoiSheet().getCTWorksheet().getColsArray(0)
+                .sizeOfColArray());
+        for (int columnNum = 1; columnNum <= 3; columnNum++) {
+            assertEquals(style, tab.getColumnStyle(columnNum));
+        }
+        assertNull(tab.getColumnStyle(0));
+        assertNull(tab.getColumnStyle(4));
+        assertEquals(5000, tab.getColumnWidth(2));
+        assertEquals(style, tab.getCell("B2").getStyle());
+        assertEquals(style, tab.getCell("D4").getStyle());
+        assertEquals(2, tab.getPoiSheet().getPhysicalNumberOfRows());
+        assertEquals(style, tab.getOrCreateCell("C10").getStyle());
+    }
+
+    @Test
+    public void wholeSheetIsStyledByColumns() {
+        tab.setStyle(new CellRangeAddress(-1, -1, -1, -1), style);
+
+        assertEquals(1, tab.getPoiSheet().getCTWorksheet().getColsArray(0)
+                .sizeOfColArray());
+        assertEquals(2, tab.getPoiSheet().getPhysicalNumberOfRows());
+        assertEquals(style, tab.getColumnStyle(16383));
+        assertEquals(style, tab.getCell("B2").getStyle());
+        // Open range of columns doesn't widen the tab.
+        assertEquals(3, tab.getColumnCount());
+    }
+
+    @Test
+    public void openRowRangeEndsWithLastRow() {
+        tab.setStyle(2, 0, -1, -1, style);
+
+        assertEquals(3, tab.getPoiSheet().getPhysicalNumberOfRows());
+        assertNull(tab.getRowStyle(1));
+        assertEquals(style, tab.getRowStyle(2));
+        assertEquals(style, tab.getRowStyle(3));
+        assertNull(tab.getRowStyle(4));
+        assertEquals(style, tab.getCell("D4").getStyle());
+        assertEquals(style, tab.getOrCreateCell("A4").getStyle());
+        assertNull(tab.getCell("B2").getStyle());
+    }
+
+    @Test
+    public void boundedRowRangeCreatesRows() {
+        tab.setStyle(5, 0, 7, -1, style);
+
+        for (int rowNum = 5; rowNum <= 7; rowNum++) {
+            assertEquals(style, tab.getRowStyle(rowNum));
+        }
+        assertEquals(5, tab.getPoiSheet().getPhysicalNumberOfRows());
+        assertEquals(style, tab.getOrCreateCell("C8").getStyle());
+    }
+
+    @Test
+    public void rowStyleCreatesRow() {
+        tab.setRowStyle(6, style);
+
+        assertEquals(style, tab.getRowStyle(6));
+        assertEquals(style, tab.getOrCreateCell("A7").getStyle());
+    }
+}
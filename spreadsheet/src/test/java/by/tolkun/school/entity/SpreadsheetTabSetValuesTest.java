@@ -0,0 +1,117 @@
+package by.tolkun.school.entity;
+
+import by.tolkun.school.exception.SpreadsheetException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of batch writes of values with report of unsupported values.
+ */
+public class SpreadsheetTabSetValuesTest {
+
+    private SpreadsheetTab tab;
+    private SpreadsheetCellStyle style;
+
+    @Before
+    public void setUp() {
+        tab = new SpreadsheetWorkbook().createTab("Values");
+        style = new SpreadsheetCellStyle.Builder().isTextWrapped(true).build();
+    }
+
+    @Test
+    public void supportedValuesAreWritten() {
+        SpreadsheetWriteReport report = tab.setValues(1, 1, new Object[][]{
+                {"text", 2, true},
+                null,
+                {new Date(0), null}
+        }, style);
+
+        assertEquals(5, report.getWrittenCount());
+        assertFalse(report.hasErrors());
+        assertEquals("text", tab.getCell("B2").getValue());
+        assertEquals("2", tab.getCell("C2").getValue());
+        assertEquals("TRUE", tab.getCell("D2").getValue());
+        assertNull(tab.getPoiSheet().getRow(2));
+        assertEquals(style, tab.getCell("B4").getStyle());
+    }
+
+    @Test
+    public void unsupportedValuesAreReportedWithoutCells() {
+        SpreadsheetWriteReport report = tab.setValues(0, 0, new Object[][]{
+                {"a", new Object(), "c"},
+                {new StringBuilder("d")}
+        }, style);
+
+        assertEquals(2, report.getWrittenCount());
+        assertEquals(2, report.getErrorCount());
+        assertEquals(0, report.getRowNum(0));
+        assertEquals(1, report.getColumnNum(0));
+        assertEquals(Object.class, report.getType(0));
+        assertEquals(1, report.getRowNum(1));
+        assertEquals(StringBuilder.class, report.getType(1));
+        assertNull(tab.getCell("B1"));
+        assertNull(tab.getPoiSheet().getRow(1));
+        try {
+            report.check();
+            fail();
+        } catch (SpreadsheetException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("B1 [Object]"));
+            assertTrue(e.getMessage(),
+                    e.getMessage().contains("A2 [StringBuilder]"));
+            assertEquals(0, e.getStackTrace().length);
+        }
+    }
+
+    private static String captureErr(Runnable action) {
+        PrintStream err = System.err;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(bytes, true));
+        try {
+            action.run();
+        } finally {
+            System.setErr(err);
+        }
+        return bytes.toString();
+    }
+
+    @Test
+    public void unsupportedValueOfCellIsReported() {
+        tab.setValue("A1", "kept");
+
+        String err = captureErr(
+                () -> tab.getCell("A1").setValue(new Object()));
+
+        assertEquals("kept", tab.getCell("A1").getValue());
+        assertTrue(err, err.startsWith(SpreadsheetException.class.getName()
+                + ": Cannot set a Object"));
+        assertFalse(err, err.contains("\tat "));
+    }
+
+    @Test
+    public void unsupportedValueOfTabIsReportedBeforeStyling() {
+        String err = captureErr(
+                () -> tab.setValue("C3", new Object(), style));
+
+        assertTrue(err, err.contains("Cannot set a Object"));
+        assertNull(tab.getPoiSheet().getRow(2));
+        assertFalse(tab.isModified());
+    }
+
+    @Test
+    public void batchWriteDoesNotPrintErrors() {
+        String err = captureErr(() -> tab.setValues(0, 0,
+                new Object[][]{{"a", new Object()}}, null));
+
+        assertEquals("", err);
+    }
+}
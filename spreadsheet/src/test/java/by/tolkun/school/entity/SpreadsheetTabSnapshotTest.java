@@ -0,0 +1,71 @@
+package by.tolkun.school.entity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of immutable snapshots of tab sharing unchanged rows.
+ */
+public class SpreadsheetTabSnapshotTest {
+
+    private SpreadsheetTab tab;
+    private SpreadsheetCellStyle style;
+
+    @Before
+    public void setUp() {
+        tab = new SpreadsheetWorkbook().createTab("Snapshot");
+        style = new SpreadsheetCellStyle.Builder().isTextWrapped(true).build();
+        tab.setValue("A1", "a1", style);
+        tab.setValue("B2", 2);
+        tab.setValue("C3", "c3");
+    }
+
+    @Test
+    public void snapshotHasValuesAndStyles() {
+        SpreadsheetTabSnapshot snapshot = tab.snapshot();
+
+        assertEquals(3, snapshot.getRowCount());
+        assertEquals("a1", snapshot.getValue(0, 0));
+        assertEquals("2", snapshot.getValue(1, 1));
+        assertEquals("", snapshot.getValue(1, 0));
+        assertEquals("", snapshot.getValue(10, 10));
+        assertEquals(style, snapshot.getStyle(0, 0));
+        assertNull(snapshot.getStyle(1, 1));
+    }
+
+    @Test
+    public void unchangedTabReturnsSameSnapshot() {
+        assertSame(tab.snapshot(), tab.snapshot());
+    }
+
+    @Test
+    public void snapshotIsNotChangedByWrites() {
+        SpreadsheetTabSnapshot first = tab.snapshot();
+        tab.setValue("B2", 20);
+        SpreadsheetTabSnapshot second = tab.snapshot();
+
+        assertEquals("2", first.getValue(1, 1));
+        assertEquals("20", second.getValue(1, 1));
+        assertTrue(second.isRowShared(first, 0));
+        assertFalse(second.isRowShared(first, 1));
+        assertTrue(second.isRowShared(first, 2));
+    }
+
+    @Test
+    public void mergedRegionsAreSnapshotted() {
+        SpreadsheetTabSnapshot first = tab.snapshot();
+        tab.mergeCells(4, 0, 4, 2, "merged", style);
+        SpreadsheetTabSnapshot second = tab.snapshot();
+
+        assertTrue(first.getMergedRegions().isEmpty());
+        assertEquals(1, second.getMergedRegions().size());
+        assertEquals("A5:C5",
+                second.getMergedRegions().get(0).formatAsString());
+    }
+}
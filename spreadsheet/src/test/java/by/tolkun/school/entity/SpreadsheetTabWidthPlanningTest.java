@@ -0,0 +1,122 @@
+package by.tolkun.school.entity;
+
+import by.tolkun.school.exception.SpreadsheetException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of planning of column widths while values are written.
+ */
+public class SpreadsheetTabWidthPlanningTest {
+
+    @Test
+    public void plannedWidthsAreCloseToAutosize()
+            throws SpreadsheetException {
+        SpreadsheetTab planned = new SpreadsheetWorkbook().createTab("Plan");
+        planned.setWidthPlanning(true);
+        SpreadsheetTabAutosizeTest.fill(planned);
+        planned.applyPlannedWidths();
+
+        SpreadsheetTab measured = SpreadsheetTabAutosizeTest.fill(
+                new SpreadsheetWorkbook().createTab("Measure"));
+        measured.autosizeColsInParallel();
+
+        // Planning sums widths of glyphs, autosize lays out whole lines.
+        for (int columnNum = 0; columnNum < 12; columnNum++) {
+            assertEquals(measured.getPoiSheet().getColumnWidth(columnNum),
+                    planned.getPoiSheet().getColumnWidth(columnNum), 256);
+        }
+    }
+
+    @Test
+    public void lineCountsArePlanned() {
+        SpreadsheetTab tab = new SpreadsheetWorkbook().createTab("Lines");
+        tab.setWidthPlanning(true);
+        tab.setValue("A1", "one");
+        tab.setValue("A2", "one\ntwo\nthree");
+        tab.setValue("B1", "one\ntwo");
+
+        assertEquals(3, tab.getPlannedLineCount(0));
+        assertEquals(2, tab.getPlannedLineCount(1));
+        assertEquals(0, tab.getPlannedLineCount(2));
+    }
+
+    @Test
+    public void wrappedLinesArePlannedPerFont() {
+        SpreadsheetTab tab = new SpreadsheetWorkbook().createTab("Wrap");
+        tab.setWidthPlanning(true);
+        String text = "one two three four five six seven";
+        tab.setValue("A1", text, new SpreadsheetCellStyle.Builder()
+                .font(new SpreadsheetFont.Builder().isBold(true).build())
+                .isTextWrapped(true)
+                .build());
+        tab.setValue("A2", "one\ntwo");
+        tab.setColumnWidth(0, 6 * 256);
+        int fontIndex = tab.getPoiSheet().getRow(0).getCell(0)
+                .getCellStyle().getFontIndexAsInt();
+        int lineCount = tab.getTextMetrics().countLines(fontIndex, text,
+                6 * 256);
+
+        assertTrue(lineCount > 2);
+        assertEquals(lineCount, tab.getPlannedLineCount(0));
+        assertEquals(lineCount, tab.getPlannedLineCount(0, fontIndex));
+        assertEquals(2, tab.getPlannedLineCount(0, 0));
+
+        tab.setColumnWidth(0, 255 * 256);
+        assertEquals(1, tab.getPlannedLineCount(0, fontIndex));
+    }
+
+    @Test
+    public void overwrittenCellNarrowsPlannedWidth() {
+        SpreadsheetTab tab = new SpreadsheetWorkbook().createTab("Overwrite");
+        tab.setWidthPlanning(true);
+        tab.setValue("A1", "a long text that widens the column");
+        tab.setValue("A2", "short");
+        tab.setValue("A1", "tiny");
+        tab.applyPlannedWidths();
+
+        SpreadsheetTextMetrics metrics = tab.getTextMetrics();
+        assertEquals(metrics.getColumnWidth(
+                metrics.getCellTextWidth(0, "short", 1)),
+                tab.getPoiSheet().getColumnWidth(0));
+
+        tab.setValue("A2", "");
+        tab.applyPlannedWidths();
+        assertEquals(metrics.getColumnWidth(
+                metrics.getCellTextWidth(0, "tiny", 1)),
+                tab.getPoiSheet().getColumnWidth(0));
+    }
+
+    @Test
+    public void mergedRegionIsPlannedByFirstCell() {
+        SpreadsheetTab tab = new SpreadsheetWorkbook().createTab("Merge");
+        tab.setWidthPlanning(true);
+        String text = "a text of merged cell";
+        tab.setValue("A1", text);
+        tab.setValue("B1", "a much longer text of hidden cell of region");
+        tab.setValue("A2", "x");
+        tab.mergeCells(0, 0, 1, 1, text,
+                new SpreadsheetCellStyle.Builder().build());
+        tab.applyPlannedWidths();
+
+        SpreadsheetTextMetrics metrics = tab.getTextMetrics();
+        int width = metrics.getColumnWidth(
+                metrics.getCellTextWidth(0, text, 2));
+        assertEquals(width, tab.getPoiSheet().getColumnWidth(0));
+        assertEquals(width, tab.getPoiSheet().getColumnWidth(1));
+        assertEquals(0, tab.getPlannedLineCount(1));
+    }
+
+    @Test
+    public void nothingIsPlannedWhenPlanningIsOff() {
+        SpreadsheetTab tab = new SpreadsheetWorkbook().createTab("Off");
+        int defaultWidth = tab.getPoiSheet().getColumnWidth(0);
+        tab.setValue("A1", "a long text that would widen the column");
+        tab.applyPlannedWidths();
+
+        assertEquals(0, tab.getPlannedLineCount(0));
+        assertEquals(defaultWidth, tab.getPoiSheet().getColumnWidth(0));
+    }
+}
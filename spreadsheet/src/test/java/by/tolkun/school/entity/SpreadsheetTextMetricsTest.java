@@ -0,0 +1,68 @@
+package by.tolkun.school.entity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of estimation of text size and wrapped row heights.
+ */
+public class SpreadsheetTextMetricsTest {
+
+    private static final String TEXT
+            = "The quick brown fox jumps over the lazy dog again and again";
+
+    private SpreadsheetTab tab;
+    private SpreadsheetTextMetrics metrics;
+
+    @Before
+    public void setUp() {
+        tab = new SpreadsheetWorkbook().createTab("Metrics");
+        metrics = tab.getTextMetrics();
+    }
+
+    @Test
+    public void glyphsHaveWidths() {
+        assertTrue(metrics.getCharWidth(0, 'i') > 0);
+        assertTrue(metrics.getCharWidth(0, 'W') > metrics.getCharWidth(0, 'i'));
+        assertEquals(metrics.getCharWidth(0, 'a') * 3,
+                metrics.getTextWidth(0, "aaa", 0, 3), 0.001);
+    }
+
+    @Test
+    public void linesAreCountedByColumnWidth() {
+        int narrow = metrics.countLines(0, TEXT, 10 * 256);
+        int wide = metrics.countLines(0, TEXT, 40 * 256);
+        assertTrue(narrow > wide);
+        assertEquals(1, metrics.countLines(0, TEXT, 255 * 256));
+        assertEquals(narrow, metrics.countLines(0, TEXT, 10 * 256));
+    }
+
+    @Test
+    public void lineBreaksAreCounted() {
+        assertEquals(3, metrics.countLines(0, "a\nb\nc", 40 * 256));
+    }
+
+    @Test
+    public void wrappedRowIsHeightened() {
+        tab.setColumnWidth(0, 10 * 256);
+        tab.setValue(0, 0, TEXT, new SpreadsheetCellStyle.Builder()
+                .isTextWrapped(true).build());
+        tab.autoSizeRow(0);
+
+        int lineCount = metrics.countLines(0, TEXT, 10 * 256);
+        assertTrue(lineCount > 1);
+        assertEquals(tab.computeRowHeightInPoints(11, lineCount),
+                tab.getPoiSheet().getRow(0).getHeightInPoints(), 0.001);
+    }
+
+    @Test
+    public void shortRowKeepsDefaultHeight() {
+        tab.setValue("A1", "a");
+        tab.autoSizeRow(0);
+        assertEquals(tab.getPoiSheet().getDefaultRowHeightInPoints(),
+                tab.getPoiSheet().getRow(0).getHeightInPoints(), 0.001);
+    }
+}
@@ -0,0 +1,132 @@
+package by.tolkun.school.entity;
+
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of concurrent building of tabs with deterministic assembly.
+ */
+public class SpreadsheetWorkbookBuildTabsTest {
+
+    /**
+     * Part with time of creation of document, differs between workbooks.
+     */
+    private static final String CORE_PROPERTIES = "docProps/core.xml";
+
+    private static Map<String, Consumer<SpreadsheetTab>> createProducers() {
+        Map<String, Consumer<SpreadsheetTab>> producers
+                = new LinkedHashMap<>();
+        for (int tabNum = 0; tabNum < 4; tabNum++) {
+            int seed = tabNum;
+            producers.put("Tab " + tabNum, tab -> {
+                for (int rowNum = 0; rowNum < 40; rowNum++) {
+                    SpreadsheetCellStyle style
+                            = new SpreadsheetCellStyle.Builder()
+                            .font(new SpreadsheetFont.Builder()
+                                    .sizeInPoints((short) (9 + (rowNum
+                                            + seed) % 4))
+                                    .build())
+                            .bottomBorderStyle((rowNum + seed) % 3 == 0
+                                    ? BorderStyle.THIN : BorderStyle.NONE)
+                            .build();
+                    tab.setValue(rowNum, 0, "Class " + (rowNum % 7), style);
+                    tab.setValue(rowNum, 1, "Subject " + ((rowNum * seed)
+                            % 11), style);
+                    tab.setValue(rowNum, 2, rowNum * seed);
+                }
+                tab.mergeCells(0, 3, 1, 4, "merged " + seed,
+                        new SpreadsheetCellStyle.Builder()
+                                .isTextWrapped(true).build());
+                tab.setColumnWidth(1, 4000 + seed * 100);
+            });
+        }
+        return producers;
+    }
+
+    private static Map<String, byte[]> readParts(byte[] bytes)
+            throws IOException {
+        Map<String, byte[]> parts = new TreeMap<>();
+        try (ZipInputStream in = new ZipInputStream(
+                new ByteArrayInputStream(bytes))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                ByteArrayOutputStream part = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                int length;
+                while ((length = in.read(buffer)) > 0) {
+                    part.write(buffer, 0, length);
+                }
+                parts.put(entry.getName(), part.toByteArray());
+            }
+        }
+        return parts;
+    }
+
+    private static byte[] write(SpreadsheetWorkbook workbook)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        workbook.write(out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void concurrentBuildIsIdenticalToSequentialOne() throws Exception {
+        SpreadsheetWorkbook sequential = new SpreadsheetWorkbook();
+        for (Map.Entry<String, Consumer<SpreadsheetTab>> producer
+                : createProducers().entrySet()) {
+            producer.getValue().accept(sequential.createTab(producer.getKey()));
+        }
+
+        SpreadsheetWorkbook concurrent = new SpreadsheetWorkbook();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            concurrent.buildTabs(createProducers(), executor);
+        } finally {
+            executor.shutdown();
+        }
+
+        Map<String, byte[]> expected = readParts(write(sequential));
+        Map<String, byte[]> actual = readParts(write(concurrent));
+        assertEquals(expected.keySet(), actual.keySet());
+        for (String name : expected.keySet()) {
+            if (!CORE_PROPERTIES.equals(name)) {
+                assertArrayEquals(name, expected.get(name), actual.get(name));
+            }
+        }
+    }
+
+    @Test
+    public void usesOfSharedStringsAreCounted() throws Exception {
+        SpreadsheetWorkbook sequential = new SpreadsheetWorkbook();
+        for (Map.Entry<String, Consumer<SpreadsheetTab>> producer
+                : createProducers().entrySet()) {
+            producer.getValue().accept(sequential.createTab(producer.getKey()));
+        }
+        SpreadsheetWorkbook concurrent = new SpreadsheetWorkbook();
+        concurrent.buildTabs(createProducers());
+
+        assertEquals(sequential.getPoiWorkbook().getSharedStringSource()
+                        .getCount(),
+                concurrent.getPoiWorkbook().getSharedStringSource()
+                        .getCount());
+        assertEquals(sequential.getPoiWorkbook().getSharedStringSource()
+                        .getUniqueCount(),
+                concurrent.getPoiWorkbook().getSharedStringSource()
+                        .getUniqueCount());
+    }
+}
@@ -0,0 +1,264 @@
+package by.tolkun.school.entity;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Enumeration;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of full and incremental writing of workbook read from file.
+ */
+public class SpreadsheetWorkbookWriteTest {
+
+    private static final String FIRST_SHEET = "xl/worksheets/sheet1.xml";
+    private static final String SECOND_SHEET = "xl/worksheets/sheet2.xml";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File source;
+
+    @Before
+    public void setUp() throws IOException {
+        SpreadsheetWorkbook workbook = new SpreadsheetWorkbook();
+        SpreadsheetTab first = workbook.createTab("First");
+        first.setValue("A1", "a1");
+        first.setValue("C1", "c1");
+        first.setValue("A2", 2);
+        workbook.createTab("Second").setValue("A1", "second");
+
+        File written = folder.newFile("written.xlsx");
+        try (OutputStream out = new FileOutputStream(written)) {
+            workbook.write(out);
+        }
+        // Entries of source are stored uncompressed, so entries copied as is
+        // can be told from entries serialized by Poi.
+        source = folder.newFile("source.xlsx");
+        try (ZipFile in = new ZipFile(written);
+             ZipOutputStream out = new ZipOutputStream(
+                     new FileOutputStream(source))) {
+            Enumeration<? extends ZipEntry> entries = in.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                byte[] bytes = read(in, entry);
+                CRC32 crc = new CRC32();
+                crc.update(bytes);
+                ZipEntry stored = new ZipEntry(entry.getName());
+                stored.setMethod(ZipEntry.STORED);
+                stored.setSize(bytes.length);
+                stored.setCompressedSize(bytes.length);
+                stored.setCrc(crc.getValue());
+                out.putNextEntry(stored);
+                out.write(bytes);
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static byte[] read(ZipFile zip, ZipEntry entry)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = zip.getInputStream(entry)) {
+            byte[] buffer = new byte[4096];
+            int length;
+            while ((length = in.read(buffer)) > 0) {
+                bytes.write(buffer, 0, length);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private File write(SpreadsheetWorkbook workbook, WriteMode mode)
+            throws IOException {
+        File target = folder.newFile();
+        try (OutputStream out = new FileOutputStream(target)) {
+            workbook.write(out, mode);
+        }
+        return target;
+    }
+
+    private static XSSFWorkbook open(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return new XSSFWorkbook(in);
+        }
+    }
+
+    private static int getMethod(File file, String name) throws IOException {
+        try (ZipFile zip = new ZipFile(file)) {
+            return zip.getEntry(name).getMethod();
+        }
+    }
+
+    @Test
+    public void fullWriteKeepsChangesOfPoiSheet() throws IOException {
+        SpreadsheetWorkbook workbook = new SpreadsheetWorkbook(source);
+        workbook.getTab(0).getPoiSheet().getRow(0).getCell(0)
+                .setCellValue("poi");
+
+        File target = folder.newFile();
+        try (OutputStream out = new FileOutputStream(target)) {
+            workbook.write(out);
+        }
+
+        assertEquals("poi", open(target).getSheetAt(0).getRow(0).getCell(0)
+                .getStringCellValue());
+        assertEquals(ZipEntry.DEFLATED, getMethod(target, SECOND_SHEET));
+    }
+
+    @Test
+    public void incrementalWriteKeepsChangesOfPoiSheet() throws IOException {
+        SpreadsheetWorkbook workbook = new SpreadsheetWorkbook(source);
+        XSSFSheet sheet = workbook.getTab(1).getPoiSheet();
+        sheet.getRow(0).getCell(0).setCellValue("poi");
+        sheet.createRow(4).createCell(1).setCellValue("created");
+
+        XSSFSheet written = open(write(workbook, WriteMode.INCREMENTAL))
+                .getSheetAt(1);
+        assertEquals("poi", written.getRow(0).getCell(0)
+                .getStringCellValue());
+        assertEquals("created", written.getRow(4).getCell(1)
+                .getStringCellValue());
+    }
+
+    @Test
+    public void incrementalWriteKeepsChangesOfPoiCell() throws IOException {
+        SpreadsheetWorkbook workbook = new SpreadsheetWorkbook(source);
+        workbook.getTab(1).getCell("A1").getPoiCell().setCellValue(5);
+
+        assertEquals(5, open(write(workbook, WriteMode.INCREMENTAL))
+                .getSheetAt(1).getRow(0).getCell(0).getNumericCellValue(), 0);
+    }
+
+    @Test
+    public void incrementalWriteCopiesUnchangedEntries() throws IOException {
+        SpreadsheetWorkbook workbook = new SpreadsheetWorkbook(source);
+        workbook.getTab(0).setValue("A2", "changed");
+
+        File target = write(workbook, WriteMode.INCREMENTAL);
+
+        assertEquals(ZipEntry.STORED, getMethod(target, SECOND_SHEET));
+        assertEquals(ZipEntry.DEFLATED, getMethod(target, FIRST_SHEET));
+        try (ZipFile expected = new ZipFile(source);
+             ZipFile actual = new ZipFile(target)) {
+            assertArrayEquals(read(expected, expected.getEntry(SECOND_SHEET)),
+                    read(actual, actual.getEntry(SECOND_SHEET)));
+        }
+        XSSFWorkbook written = open(target);
+        assertEquals("changed", written.getSheetAt(0).getRow(1).getCell(0)
+                .getStringCellValue());
+        assertEquals("c1", written.getSheetAt(0).getRow(0).getCell(2)
+                .getStringCellValue());
+        assertEquals("second", written.getSheetAt(1).getRow(0).getCell(0)
+                .getStringCellValue());
+    }
+
+    @Test
+    public void incrementalWriteKeepsInPlaceStyleChanges()
+            throws IOException {
+        SpreadsheetWorkbook workbook = new SpreadsheetWorkbook(source);
+        SpreadsheetCellStyle style = new SpreadsheetCellStyle.Builder()
+                .isTextWrapped(true).build();
+        workbook.getTab(0).setValue("B3", "styled", style);
+        CellStyle poiStyle = workbook.registerStyle(style);
+        poiStyle.setRotation((short) 45);
+
+        File target = write(workbook, WriteMode.INCREMENTAL);
+
+        assertEquals(ZipEntry.STORED, getMethod(target, SECOND_SHEET));
+        CellStyle written = open(target).getSheetAt(0).getRow(2).getCell(1)
+                .getCellStyle();
+        assertTrue(written.getWrapText());
+        assertEquals(45, written.getRotation());
+    }
+
+    @Test
+    public void cellsCreatedOutOfOrderAreWrittenSorted() throws IOException {
+        SpreadsheetWorkbook workbook = new SpreadsheetWorkbook(source);
+        workbook.getTab(0).setValue("B1", "b1");
+
+        XSSFRow row = open(write(workbook, WriteMode.INCREMENTAL))
+                .getSheetAt(0).getRow(0);
+        assertEquals("A1", row.getCTRow().getCArray(0).getR());
+        assertEquals("B1", row.getCTRow().getCArray(1).getR());
+        assertEquals("C1", row.getCTRow().getCArray(2).getR());
+        assertEquals("b1", row.getCell(1).getStringCellValue());
+    }
+
+    @Test
+    public void shiftOfRowsWritesWholeWorkbook() throws IOException {
+        SpreadsheetWorkbook workbook = new SpreadsheetWorkbook(source);
+        workbook.getTab(0).insertRows(0, 1);
+
+        File target = write(workbook, WriteMode.INCREMENTAL);
+
+        assertEquals(ZipEntry.DEFLATED, getMethod(target, SECOND_SHEET));
+        assertEquals("a1", open(target).getSheetAt(0).getRow(1).getCell(0)
+                .getStringCellValue());
+    }
+
+    @Test
+    public void incrementalWriteBackToSourceFile() throws IOException {
+        SpreadsheetWorkbook workbook = new SpreadsheetWorkbook(source);
+        workbook.getTab(0).setValue("A2", "changed");
+
+        try (OutputStream out = new FileOutputStream(source)) {
+            workbook.write(out, WriteMode.INCREMENTAL);
+        }
+
+        assertEquals(ZipEntry.STORED, getMethod(source, SECOND_SHEET));
+        XSSFWorkbook written = open(source);
+        assertEquals("changed", written.getSheetAt(0).getRow(1).getCell(0)
+                .getStringCellValue());
+        assertEquals("second", written.getSheetAt(1).getRow(0).getCell(0)
+                .getStringCellValue());
+    }
+
+    @Test
+    public void changesOfSourceFileAfterReadingAreIgnored()
+            throws IOException {
+        SpreadsheetWorkbook workbook = new SpreadsheetWorkbook(source);
+        SpreadsheetWorkbook other = new SpreadsheetWorkbook();
+        other.createTab("Other").setValue("A1", "other");
+        try (OutputStream out = new FileOutputStream(source)) {
+            other.write(out);
+        }
+
+        XSSFWorkbook written = open(write(workbook, WriteMode.INCREMENTAL));
+        assertEquals(2, written.getNumberOfSheets());
+        assertEquals("second", written.getSheetAt(1).getRow(0).getCell(0)
+                .getStringCellValue());
+    }
+
+    @Test
+    public void untouchedWorkbookIsCopied() throws IOException {
+        SpreadsheetWorkbook workbook = new SpreadsheetWorkbook(source);
+
+        File target = write(workbook, WriteMode.INCREMENTAL);
+
+        assertEquals(ZipEntry.STORED, getMethod(target, FIRST_SHEET));
+        assertEquals(ZipEntry.STORED, getMethod(target, SECOND_SHEET));
+        assertEquals("a1", open(target).getSheetAt(0).getRow(0).getCell(0)
+                .getStringCellValue());
+    }
+}
@@ -0,0 +1,59 @@
+package by.tolkun.school.entity;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of styles of rows and columns of student timetable sheet.
+ */
+public class StudentTimetableSheetStyleTest {
+
+    private XSSFWorkbook workbook;
+    private StudentTimetableSheet sheet;
+    private CellStyle style;
+
+    @Before
+    public void setUp() {
+        workbook = new XSSFWorkbook();
+        sheet = new StudentTimetableSheet(workbook.createSheet("Timetable"));
+        sheet.getCell(0, 0).setCellValue("a1");
+        sheet.getCell(0, 3).setCellValue("d1");
+        style = workbook.createCellStyle();
+        style.setFillForegroundColor(IndexedColors.YELLOW.getIndex());
+        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+    }
+
+    @Test
+    public void cellsCreatedAfterRowStyleGetIt() {
+        sheet.setRowStyle(0, style);
+
+        assertEquals(style, sheet.getCell(0, 0).getCellStyle());
+        assertEquals(style, sheet.getCell(0, 2).getCellStyle());
+    }
+
+    @Test
+    public void cellsCreatedAfterColumnStyleGetIt() {
+        sheet.setColumnStyle(1, style);
+
+        assertEquals(style, sheet.getCell(5, 1).getCellStyle());
+        assertEquals(0, sheet.getCell(5, 2).getCellStyle().getIndex());
+    }
+
+    @Test
+    public void alignmentKeepsRowStyle() {
+        sheet.setRowStyle(0, style);
+        sheet.setRowHorizontalAlignment(0, HorizontalAlignment.CENTER);
+
+        CellStyle cellStyle = sheet.getCell(0, 1).getCellStyle();
+        assertEquals(FillPatternType.SOLID_FOREGROUND,
+                cellStyle.getFillPattern());
+        assertEquals(HorizontalAlignment.CENTER, cellStyle.getAlignment());
+    }
+}
@@ -0,0 +1,148 @@
+package by.tolkun.school.builder;
+
+import by.tolkun.school.config.StudentTimetableConfig;
+import by.tolkun.school.entity.SchoolClass;
+import by.tolkun.school.entity.SchoolDay;
+import by.tolkun.school.entity.StudentTimetable;
+import by.tolkun.school.entity.SubjectDictionary;
+import by.tolkun.school.entity.TeacherAssignment;
+import by.tolkun.school.entity.TeacherTimetable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class to build teacher timetable {@link TeacherTimetable} from student
+ * timetable {@link StudentTimetable} by assignment of teachers.
+ */
+public final class TeacherTimetableBuilder {
+
+    /**
+     * Separator of names of classes in label of slot where teacher has
+     * several classes.
+     */
+    public static final String CLASS_SEPARATOR = ", ";
+
+    /**
+     * Mark of teacher of subject that isn't resolved yet.
+     */
+    private static final int UNRESOLVED = -2;
+
+    /**
+     * Constructor without parameters.
+     */
+    private TeacherTimetableBuilder() {
+    }
+
+    /**
+     * Build teacher timetable in one pass over lessons of student timetable.
+     * Teacher of every distinct subject of class is looked up once, lessons
+     * without assigned teacher are skipped, dictionary of subjects
+     * of timetable isn't changed. Lessons are placed at their slots
+     * and looked up by subjects without mark, see
+     * {@link SchoolDay#getLessonSlots()} and
+     * {@link SchoolDay#getSubject(String)}. Label of lesson is name
+     * of class.
+     *
+     * @param timetable  the student timetable
+     * @param assignment the assignment of teachers
+     * @return teacher timetable
+     */
+    public static TeacherTimetable build(StudentTimetable timetable,
+                                         TeacherAssignment assignment) {
+        List<String> teachers = assignment.getTeachers();
+        SubjectDictionary subjects = timetable.getSubjectDictionary();
+        SubjectDictionary labels = new SubjectDictionary();
+        short[] labelIds = new short[teachers.size()
+                * TeacherTimetable.QTY_SLOTS_PER_WEEK];
+        int[] teacherNums = new int[0];
+
+        for (SchoolClass schoolClass : timetable.getSchoolClasses()) {
+            short classLabelId = (short) labels.getId(schoolClass.getName());
+            Arrays.fill(teacherNums, UNRESOLVED);
+            List<SchoolDay> week = schoolClass.getWeek();
+            for (int dayNum = 0; dayNum < week.size()
+                    && dayNum < StudentTimetableConfig.QTY_SCHOOL_DAYS_PER_WEEK;
+                 dayNum++) {
+                SchoolDay schoolDay = week.get(dayNum);
+                int firstSlotOfDay = dayNum
+                        * StudentTimetableConfig.QTY_LESSONS_PER_DAY;
+                int[] slots = schoolDay.getLessonSlots();
+                for (int i = 0; i < slots.length; i++) {
+                    if (slots[i] < 0) {
+                        continue;
+                    }
+                    int subjectId = schoolDay.isEncoded()
+                            && schoolDay.getDictionary() == subjects
+                            ? schoolDay.getLessonId(i)
+                            : subjects.findId(schoolDay.getLesson(i));
+                    if (subjectId == SubjectDictionary.EMPTY_ID) {
+                        continue;
+                    }
+                    int teacherNum;
+                    if (subjectId < 0) {
+                        // Subject missing in dictionary is resolved by name
+                        // every time.
+                        teacherNum = getTeacherNum(assignment,
+                                schoolClass.getName(), schoolDay.getLesson(i));
+                    } else {
+                        if (subjectId >= teacherNums.length) {
+                            int length = teacherNums.length;
+                            teacherNums = Arrays.copyOf(teacherNums,
+                                    Math.max(subjects.size(), subjectId + 1));
+                            Arrays.fill(teacherNums, length,
+                                    teacherNums.length, UNRESOLVED);
+                        }
+                        if (teacherNums[subjectId] == UNRESOLVED) {
+                            teacherNums[subjectId] = getTeacherNum(assignment,
+                                    schoolClass.getName(),
+                                    subjects.getSubject(subjectId));
+                        }
+                        teacherNum = teacherNums[subjectId];
+                    }
+                    if (teacherNum < 0) {
+                        continue;
+                    }
+                    int index = teacherNum
+                            * TeacherTimetable.QTY_SLOTS_PER_WEEK
+                            + firstSlotOfDay + slots[i];
+                    labelIds[index] = addLabel(labels, labelIds[index],
+                            classLabelId);
+                }
+            }
+        }
+        return new TeacherTimetable(teachers, labels, labelIds);
+    }
+
+    /**
+     * Get number of teacher of lesson of class.
+     *
+     * @param assignment      the assignment of teachers
+     * @param schoolClassName the name of school class
+     * @param lesson          the lesson, maybe marked with
+     *                        {@link SchoolDay#PRE_SHIFT_MARK}
+     * @return number of teacher or {@code -1} if teacher isn't assigned
+     */
+    private static int getTeacherNum(TeacherAssignment assignment,
+                                     String schoolClassName, String lesson) {
+        return assignment.getTeacherNum(assignment.getTeacher(
+                schoolClassName, SchoolDay.getSubject(lesson)));
+    }
+
+    /**
+     * Add label of class to label of slot.
+     *
+     * @param labels       the dictionary of labels
+     * @param labelId      the id of label of slot
+     * @param classLabelId the id of label of class
+     * @return id of new label of slot
+     */
+    private static short addLabel(SubjectDictionary labels, short labelId,
+                                  short classLabelId) {
+        if (labelId == SubjectDictionary.EMPTY_ID || labelId == classLabelId) {
+            return classLabelId;
+        }
+        return (short) labels.getId(labels.getSubject(labelId)
+                + CLASS_SEPARATOR + labels.getSubject(classLabelId));
+    }
+}
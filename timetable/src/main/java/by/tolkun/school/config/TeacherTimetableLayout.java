@@ -0,0 +1,205 @@
+package by.tolkun.school.config;
+
+import java.util.Objects;
+
+/**
+ * Class to represent layout of teacher timetable exported by "Paragraph":
+ * names of teachers are in one row, lessons of every teacher are in column
+ * under the name day by day. Lesson is label of class and is placed at row
+ * of its number in day.
+ */
+public final class TeacherTimetableLayout {
+    /**
+     * The default layout: names of teachers at the second row starting from
+     * the second column, lessons of days are following each other with
+     * {@link StudentTimetableConfig#QTY_LESSONS_PER_DAY} rows per day.
+     */
+    public static final TeacherTimetableLayout DEFAULT
+            = new TeacherTimetableLayout(1, 2, 1,
+            StudentTimetableConfig.QTY_SCHOOL_DAYS_PER_WEEK,
+            StudentTimetableConfig.QTY_LESSONS_PER_DAY);
+
+    /**
+     * The number of row with names of teachers.
+     */
+    private final int numOfNameRow;
+
+    /**
+     * The number of first row with lessons.
+     */
+    private final int numOfFirstRowWithLesson;
+
+    /**
+     * The number of first column with teacher.
+     */
+    private final int numOfFirstColumnWithTeacher;
+
+    /**
+     * The quantity of days.
+     */
+    private final int qtySchoolDays;
+
+    /**
+     * The quantity of rows with lessons per day.
+     */
+    private final int qtyLessonsPerDay;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param numOfNameRow                the number of row with names
+     *                                    of teachers
+     * @param numOfFirstRowWithLesson     the number of first row with lessons,
+     *                                    it's below the row with names
+     * @param numOfFirstColumnWithTeacher the number of first column with
+     *                                    teacher
+     * @param qtySchoolDays               the quantity of days, at most
+     *                                    quantity of days per week
+     * @param qtyLessonsPerDay            the quantity of rows with lessons
+     *                                    per day, at most quantity
+     *                                    of lessons per day of student
+     *                                    timetable
+     * @throws IllegalArgumentException if layout is invalid
+     */
+    public TeacherTimetableLayout(int numOfNameRow,
+                                  int numOfFirstRowWithLesson,
+                                  int numOfFirstColumnWithTeacher,
+                                  int qtySchoolDays, int qtyLessonsPerDay) {
+        if (numOfNameRow < 0 || numOfFirstRowWithLesson <= numOfNameRow
+                || numOfFirstColumnWithTeacher < 0) {
+            throw new IllegalArgumentException("Invalid position of"
+                    + " teachers: name row " + numOfNameRow
+                    + ", first lesson row " + numOfFirstRowWithLesson
+                    + ", first column " + numOfFirstColumnWithTeacher);
+        }
+        if (qtySchoolDays < 1 || qtySchoolDays
+                > StudentTimetableConfig.QTY_SCHOOL_DAYS_PER_WEEK
+                || qtyLessonsPerDay < 1 || qtyLessonsPerDay
+                > StudentTimetableConfig.QTY_LESSONS_PER_DAY) {
+            throw new IllegalArgumentException("Invalid quantity of days "
+                    + qtySchoolDays + " or lessons per day "
+                    + qtyLessonsPerDay);
+        }
+        this.numOfNameRow = numOfNameRow;
+        this.numOfFirstRowWithLesson = numOfFirstRowWithLesson;
+        this.numOfFirstColumnWithTeacher = numOfFirstColumnWithTeacher;
+        this.qtySchoolDays = qtySchoolDays;
+        this.qtyLessonsPerDay = qtyLessonsPerDay;
+    }
+
+    /**
+     * Get the number of row with names of teachers.
+     *
+     * @return the number of row with names
+     */
+    public int getNumOfNameRow() {
+        return numOfNameRow;
+    }
+
+    /**
+     * Get the number of first row with lessons.
+     *
+     * @return the number of first row with lessons
+     */
+    public int getNumOfFirstRowWithLesson() {
+        return numOfFirstRowWithLesson;
+    }
+
+    /**
+     * Get the number of first column with teacher.
+     *
+     * @return the number of first column with teacher
+     */
+    public int getNumOfFirstColumnWithTeacher() {
+        return numOfFirstColumnWithTeacher;
+    }
+
+    /**
+     * Get the quantity of days.
+     *
+     * @return the quantity of days
+     */
+    public int getQtySchoolDays() {
+        return qtySchoolDays;
+    }
+
+    /**
+     * Get the quantity of rows with lessons per day.
+     *
+     * @return the quantity of lessons per day
+     */
+    public int getQtyLessonsPerDay() {
+        return qtyLessonsPerDay;
+    }
+
+    /**
+     * Get the quantity of rows from the row with names to the last row
+     * with lesson.
+     *
+     * @return the quantity of rows
+     */
+    public int getQtyRows() {
+        return numOfFirstRowWithLesson - numOfNameRow
+                + qtySchoolDays * qtyLessonsPerDay;
+    }
+
+    /**
+     * Get the number of row of lesson.
+     *
+     * @param dayNum    the number of day
+     * @param lessonNum the number of lesson in day
+     * @return the number of row
+     */
+    public int getRowNum(int dayNum, int lessonNum) {
+        return numOfFirstRowWithLesson + dayNum * qtyLessonsPerDay
+                + lessonNum;
+    }
+
+    /**
+     * Compares this TeacherTimetableLayout to the specified object.
+     *
+     * @param o the object to compare this TeacherTimetableLayout against
+     * @return true if the given object is equivalent TeacherTimetableLayout,
+     * false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TeacherTimetableLayout)) return false;
+        TeacherTimetableLayout that = (TeacherTimetableLayout) o;
+        return numOfNameRow == that.numOfNameRow &&
+                numOfFirstRowWithLesson == that.numOfFirstRowWithLesson &&
+                numOfFirstColumnWithTeacher
+                        == that.numOfFirstColumnWithTeacher &&
+                qtySchoolDays == that.qtySchoolDays &&
+                qtyLessonsPerDay == that.qtyLessonsPerDay;
+    }
+
+    /**
+     * Returns a hash code for this TeacherTimetableLayout.
+     *
+     * @return a hash code value for this object
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(numOfNameRow, numOfFirstRowWithLesson,
+                numOfFirstColumnWithTeacher, qtySchoolDays, qtyLessonsPerDay);
+    }
+
+    /**
+     * Returns the string representation of the TeacherTimetableLayout.
+     *
+     * @return the string representation of the TeacherTimetableLayout
+     */
+    @Override
+    public String toString() {
+        return "TeacherTimetableLayout{" +
+                "numOfNameRow=" + numOfNameRow +
+                ", numOfFirstRowWithLesson=" + numOfFirstRowWithLesson +
+                ", numOfFirstColumnWithTeacher="
+                + numOfFirstColumnWithTeacher +
+                ", qtySchoolDays=" + qtySchoolDays +
+                ", qtyLessonsPerDay=" + qtyLessonsPerDay +
+                '}';
+    }
+}
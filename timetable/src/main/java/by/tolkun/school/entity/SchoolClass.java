@@ -18,6 +18,7 @@ public class SchoolClass {
 
     public void setName(String name) {
         this.name = name;
+        TimetableModifications.record();
     }
 
     public List<SchoolDay> getWeek() {
@@ -26,6 +27,7 @@ public class SchoolClass {
 
     public void setWeek(List<SchoolDay> week) {
         this.week = week;
+        TimetableModifications.record();
     }
 
     public SchoolDay getSchoolDay(int i) {
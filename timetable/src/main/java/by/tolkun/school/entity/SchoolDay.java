@@ -1,14 +1,62 @@
 package by.tolkun.school.entity;
 
+import by.tolkun.school.config.StudentTimetableConfig;
+
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.RandomAccess;
 
 public class SchoolDay {
+
+    /**
+     * Mark of lesson of the first shift that class of the second shift has
+     * before its shift begins.
+     */
+    public static final String PRE_SHIFT_MARK = "!";
+
     private List<String> lessons;
     private int shift;
 
+    /**
+     * Dictionary of subjects of encoded lessons or {@code null} if lessons
+     * aren't encoded.
+     */
+    private SubjectDictionary dictionary;
+
+    /**
+     * Ids of subjects of lessons in dictionary or {@code null} if lessons
+     * aren't encoded.
+     */
+    private short[] lessonIds;
+
+    /**
+     * Constructor with parameters. Lessons are changed through the list
+     * returned by {@link #getLessons()}, so changes are seen by statistics
+     * of timetable.
+     *
+     * @param lessons the lessons
+     * @param shift   the shift
+     */
     public SchoolDay(List<String> lessons, int shift) {
-        this.lessons = lessons;
+        this.lessons = new PlainLessons(lessons);
+        this.shift = shift;
+    }
+
+    /**
+     * Constructor with parameters. Lessons are kept as ids of subjects and
+     * are decoded on access.
+     *
+     * @param dictionary the dictionary of subjects
+     * @param lessonIds  the ids of subjects of lessons
+     * @param shift      the shift
+     */
+    public SchoolDay(SubjectDictionary dictionary, short[] lessonIds,
+                     int shift) {
+        this.dictionary = dictionary;
+        this.lessonIds = lessonIds;
+        this.lessons = new EncodedLessons(dictionary, lessonIds);
         this.shift = shift;
     }
 
@@ -17,19 +65,119 @@ public class SchoolDay {
     }
 
     public void setLessons(List<String> lessons) {
-        this.lessons = lessons;
+        this.lessons = new PlainLessons(lessons);
+        this.dictionary = null;
+        this.lessonIds = null;
+        TimetableModifications.record();
     }
 
     public String getLesson(int i) {
         return lessons.get(i);
     }
 
+    /**
+     * Get quantity of lessons.
+     *
+     * @return quantity of lessons
+     */
+    public int getLessonCount() {
+        return lessons.size();
+    }
+
+    /**
+     * Check if lessons are kept as ids of subjects.
+     *
+     * @return {@code true} if lessons are encoded, {@code false} otherwise
+     */
+    public boolean isEncoded() {
+        return lessonIds != null;
+    }
+
+    /**
+     * Get dictionary of subjects of encoded lessons.
+     *
+     * @return dictionary of subjects or {@code null} if lessons aren't
+     * encoded
+     */
+    public SubjectDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Get id of subject of lesson.
+     *
+     * @param i the number of lesson
+     * @return id of subject in dictionary
+     * @throws IllegalStateException if lessons aren't encoded
+     */
+    public int getLessonId(int i) {
+        if (lessonIds == null) {
+            throw new IllegalStateException("Lessons aren't encoded.");
+        }
+        return lessonIds[i];
+    }
+
+    /**
+     * Check if lesson is marked with {@link #PRE_SHIFT_MARK}.
+     *
+     * @param i the number of lesson
+     * @return {@code true} if lesson is marked, {@code false} otherwise
+     */
+    public boolean isPreShiftLesson(int i) {
+        return getLesson(i).startsWith(PRE_SHIFT_MARK);
+    }
+
+    /**
+     * Get slots of lessons in day counted from the first lesson of the first
+     * shift: lessons of the first shift take slots from {@code 0}, lessons
+     * of the second shift from
+     * {@link StudentTimetableConfig#QTY_LESSONS_PER_FIRST_SHIFT}. Day of the
+     * second shift lists lessons marked with {@link #PRE_SHIFT_MARK} after
+     * its own lessons in reverse order of slots, see
+     * {@code StudentTimetableSheet#getLessonsByDayAndClass}, so {@code k}-th
+     * marked lesson takes slot
+     * {@code QTY_LESSONS_PER_FIRST_SHIFT - 1 - k}.
+     *
+     * @return slots by numbers of lessons, {@code -1} for lessons that don't
+     * fit into day
+     */
+    public int[] getLessonSlots() {
+        int[] slots = new int[getLessonCount()];
+        int firstSlot = (shift - 1)
+                * StudentTimetableConfig.QTY_LESSONS_PER_FIRST_SHIFT;
+        int preShiftCount = 0;
+        for (int i = 0; i < slots.length; i++) {
+            int slot = shift == 2 && isPreShiftLesson(i)
+                    ? StudentTimetableConfig.QTY_LESSONS_PER_FIRST_SHIFT - 1
+                    - preShiftCount++
+                    : firstSlot + i;
+            slots[i] = slot >= 0
+                    && slot < StudentTimetableConfig.QTY_LESSONS_PER_DAY
+                    ? slot
+                    : -1;
+        }
+        return slots;
+    }
+
+    /**
+     * Get subject of lesson without {@link #PRE_SHIFT_MARK}.
+     *
+     * @param lesson the lesson
+     * @return subject of lesson
+     */
+    public static String getSubject(String lesson) {
+        return lesson.startsWith(PRE_SHIFT_MARK)
+                ? lesson.substring(PRE_SHIFT_MARK.length()).trim()
+                : lesson;
+    }
+
     public int getShift() {
         return shift;
     }
 
     public void setShift(int shift) {
         this.shift = shift;
+        TimetableModifications.record();
     }
 
     @Override
@@ -37,8 +185,11 @@ public class SchoolDay {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         SchoolDay schoolDay = (SchoolDay) o;
-        return shift == schoolDay.shift &&
-                Objects.equals(lessons, schoolDay.lessons);
+        if (shift != schoolDay.shift) return false;
+        if (lessonIds != null && dictionary == schoolDay.dictionary) {
+            return Arrays.equals(lessonIds, schoolDay.lessonIds);
+        }
+        return Objects.equals(lessons, schoolDay.lessons);
     }
 
     @Override
@@ -53,4 +204,106 @@ public class SchoolDay {
                 ", shift=" + shift +
                 '}';
     }
+
+    /**
+     * List of lessons decoded from ids of subjects on access. Lessons may be
+     * replaced, replacing subjects are added to dictionary.
+     */
+    private static final class EncodedLessons extends AbstractList<String>
+            implements RandomAccess {
+
+        /**
+         * Dictionary of subjects.
+         */
+        private final SubjectDictionary dictionary;
+
+        /**
+         * Ids of subjects of lessons.
+         */
+        private final short[] lessonIds;
+
+        /**
+         * Constructor with parameters.
+         *
+         * @param dictionary the dictionary of subjects
+         * @param lessonIds  the ids of subjects of lessons
+         */
+        private EncodedLessons(SubjectDictionary dictionary,
+                               short[] lessonIds) {
+            this.dictionary = dictionary;
+            this.lessonIds = lessonIds;
+        }
+
+        @Override
+        public String get(int index) {
+            return dictionary.getSubject(lessonIds[index]);
+        }
+
+        @Override
+        public String set(int index, String element) {
+            String previous = get(index);
+            lessonIds[index] = (short) dictionary.getId(element);
+            TimetableModifications.record();
+            return previous;
+        }
+
+        @Override
+        public int size() {
+            return lessonIds.length;
+        }
+    }
+
+    /**
+     * List of lessons backed by list of names of subjects. Changes of lessons
+     * are recorded, see {@link TimetableModifications}.
+     */
+    private static final class PlainLessons extends AbstractList<String>
+            implements RandomAccess {
+
+        /**
+         * Names of subjects of lessons.
+         */
+        private final List<String> lessons;
+
+        /**
+         * Constructor with parameters.
+         *
+         * @param lessons the names of subjects of lessons
+         */
+        private PlainLessons(List<String> lessons) {
+            this.lessons = lessons;
+        }
+
+        @Override
+        public String get(int index) {
+            return lessons.get(index);
+        }
+
+        @Override
+        public String set(int index, String element) {
+            String previous = lessons.set(index, element);
+            TimetableModifications.record();
+            return previous;
+        }
+
+        @Override
+        public void add(int index, String element) {
+            lessons.add(index, element);
+            modCount++;
+            TimetableModifications.record();
+        }
+
+        @Override
+        public String remove(int index) {
+            String previous = lessons.remove(index);
+            modCount++;
+            TimetableModifications.record();
+            return previous;
+        }
+
+        @Override
+        public int size() {
+            return lessons.size();
+        }
+    }
 }
@@ -1,6 +1,5 @@
 package by.tolkun.school.entity;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 
@@ -14,14 +13,37 @@ public class StudentTimetable {
      */
     private List<SchoolClass> schoolClasses;
 
+    /**
+     * The dictionary of subjects of lessons.
+     */
+    private final SubjectDictionary subjectDictionary;
 
     /**
-     * Constructor with parameters.
+     * The statistics of timetable or {@code null} if they aren't computed
+     * yet or were invalidated.
+     */
+    private volatile TimetableStatistics statistics;
+
+    /**
+     * Constructor with parameters. Timetable gets its own empty dictionary
+     * of subjects.
      *
      * @param schoolClasses the list of school classes
      */
     public StudentTimetable(List<SchoolClass> schoolClasses) {
+        this(schoolClasses, new SubjectDictionary());
+    }
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param schoolClasses     the list of school classes
+     * @param subjectDictionary the dictionary of subjects of lessons
+     */
+    public StudentTimetable(List<SchoolClass> schoolClasses,
+                            SubjectDictionary subjectDictionary) {
         this.schoolClasses = schoolClasses;
+        this.subjectDictionary = subjectDictionary;
     }
 
     /**
@@ -40,6 +62,44 @@ public class StudentTimetable {
      */
     public void setSchoolClasses(List<SchoolClass> schoolClasses) {
         this.schoolClasses = schoolClasses;
+        invalidateStatistics();
+    }
+
+    /**
+     * Get statistics of timetable. Statistics are computed on first call
+     * and are returned until list of school classes is replaced, school
+     * class, school day or its lessons are changed or
+     * {@link #invalidateStatistics()} is called.
+     *
+     * @return statistics of timetable
+     */
+    public TimetableStatistics getStatistics() {
+        TimetableStatistics currentStatistics = statistics;
+        if (currentStatistics == null
+                || currentStatistics.getModificationCount()
+                != TimetableModifications.getCount()) {
+            currentStatistics = new TimetableStatistics(this);
+            statistics = currentStatistics;
+        }
+        return currentStatistics;
+    }
+
+    /**
+     * Invalidate statistics of timetable. Should be called after lists
+     * of school classes or of school days of class are changed in place;
+     * other changes are tracked by statistics.
+     */
+    public void invalidateStatistics() {
+        statistics = null;
+    }
+
+    /**
+     * Get dictionary of subjects of lessons.
+     *
+     * @return dictionary of subjects
+     */
+    public SubjectDictionary getSubjectDictionary() {
+        return subjectDictionary;
     }
 
     /**
@@ -57,15 +117,10 @@ public class StudentTimetable {
      *
      * @param dayNum the number of day
      * @return max quantity lessons per {@code numDay} or -1 if timetable is empty
+     * @see #getStatistics()
      */
     public int getQtyMaxLessonsPerDay(int dayNum) {
-        return schoolClasses
-                .stream()
-                .max(Comparator.comparingInt(o -> o.getWeek().get(dayNum)
-                        .getLessons().size()))
-                .map(schoolClass -> schoolClass.getWeek().get(dayNum)
-                        .getLessons().size())
-                .orElse(-1);
+        return getStatistics().getMaxLessonsPerDay(dayNum);
     }
 
     /**
@@ -0,0 +1,133 @@
+package by.tolkun.school.entity;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class to represent dictionary of subjects. Every distinct name of subject
+ * gets small id in order of adding, id {@code 0} is reserved for empty
+ * lesson. Dictionary may be read by many threads while subjects are added.
+ */
+public final class SubjectDictionary {
+
+    /**
+     * The id of empty lesson.
+     */
+    public static final int EMPTY_ID = 0;
+
+    /**
+     * The max quantity of subjects including empty lesson, so ids fit
+     * into {@code short}.
+     */
+    public static final int MAX_SIZE = Short.MAX_VALUE + 1;
+
+    /**
+     * Ids of subjects by names.
+     */
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * Names of subjects by ids.
+     */
+    private volatile String[] subjects = new String[16];
+
+    /**
+     * Quantity of subjects including empty lesson.
+     */
+    private volatile int size;
+
+    /**
+     * Constructor without parameters. Creates dictionary with empty lesson
+     * only.
+     */
+    public SubjectDictionary() {
+        getId("");
+    }
+
+    /**
+     * Get id of subject adding subject to dictionary if it's missing.
+     *
+     * @param subject the name of subject
+     * @return id of subject
+     * @throws IllegalStateException if dictionary is full
+     */
+    public int getId(String subject) {
+        Integer id = ids.get(subject);
+        if (id != null) {
+            return id;
+        }
+        synchronized (ids) {
+            id = ids.get(subject);
+            if (id != null) {
+                return id;
+            }
+            if (size == MAX_SIZE) {
+                throw new IllegalStateException("Subject dictionary is full:"
+                        + " " + MAX_SIZE + " subjects.");
+            }
+            String[] currentSubjects = subjects;
+            if (size == currentSubjects.length) {
+                currentSubjects = Arrays.copyOf(currentSubjects,
+                        Math.min(size * 2, MAX_SIZE));
+            }
+            id = size;
+            currentSubjects[id] = subject;
+            subjects = currentSubjects;
+            // Size is published before id, so reader that found id can get
+            // subject by it.
+            size = id + 1;
+            ids.put(subject, id);
+            return id;
+        }
+    }
+
+    /**
+     * Find id of subject without adding it.
+     *
+     * @param subject the name of subject
+     * @return id of subject or {@code -1} if subject is missing
+     */
+    public int findId(String subject) {
+        Integer id = ids.get(subject);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Get name of subject by id.
+     *
+     * @param id the id of subject
+     * @return name of subject
+     * @throws IndexOutOfBoundsException if id is missing in dictionary
+     */
+    public String getSubject(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Id: " + id
+                    + ", size: " + size);
+        }
+        return subjects[id];
+    }
+
+    /**
+     * Get quantity of subjects including empty lesson.
+     *
+     * @return quantity of subjects
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the string representation of the {@code SubjectDictionary}.
+     *
+     * @return the string representation of the {@code SubjectDictionary}
+     */
+    @Override
+    public String toString() {
+        int currentSize = size;
+        return "SubjectDictionary{" +
+                "subjects=" + Arrays.toString(
+                Arrays.copyOf(subjects, currentSize)) +
+                '}';
+    }
+}
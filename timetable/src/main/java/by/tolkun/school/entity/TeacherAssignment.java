@@ -0,0 +1,113 @@
+package by.tolkun.school.entity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Class to represent assignment of teachers to subjects of school classes.
+ * Teachers are numbered in order of their first assignment.
+ */
+public class TeacherAssignment {
+    /**
+     * Teachers by names of classes and names of subjects.
+     */
+    private final Map<String, Map<String, String>> teachersByClasses
+            = new HashMap<>();
+
+    /**
+     * Numbers of teachers by names in order of first assignment.
+     */
+    private final Map<String, Integer> teacherNums = new LinkedHashMap<>();
+
+    /**
+     * Assign teacher to subject of class. Previous teacher of subject
+     * of class is replaced.
+     *
+     * @param schoolClassName the name of school class
+     * @param subject         the name of subject
+     * @param teacher         the name of teacher
+     */
+    public void assign(String schoolClassName, String subject,
+                       String teacher) {
+        teachersByClasses
+                .computeIfAbsent(schoolClassName, k -> new HashMap<>())
+                .put(subject, teacher);
+        teacherNums.putIfAbsent(teacher, teacherNums.size());
+    }
+
+    /**
+     * Get teacher of subject of class.
+     *
+     * @param schoolClassName the name of school class
+     * @param subject         the name of subject
+     * @return name of teacher or {@code null} if teacher isn't assigned
+     */
+    public String getTeacher(String schoolClassName, String subject) {
+        Map<String, String> teachers = teachersByClasses.get(schoolClassName);
+        return teachers == null ? null : teachers.get(subject);
+    }
+
+    /**
+     * Get number of teacher.
+     *
+     * @param teacher the name of teacher
+     * @return number of teacher or {@code -1} if teacher isn't assigned
+     */
+    public int getTeacherNum(String teacher) {
+        Integer teacherNum = teacherNums.get(teacher);
+        return teacherNum == null ? -1 : teacherNum;
+    }
+
+    /**
+     * Get names of teachers in order of their numbers.
+     *
+     * @return unmodifiable list of names of teachers
+     */
+    public List<String> getTeachers() {
+        return Collections.unmodifiableList(
+                new ArrayList<>(teacherNums.keySet()));
+    }
+
+    /**
+     * Compares this TeacherAssignment to the specified object.
+     *
+     * @param o the object to compare this TeacherAssignment against
+     * @return true if the given object is equivalent TeacherAssignment,
+     * false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TeacherAssignment)) return false;
+        TeacherAssignment that = (TeacherAssignment) o;
+        return teachersByClasses.equals(that.teachersByClasses) &&
+                teacherNums.equals(that.teacherNums);
+    }
+
+    /**
+     * Returns a hash code for this TeacherAssignment.
+     *
+     * @return a hash code value for this object
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(teachersByClasses, teacherNums);
+    }
+
+    /**
+     * Returns the string representation of the TeacherAssignment.
+     *
+     * @return the string representation of the TeacherAssignment
+     */
+    @Override
+    public String toString() {
+        return "TeacherAssignment{" +
+                "teachersByClasses=" + teachersByClasses +
+                '}';
+    }
+}
@@ -0,0 +1,240 @@
+package by.tolkun.school.entity;
+
+import by.tolkun.school.config.StudentTimetableConfig;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Class to represent teacher timetable like list of teachers. Every teacher
+ * has label of lesson for every slot of week: name of class or names
+ * of classes if teacher has several classes at the same slot. Labels are
+ * kept in one array as ids of dictionary, slot of lesson is its number
+ * in day counted from the first lesson of the first shift.
+ */
+public class TeacherTimetable {
+    /**
+     * The quantity of slots per week.
+     */
+    public static final int QTY_SLOTS_PER_WEEK
+            = StudentTimetableConfig.QTY_SCHOOL_DAYS_PER_WEEK
+            * StudentTimetableConfig.QTY_LESSONS_PER_DAY;
+
+    /**
+     * The list of names of teachers.
+     */
+    private final List<String> teachers;
+
+    /**
+     * The dictionary of labels of lessons.
+     */
+    private final SubjectDictionary labels;
+
+    /**
+     * Ids of labels by number of teacher and slot of week, id
+     * {@link SubjectDictionary#EMPTY_ID} for slot without lesson.
+     */
+    private final short[] labelIds;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param teachers the list of names of teachers
+     * @param labels   the dictionary of labels of lessons
+     * @param labelIds the ids of labels by number of teacher and slot
+     *                 of week
+     */
+    public TeacherTimetable(List<String> teachers, SubjectDictionary labels,
+                            short[] labelIds) {
+        if (labelIds.length != teachers.size() * QTY_SLOTS_PER_WEEK) {
+            throw new IllegalArgumentException("Expected "
+                    + teachers.size() * QTY_SLOTS_PER_WEEK
+                    + " labels, got " + labelIds.length);
+        }
+        this.teachers = teachers;
+        this.labels = labels;
+        this.labelIds = labelIds;
+    }
+
+    /**
+     * Get list of names of teachers.
+     *
+     * @return list of names of teachers
+     */
+    public List<String> getTeachers() {
+        return teachers;
+    }
+
+    /**
+     * Get dictionary of labels of lessons.
+     *
+     * @return dictionary of labels
+     */
+    public SubjectDictionary getLabelDictionary() {
+        return labels;
+    }
+
+    /**
+     * Get id of label of lesson.
+     *
+     * @param teacherNum the number of teacher
+     * @param dayNum     the number of day
+     * @param slotNum    the number of slot in day
+     * @return id of label in dictionary
+     */
+    public int getLabelId(int teacherNum, int dayNum, int slotNum) {
+        return labelIds[toIndex(teacherNum, dayNum, slotNum)];
+    }
+
+    /**
+     * Get label of lesson.
+     *
+     * @param teacherNum the number of teacher
+     * @param dayNum     the number of day
+     * @param slotNum    the number of slot in day
+     * @return label of lesson or empty string if slot has no lesson
+     */
+    public String getLabel(int teacherNum, int dayNum, int slotNum) {
+        return labels.getSubject(getLabelId(teacherNum, dayNum, slotNum));
+    }
+
+    /**
+     * Get labels of lessons of teacher at day.
+     *
+     * @param teacherNum the number of teacher
+     * @param dayNum     the number of day
+     * @return unmodifiable list of labels decoded on access
+     */
+    public List<String> getLabels(int teacherNum, int dayNum) {
+        int firstIndex = toIndex(teacherNum, dayNum, 0);
+        return new LabelList(firstIndex);
+    }
+
+    /**
+     * Get quantity of lessons of teacher per week.
+     *
+     * @param teacherNum the number of teacher
+     * @return quantity of slots with lessons
+     */
+    public int getQtyLessons(int teacherNum) {
+        int count = 0;
+        int firstIndex = teacherNum * QTY_SLOTS_PER_WEEK;
+        for (int i = firstIndex; i < firstIndex + QTY_SLOTS_PER_WEEK; i++) {
+            if (labelIds[i] != SubjectDictionary.EMPTY_ID) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get index of label in array.
+     *
+     * @param teacherNum the number of teacher
+     * @param dayNum     the number of day
+     * @param slotNum    the number of slot in day
+     * @return index of label
+     */
+    private int toIndex(int teacherNum, int dayNum, int slotNum) {
+        if (teacherNum < 0 || teacherNum >= teachers.size()
+                || dayNum < 0
+                || dayNum >= StudentTimetableConfig.QTY_SCHOOL_DAYS_PER_WEEK
+                || slotNum < 0
+                || slotNum >= StudentTimetableConfig.QTY_LESSONS_PER_DAY) {
+            throw new IndexOutOfBoundsException("Teacher: " + teacherNum
+                    + ", day: " + dayNum + ", slot: " + slotNum);
+        }
+        return teacherNum * QTY_SLOTS_PER_WEEK
+                + dayNum * StudentTimetableConfig.QTY_LESSONS_PER_DAY
+                + slotNum;
+    }
+
+    /**
+     * Compares this TeacherTimetable to the specified object. Timetables are
+     * equal if they have the same teachers and labels at the same slots.
+     *
+     * @param o the object to compare this TeacherTimetable against
+     * @return true if the given object is equivalent TeacherTimetable,
+     * false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TeacherTimetable)) return false;
+        TeacherTimetable that = (TeacherTimetable) o;
+        if (!teachers.equals(that.teachers)) return false;
+        if (labels == that.labels) {
+            return Arrays.equals(labelIds, that.labelIds);
+        }
+        for (int i = 0; i < labelIds.length; i++) {
+            if (!labels.getSubject(labelIds[i])
+                    .equals(that.labels.getSubject(that.labelIds[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a hash code for this TeacherTimetable.
+     *
+     * @return a hash code value for this object
+     */
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(teachers);
+        for (short labelId : labelIds) {
+            result = 31 * result + labels.getSubject(labelId).hashCode();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the string representation of the TeacherTimetable.
+     *
+     * @return the string representation of the TeacherTimetable
+     */
+    @Override
+    public String toString() {
+        return "TeacherTimetable{" +
+                "teachers=" + teachers +
+                '}';
+    }
+
+    /**
+     * List of labels of one day decoded from ids on access.
+     */
+    private final class LabelList extends AbstractList<String>
+            implements RandomAccess {
+
+        /**
+         * Index of label of the first slot of day.
+         */
+        private final int firstIndex;
+
+        /**
+         * Constructor with parameters.
+         *
+         * @param firstIndex the index of label of the first slot of day
+         */
+        private LabelList(int firstIndex) {
+            this.firstIndex = firstIndex;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index);
+            }
+            return labels.getSubject(labelIds[firstIndex + index]);
+        }
+
+        @Override
+        public int size() {
+            return StudentTimetableConfig.QTY_LESSONS_PER_DAY;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package by.tolkun.school.entity;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counter of changes of school classes and school days made in place.
+ * Counter is shared by all timetables, so change of any timetable makes
+ * statistics of every timetable stale; it's cheap to check and never
+ * misses a change.
+ */
+final class TimetableModifications {
+
+    /**
+     * Quantity of changes.
+     */
+    private static final AtomicLong COUNT = new AtomicLong();
+
+    /**
+     * Constructor without parameters.
+     */
+    private TimetableModifications() {
+    }
+
+    /**
+     * Record change of school class or school day.
+     */
+    static void record() {
+        COUNT.incrementAndGet();
+    }
+
+    /**
+     * Get quantity of changes recorded so far.
+     *
+     * @return quantity of changes
+     */
+    static long getCount() {
+        return COUNT.get();
+    }
+}
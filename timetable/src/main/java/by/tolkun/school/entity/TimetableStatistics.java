@@ -0,0 +1,250 @@
+package by.tolkun.school.entity;
+
+import by.tolkun.school.config.StudentTimetableConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class to represent aggregate statistics of student timetable computed
+ * in one pass over its lessons. Quantity of lessons of day is size of its
+ * list of lessons including empty ones, like rows of timetable; other counts
+ * include non-empty lessons only. Statistics don't follow later changes
+ * of timetable, they are recomputed by
+ * {@link StudentTimetable#getStatistics()}.
+ */
+public final class TimetableStatistics {
+
+    /**
+     * Max quantity of lessons per day among all classes by days.
+     */
+    private final int[] maxLessonsPerDay;
+
+    /**
+     * Min quantity of lessons per day among all classes by days.
+     */
+    private final int[] minLessonsPerDay;
+
+    /**
+     * Quantity of non-empty lessons by shifts and days.
+     */
+    private final int[][] lessonsPerShift;
+
+    /**
+     * Quantity of non-empty lessons by classes and ids of subjects.
+     */
+    private final int[][] subjectCounts;
+
+    /**
+     * Quantity of non-empty lessons by classes and names of subjects
+     * missing in dictionary of timetable.
+     */
+    private final List<Map<String, Integer>> missingSubjectCounts;
+
+    /**
+     * Dictionary of subjects of timetable.
+     */
+    private final SubjectDictionary dictionary;
+
+    /**
+     * Quantity of non-empty lessons per week.
+     */
+    private final int qtyLessonsPerWeek;
+
+    /**
+     * Quantity of changes of timetables recorded before statistics were
+     * computed, see {@link TimetableModifications}.
+     */
+    private final long modificationCount;
+
+    /**
+     * Constructor with parameters. Statistics are computed in one pass
+     * over lessons of timetable; dictionary of timetable isn't changed,
+     * subjects missing in it are counted by names.
+     *
+     * @param timetable the student timetable
+     */
+    TimetableStatistics(StudentTimetable timetable) {
+        modificationCount = TimetableModifications.getCount();
+        int qtyDays = StudentTimetableConfig.QTY_SCHOOL_DAYS_PER_WEEK;
+        List<SchoolClass> schoolClasses = timetable.getSchoolClasses();
+        dictionary = timetable.getSubjectDictionary();
+        maxLessonsPerDay = new int[qtyDays];
+        minLessonsPerDay = new int[qtyDays];
+        Arrays.fill(maxLessonsPerDay, -1);
+        Arrays.fill(minLessonsPerDay, -1);
+        lessonsPerShift = new int[2][qtyDays];
+        subjectCounts = new int[schoolClasses.size()][];
+        missingSubjectCounts = new ArrayList<>(schoolClasses.size());
+
+        int lessonCount = 0;
+        for (int classNum = 0; classNum < schoolClasses.size(); classNum++) {
+            int[] counts = new int[dictionary.size()];
+            Map<String, Integer> missingCounts = Collections.emptyMap();
+            List<SchoolDay> week = schoolClasses.get(classNum).getWeek();
+            for (int dayNum = 0; dayNum < week.size() && dayNum < qtyDays;
+                 dayNum++) {
+                SchoolDay schoolDay = week.get(dayNum);
+                int size = schoolDay.getLessonCount();
+                if (maxLessonsPerDay[dayNum] < size) {
+                    maxLessonsPerDay[dayNum] = size;
+                }
+                if (minLessonsPerDay[dayNum] < 0
+                        || minLessonsPerDay[dayNum] > size) {
+                    minLessonsPerDay[dayNum] = size;
+                }
+                for (int i = 0; i < size; i++) {
+                    int subjectId = schoolDay.isEncoded()
+                            && schoolDay.getDictionary() == dictionary
+                            ? schoolDay.getLessonId(i)
+                            : dictionary.findId(schoolDay.getLesson(i));
+                    if (subjectId == SubjectDictionary.EMPTY_ID) {
+                        continue;
+                    }
+                    if (subjectId < 0) {
+                        if (missingCounts.isEmpty()) {
+                            missingCounts = new HashMap<>();
+                        }
+                        missingCounts.merge(schoolDay.getLesson(i), 1,
+                                Integer::sum);
+                    } else {
+                        if (subjectId >= counts.length) {
+                            counts = Arrays.copyOf(counts,
+                                    dictionary.size());
+                        }
+                        counts[subjectId]++;
+                    }
+                    lessonsPerShift[schoolDay.getShift() == 2 ? 1 : 0]
+                            [dayNum]++;
+                    lessonCount++;
+                }
+            }
+            subjectCounts[classNum] = counts;
+            missingSubjectCounts.add(missingCounts);
+        }
+        qtyLessonsPerWeek = lessonCount;
+    }
+
+    /**
+     * Get max quantity of lessons per day among all classes.
+     *
+     * @param dayNum the number of day
+     * @return max quantity of lessons or {@code -1} if timetable is empty
+     */
+    public int getMaxLessonsPerDay(int dayNum) {
+        return maxLessonsPerDay[dayNum];
+    }
+
+    /**
+     * Get min quantity of lessons per day among all classes.
+     *
+     * @param dayNum the number of day
+     * @return min quantity of lessons or {@code -1} if timetable is empty
+     */
+    public int getMinLessonsPerDay(int dayNum) {
+        return minLessonsPerDay[dayNum];
+    }
+
+    /**
+     * Get quantity of non-empty lessons of all classes at shift of day.
+     *
+     * @param shift  the shift, {@code 1} or {@code 2}
+     * @param dayNum the number of day
+     * @return quantity of lessons
+     */
+    public int getLessonsPerShift(int shift, int dayNum) {
+        if (shift != 1 && shift != 2) {
+            throw new IllegalArgumentException("Invalid shift: " + shift);
+        }
+        return lessonsPerShift[shift - 1][dayNum];
+    }
+
+    /**
+     * Get quantity of lessons of subject of class per week.
+     *
+     * @param schoolClassNum the number of school class
+     * @param subject        the name of subject
+     * @return quantity of lessons
+     */
+    public int getSubjectCount(int schoolClassNum, String subject) {
+        return getSubjectCount(schoolClassNum, dictionary.findId(subject),
+                subject);
+    }
+
+    /**
+     * Get quantity of lessons of subject of class per week by id of subject.
+     *
+     * @param schoolClassNum the number of school class
+     * @param subjectId      the id of subject in dictionary of timetable
+     * @return quantity of lessons
+     */
+    public int getSubjectCount(int schoolClassNum, int subjectId) {
+        return getSubjectCount(schoolClassNum, subjectId,
+                subjectId > SubjectDictionary.EMPTY_ID
+                        && subjectId < dictionary.size()
+                        ? dictionary.getSubject(subjectId)
+                        : null);
+    }
+
+    /**
+     * Get quantity of lessons of subject of class per week. Subjects added
+     * to dictionary after statistics were computed are counted by names.
+     *
+     * @param schoolClassNum the number of school class
+     * @param subjectId      the id of subject or {@code -1} if subject is
+     *                       missing in dictionary
+     * @param subject        the name of subject or {@code null}
+     * @return quantity of lessons
+     */
+    private int getSubjectCount(int schoolClassNum, int subjectId,
+                                String subject) {
+        if (subjectId == SubjectDictionary.EMPTY_ID) {
+            return 0;
+        }
+        int[] counts = subjectCounts[schoolClassNum];
+        if (subjectId > SubjectDictionary.EMPTY_ID
+                && subjectId < counts.length) {
+            return counts[subjectId];
+        }
+        Integer count = missingSubjectCounts.get(schoolClassNum)
+                .get(subject);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Get quantity of non-empty lessons of all classes per week.
+     *
+     * @return quantity of lessons
+     */
+    public int getQtyLessonsPerWeek() {
+        return qtyLessonsPerWeek;
+    }
+
+    /**
+     * Get quantity of changes of timetables recorded before statistics were
+     * computed.
+     *
+     * @return quantity of changes
+     */
+    long getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Returns the string representation of the TimetableStatistics.
+     *
+     * @return the string representation of the TimetableStatistics
+     */
+    @Override
+    public String toString() {
+        return "TimetableStatistics{" +
+                "maxLessonsPerDay=" + Arrays.toString(maxLessonsPerDay) +
+                ", minLessonsPerDay=" + Arrays.toString(minLessonsPerDay) +
+                ", qtyLessonsPerWeek=" + qtyLessonsPerWeek +
+                '}';
+    }
+}
@@ -0,0 +1,290 @@
+package by.tolkun.school.index;
+
+import by.tolkun.school.config.StudentTimetableConfig;
+import by.tolkun.school.entity.SchoolClass;
+import by.tolkun.school.entity.SchoolDay;
+import by.tolkun.school.entity.StudentTimetable;
+import by.tolkun.school.entity.SubjectDictionary;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class to represent inverted index of student timetable. For every subject
+ * and every slot of week index keeps set of numbers of classes having the
+ * subject at the slot. Slot of lesson is its number in day counted from
+ * the first lesson of the first shift, so lessons of the second shift
+ * start at {@link StudentTimetableConfig#QTY_LESSONS_PER_FIRST_SHIFT}.
+ * Lessons marked with {@value SchoolDay#PRE_SHIFT_MARK} are indexed by
+ * subject without mark at their slots of the first shift, see
+ * {@link SchoolDay#getLessonSlots()}. Index is built once and doesn't follow
+ * later changes of timetable.
+ */
+public final class TimetableIndex {
+
+    /**
+     * The quantity of slots per week.
+     */
+    private static final int QTY_SLOTS_PER_WEEK
+            = StudentTimetableConfig.QTY_SCHOOL_DAYS_PER_WEEK
+            * StudentTimetableConfig.QTY_LESSONS_PER_DAY;
+
+    /**
+     * Indexed student timetable.
+     */
+    private final StudentTimetable timetable;
+
+    /**
+     * Dictionary of subjects of timetable.
+     */
+    private final SubjectDictionary dictionary;
+
+    /**
+     * Sets of numbers of classes by id of subject and slot of week; missing
+     * sets are {@code null}.
+     */
+    private final BitSet[][] classes;
+
+    /**
+     * Sets of numbers of classes by slot of week by names of subjects
+     * missing in dictionary of timetable.
+     */
+    private final Map<String, BitSet[]> classesOfMissingSubjects
+            = new HashMap<>();
+
+    /**
+     * Constructor with parameters. Index is built in one pass over lessons
+     * of timetable, lessons are placed at slots of
+     * {@link SchoolDay#getLessonSlots()}. Dictionary of timetable isn't
+     * changed, subjects missing in it are indexed by names.
+     *
+     * @param timetable the student timetable
+     */
+    public TimetableIndex(StudentTimetable timetable) {
+        this.timetable = timetable;
+        this.dictionary = timetable.getSubjectDictionary();
+
+        List<BitSet[]> classesBySubject = new ArrayList<>();
+        List<SchoolClass> schoolClasses = timetable.getSchoolClasses();
+        for (int classNum = 0; classNum < schoolClasses.size(); classNum++) {
+            List<SchoolDay> week = schoolClasses.get(classNum).getWeek();
+            for (int dayNum = 0; dayNum < week.size()
+                    && dayNum < StudentTimetableConfig.QTY_SCHOOL_DAYS_PER_WEEK;
+                 dayNum++) {
+                SchoolDay schoolDay = week.get(dayNum);
+                int firstSlot = dayNum
+                        * StudentTimetableConfig.QTY_LESSONS_PER_DAY;
+                int[] lessonSlots = schoolDay.getLessonSlots();
+                for (int i = 0; i < lessonSlots.length; i++) {
+                    if (lessonSlots[i] < 0) {
+                        continue;
+                    }
+                    int subjectId = getSubjectId(schoolDay, i);
+                    if (subjectId == SubjectDictionary.EMPTY_ID) {
+                        continue;
+                    }
+                    BitSet[] slots;
+                    if (subjectId < 0) {
+                        slots = classesOfMissingSubjects.computeIfAbsent(
+                                SchoolDay.getSubject(schoolDay.getLesson(i)),
+                                k -> new BitSet[QTY_SLOTS_PER_WEEK]);
+                    } else {
+                        while (classesBySubject.size() <= subjectId) {
+                            classesBySubject.add(null);
+                        }
+                        slots = classesBySubject.get(subjectId);
+                        if (slots == null) {
+                            slots = new BitSet[QTY_SLOTS_PER_WEEK];
+                            classesBySubject.set(subjectId, slots);
+                        }
+                    }
+                    int slotNum = firstSlot + lessonSlots[i];
+                    if (slots[slotNum] == null) {
+                        slots[slotNum] = new BitSet();
+                    }
+                    slots[slotNum].set(classNum);
+                }
+            }
+        }
+        this.classes = classesBySubject.toArray(new BitSet[0][]);
+    }
+
+    /**
+     * Get id of subject of lesson without mark in dictionary of timetable.
+     *
+     * @param schoolDay the school day
+     * @param lessonNum the number of lesson in day
+     * @return id of subject or {@code -1} if subject is missing
+     * in dictionary
+     */
+    private int getSubjectId(SchoolDay schoolDay, int lessonNum) {
+        if (schoolDay.isEncoded() && schoolDay.getDictionary() == dictionary
+                && !schoolDay.isPreShiftLesson(lessonNum)) {
+            return schoolDay.getLessonId(lessonNum);
+        }
+        return dictionary.findId(
+                SchoolDay.getSubject(schoolDay.getLesson(lessonNum)));
+    }
+
+    /**
+     * Get indexed student timetable.
+     *
+     * @return student timetable
+     */
+    public StudentTimetable getTimetable() {
+        return timetable;
+    }
+
+    /**
+     * Get numbers of classes having subject at slot of day.
+     *
+     * @param subject the name of subject
+     * @param dayNum  the number of day
+     * @param slotNum the number of slot in day
+     * @return new set of numbers of classes
+     */
+    public BitSet getClasses(String subject, int dayNum, int slotNum) {
+        checkSlot(dayNum, slotNum);
+        BitSet[] slots = getSlots(subject);
+        BitSet result = new BitSet();
+        if (slots != null && slots[toSlotOfWeek(dayNum, slotNum)] != null) {
+            result.or(slots[toSlotOfWeek(dayNum, slotNum)]);
+        }
+        return result;
+    }
+
+    /**
+     * Get numbers of classes having subject at any slot of day.
+     *
+     * @param subject the name of subject
+     * @param dayNum  the number of day
+     * @return new set of numbers of classes
+     */
+    public BitSet getClasses(String subject, int dayNum) {
+        checkSlot(dayNum, 0);
+        BitSet[] slots = getSlots(subject);
+        BitSet result = new BitSet();
+        if (slots != null) {
+            int firstSlot = toSlotOfWeek(dayNum, 0);
+            for (int i = firstSlot;
+                 i < firstSlot + StudentTimetableConfig.QTY_LESSONS_PER_DAY;
+                 i++) {
+                if (slots[i] != null) {
+                    result.or(slots[i]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get numbers of classes having subject at any slot of week.
+     *
+     * @param subject the name of subject
+     * @return new set of numbers of classes
+     */
+    public BitSet getClasses(String subject) {
+        BitSet[] slots = getSlots(subject);
+        BitSet result = new BitSet();
+        if (slots != null) {
+            for (BitSet slot : slots) {
+                if (slot != null) {
+                    result.or(slot);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get numbers of classes present in all sets.
+     *
+     * @param first  the first set of numbers of classes
+     * @param others the other sets of numbers of classes
+     * @return new set of numbers of classes
+     */
+    public static BitSet and(BitSet first, BitSet... others) {
+        BitSet result = (BitSet) first.clone();
+        for (BitSet other : others) {
+            result.and(other);
+        }
+        return result;
+    }
+
+    /**
+     * Get numbers of classes present in any set.
+     *
+     * @param first  the first set of numbers of classes
+     * @param others the other sets of numbers of classes
+     * @return new set of numbers of classes
+     */
+    public static BitSet or(BitSet first, BitSet... others) {
+        BitSet result = (BitSet) first.clone();
+        for (BitSet other : others) {
+            result.or(other);
+        }
+        return result;
+    }
+
+    /**
+     * Get school classes by numbers.
+     *
+     * @param classNums the set of numbers of classes
+     * @return list of school classes in order of numbers
+     */
+    public List<SchoolClass> getSchoolClasses(BitSet classNums) {
+        List<SchoolClass> schoolClasses
+                = new ArrayList<>(classNums.cardinality());
+        for (int i = classNums.nextSetBit(0); i >= 0;
+             i = classNums.nextSetBit(i + 1)) {
+            schoolClasses.add(timetable.getSchoolClass(i));
+        }
+        return schoolClasses;
+    }
+
+    /**
+     * Get sets of numbers of classes of subject by slots of week.
+     *
+     * @param subject the name of subject
+     * @return sets by slots of week or {@code null} if subject isn't indexed
+     */
+    private BitSet[] getSlots(String subject) {
+        int subjectId = dictionary.findId(subject);
+        if (subjectId < 0 || subjectId >= classes.length
+                || classes[subjectId] == null) {
+            // Subject may be added to dictionary after index was built.
+            return classesOfMissingSubjects.get(subject);
+        }
+        return classes[subjectId];
+    }
+
+    /**
+     * Get number of slot of week.
+     *
+     * @param dayNum  the number of day
+     * @param slotNum the number of slot in day
+     * @return number of slot of week
+     */
+    private static int toSlotOfWeek(int dayNum, int slotNum) {
+        return dayNum * StudentTimetableConfig.QTY_LESSONS_PER_DAY + slotNum;
+    }
+
+    /**
+     * Check number of day and number of slot.
+     *
+     * @param dayNum  the number of day
+     * @param slotNum the number of slot in day
+     */
+    private static void checkSlot(int dayNum, int slotNum) {
+        if (dayNum < 0
+                || dayNum >= StudentTimetableConfig.QTY_SCHOOL_DAYS_PER_WEEK
+                || slotNum < 0
+                || slotNum >= StudentTimetableConfig.QTY_LESSONS_PER_DAY) {
+            throw new IndexOutOfBoundsException("Day: " + dayNum
+                    + ", slot: " + slotNum);
+        }
+    }
+}
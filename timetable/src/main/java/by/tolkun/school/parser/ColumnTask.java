@@ -0,0 +1,115 @@
+package by.tolkun.school.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+
+/**
+ * Task to parse range of columns concurrently. Range is split in halves
+ * until it's small enough to be parsed by one worker. Results are stored
+ * by position of column, so they keep order of columns regardless of order
+ * workers finish in.
+ *
+ * @param <T> the type of result of parsing of column
+ */
+final class ColumnTask<T> extends RecursiveAction {
+
+    /**
+     * Version of serialized form of task.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The max quantity of columns parsed by one worker without splitting.
+     */
+    private static final int MAX_COLUMNS_PER_TASK = 4;
+
+    /**
+     * Parser of column by its number.
+     */
+    private final IntFunction<T> parser;
+
+    /**
+     * Results of parsing by position of column in range.
+     */
+    private final Object[] results;
+
+    /**
+     * The number of first column of whole range.
+     */
+    private final int firstColumnNum;
+
+    /**
+     * The first position of column of this task, inclusive.
+     */
+    private final int from;
+
+    /**
+     * The last position of column of this task, exclusive.
+     */
+    private final int to;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param parser         the parser of column by its number
+     * @param results        the results by position of column in range
+     * @param firstColumnNum the number of first column of whole range
+     * @param from           the first position of column, inclusive
+     * @param to             the last position of column, exclusive
+     */
+    private ColumnTask(IntFunction<T> parser, Object[] results,
+                       int firstColumnNum, int from, int to) {
+        this.parser = parser;
+        this.results = results;
+        this.firstColumnNum = firstColumnNum;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Parse range of columns in the pool.
+     *
+     * @param pool           the fork/join pool
+     * @param firstColumnNum the number of first column
+     * @param columnCount    the quantity of columns
+     * @param parser         the parser of column by its number, must be safe
+     *                       to call from several threads
+     * @param <T>            the type of result of parsing of column
+     * @return results of parsing in order of columns
+     */
+    static <T> List<T> parseColumns(ForkJoinPool pool, int firstColumnNum,
+                                    int columnCount, IntFunction<T> parser) {
+        Object[] results = new Object[Math.max(columnCount, 0)];
+        pool.invoke(new ColumnTask<>(parser, results, firstColumnNum,
+                0, results.length));
+
+        List<T> parsedColumns = new ArrayList<>(results.length);
+        for (Object result : results) {
+            @SuppressWarnings("unchecked")
+            T parsedColumn = (T) result;
+            parsedColumns.add(parsedColumn);
+        }
+        return parsedColumns;
+    }
+
+    /**
+     * Parse columns of task or split task in halves.
+     */
+    @Override
+    protected void compute() {
+        if (to - from <= MAX_COLUMNS_PER_TASK) {
+            for (int i = from; i < to; i++) {
+                results[i] = parser.apply(firstColumnNum + i);
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new ColumnTask<>(parser, results, firstColumnNum,
+                        from, middle),
+                new ColumnTask<>(parser, results, firstColumnNum,
+                        middle, to));
+    }
+}
@@ -0,0 +1,188 @@
+package by.tolkun.school.parser;
+
+import by.tolkun.school.entity.SpreadsheetStrings;
+import org.apache.poi.util.XMLHelper;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Class to represent shared strings table of workbook read from raw XML.
+ * Characters of all strings are kept in one buffer with offsets of strings,
+ * formatting and phonetic runs are dropped, escaped characters are decoded
+ * like by Poi. Strings are created on first access only and the same
+ * instance is returned for repeated index.
+ */
+final class SharedStringsIndex {
+
+    /**
+     * Characters of all strings one after another.
+     */
+    private final StringBuilder chars;
+
+    /**
+     * Offsets of strings in characters; offset of the next string is the end
+     * of the string, so length of array is quantity of strings plus one.
+     */
+    private final int[] offsets;
+
+    /**
+     * Strings created on access by index.
+     */
+    private final String[] strings;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param chars   the characters of all strings
+     * @param offsets the offsets of strings in characters
+     * @param size    the quantity of strings
+     */
+    private SharedStringsIndex(StringBuilder chars, int[] offsets,
+                               int size) {
+        this.chars = chars;
+        this.offsets = offsets;
+        this.strings = new String[size];
+    }
+
+    /**
+     * Read shared strings table from XML of part.
+     *
+     * @param inputStream the input stream of part or {@code null} if workbook
+     *                    has no shared strings
+     * @return shared strings table
+     * @throws IOException if part can't be read or parsed
+     */
+    static SharedStringsIndex read(InputStream inputStream)
+            throws IOException {
+        Handler handler = new Handler();
+        if (inputStream != null) {
+            try {
+                XMLReader reader = XMLHelper.newXMLReader();
+                reader.setContentHandler(handler);
+                reader.parse(new InputSource(inputStream));
+            } catch (SAXException | ParserConfigurationException e) {
+                throw new IOException("Cannot read shared strings.", e);
+            }
+        }
+        handler.chars.trimToSize();
+        return new SharedStringsIndex(handler.chars, handler.offsets,
+                handler.size);
+    }
+
+    /**
+     * Get quantity of strings.
+     *
+     * @return quantity of strings
+     */
+    int size() {
+        return strings.length;
+    }
+
+    /**
+     * Get string by index.
+     *
+     * @param index the index of string
+     * @return string
+     */
+    String getString(int index) {
+        if (index < 0 || index >= strings.length) {
+            throw new IndexOutOfBoundsException("Index: " + index
+                    + ", size: " + strings.length);
+        }
+        if (strings[index] == null) {
+            strings[index] = chars.substring(offsets[index],
+                    offsets[index + 1]);
+        }
+        return strings[index];
+    }
+
+    /**
+     * Handler of XML of shared strings table that appends decoded text
+     * of strings to buffer of characters.
+     */
+    private static final class Handler extends DefaultHandler {
+
+        /**
+         * Characters of read strings.
+         */
+        private final StringBuilder chars = new StringBuilder(1024);
+
+        /**
+         * Text of current text element; escapes are decoded by elements
+         * like by Poi.
+         */
+        private final StringBuilder text = new StringBuilder();
+
+        /**
+         * Offsets of read strings, the first offset is {@code 0}.
+         */
+        private int[] offsets = new int[64];
+
+        /**
+         * Quantity of read strings.
+         */
+        private int size;
+
+        /**
+         * Whether text element of string is being read.
+         */
+        private boolean inText;
+
+        /**
+         * Whether phonetic run is being read.
+         */
+        private boolean inPhoneticRun;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void startElement(String uri, String localName, String qName,
+                                 Attributes attributes) {
+            if ("rPh".equals(localName)) {
+                inPhoneticRun = true;
+            } else if ("t".equals(localName)) {
+                inText = !inPhoneticRun;
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if ("rPh".equals(localName)) {
+                inPhoneticRun = false;
+            } else if ("t".equals(localName)) {
+                if (inText) {
+                    SpreadsheetStrings.appendDecoded(text, chars);
+                    text.setLength(0);
+                }
+                inText = false;
+            } else if ("si".equals(localName)) {
+                if (size + 2 > offsets.length) {
+                    offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                }
+                offsets[++size] = chars.length();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void characters(char[] ch, int start, int count) {
+            if (inText) {
+                text.append(ch, start, count);
+            }
+        }
+    }
+}
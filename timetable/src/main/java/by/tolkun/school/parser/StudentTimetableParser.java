@@ -5,9 +5,24 @@ import by.tolkun.school.entity.SchoolClass;
 import by.tolkun.school.entity.SchoolDay;
 import by.tolkun.school.entity.SpreadsheetTab;
 import by.tolkun.school.entity.StudentTimetable;
+import by.tolkun.school.entity.SubjectDictionary;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Class to parse tab {@link by.tolkun.school.entity.SpreadsheetTab} into
@@ -17,119 +32,288 @@ public class StudentTimetableParser {
 
     /**
      * Parse tab of excel workbook to student timetable
-     * {@link StudentTimetable}.
+     * {@link StudentTimetable}. Area of timetable is read from tab once,
+     * cells of tab are not created.
      *
      * @param tab the tab (sheet)
      * @return student timetable
      */
     public static StudentTimetable parse(SpreadsheetTab tab) {
-        List<SchoolClass> schoolClasses = new ArrayList<>();
-        // Loop by classes to get list of SchoolClasses.
-        for (int classNum = StudentTimetableConfig
-                .NUM_OF_FIRST_COLUMN_WITH_LESSON;
-             classNum < tab.getColumnCount();
-             classNum++) {
+        return parse(tab, (SubjectNormalizer) null);
+    }
 
-            List<SchoolDay> schoolDays = new ArrayList<>();
-            // Loop by days to get list of SchoolDays.
-            for (int dayNum = 0;
-                 dayNum < StudentTimetableConfig.QTY_SCHOOL_DAYS_PER_WEEK;
-                 dayNum++) {
-                int shift = parseShift(tab, dayNum, classNum);
-                schoolDays.add(new SchoolDay(
-                        parseLessons(tab, shift, dayNum, classNum), shift
-                ));
-            }
+    /**
+     * Parse tab of excel workbook to student timetable
+     * {@link StudentTimetable} normalizing names of subjects. Every distinct
+     * raw name of subject is normalized once.
+     *
+     * @param tab        the tab (sheet)
+     * @param normalizer the normalizer of subjects or {@code null} to keep
+     *                   trimmed names
+     * @return student timetable
+     */
+    public static StudentTimetable parse(SpreadsheetTab tab,
+                                         SubjectNormalizer normalizer) {
+        return parse(TimetableGrid.load(tab), normalizer);
+    }
 
-            String schoolClassName = tab
-                    .getOrCreateCell(StudentTimetableConfig
-                            .NUM_OF_FIRST_ROW_WITH_LESSON - 1, classNum)
-                    .getValue();
-            schoolClasses.add(new SchoolClass(schoolClassName, schoolDays));
-        }
+    /**
+     * Parse tab of excel workbook to student timetable
+     * {@link StudentTimetable} parsing classes concurrently in the pool.
+     * Area of timetable is read from tab on the calling thread, then columns
+     * of classes are split across workers of pool. Classes are kept
+     * in order of columns.
+     *
+     * @param tab  the tab (sheet)
+     * @param pool the fork/join pool
+     * @return student timetable
+     */
+    public static StudentTimetable parse(SpreadsheetTab tab,
+                                         ForkJoinPool pool) {
+        return parse(tab, pool, null);
+    }
 
-        return new StudentTimetable(schoolClasses);
+    /**
+     * Parse tab of excel workbook to student timetable
+     * {@link StudentTimetable} parsing classes concurrently in the pool and
+     * normalizing names of subjects. See
+     * {@link #parse(SpreadsheetTab, ForkJoinPool)}.
+     *
+     * @param tab        the tab (sheet)
+     * @param pool       the fork/join pool
+     * @param normalizer the normalizer of subjects or {@code null} to keep
+     *                   trimmed names
+     * @return student timetable
+     */
+    public static StudentTimetable parse(SpreadsheetTab tab,
+                                         ForkJoinPool pool,
+                                         SubjectNormalizer normalizer) {
+        TimetableGrid grid = TimetableGrid.load(tab);
+        SubjectDictionary dictionary = new SubjectDictionary();
+        grid.encodeLessons(dictionary, normalizer);
+        return new StudentTimetable(ColumnTask.parseColumns(pool,
+                grid.getFirstColumnNum(), grid.getColumnCount(),
+                classNum -> parseSchoolClass(grid, classNum)), dictionary);
     }
 
     /**
-     * Parse shift by day and class if can determine by count of lessons
-     * at shifts, otherwise return {@code 1} shift.
+     * Parse tab of excel workbook to student timetable
+     * {@link StudentTimetable} parsing classes concurrently in the common
+     * fork/join pool. See {@link #parse(SpreadsheetTab, ForkJoinPool)}.
      *
-     * @param tab         the tab (sheet)
-     * @param schoolDay   the school day
-     * @param schoolClass the school class
-     * @return shift according to day and class
+     * @param tab the tab (sheet)
+     * @return student timetable
      */
-    private static int parseShift(SpreadsheetTab tab, int schoolDay,
-                                  int schoolClass) {
-        if (schoolDay < 0) {
-            return 1;
+    public static StudentTimetable parseInParallel(SpreadsheetTab tab) {
+        return parse(tab, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parse tab of excel workbook file to student timetable
+     * {@link StudentTimetable} reading raw XML of sheet as stream. Workbook
+     * isn't loaded into memory: only shared strings and styles of workbook
+     * are read, cells of sheet are read one by one and only cells of area
+     * of timetable are kept. Columns of classes end with the last column
+     * having non-empty value inside of area of timetable.
+     *
+     * @param file     the file of workbook
+     * @param tabTitle the title of tab (sheet)
+     * @return student timetable
+     * @throws IOException if file can't be read or parsed
+     */
+    public static StudentTimetable parse(File file, String tabTitle)
+            throws IOException {
+        return parse(file, tabTitle, null);
+    }
+
+    /**
+     * Parse tab of excel workbook file to student timetable
+     * {@link StudentTimetable} reading raw XML of sheet as stream and
+     * normalizing names of subjects. See {@link #parse(File, String)}.
+     *
+     * @param file       the file of workbook
+     * @param tabTitle   the title of tab (sheet)
+     * @param normalizer the normalizer of subjects or {@code null} to keep
+     *                   trimmed names
+     * @return student timetable
+     * @throws IOException if file can't be read or parsed
+     */
+    public static StudentTimetable parse(File file, String tabTitle,
+                                         SubjectNormalizer normalizer)
+            throws IOException {
+        TimetableGrid grid;
+        OPCPackage opcPackage;
+        try {
+            opcPackage = OPCPackage.open(file, PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IOException("Cannot open workbook.", e);
+        }
+        try {
+            grid = readGrid(new XSSFReader(opcPackage), tabTitle);
+        } catch (OpenXML4JException | SAXException
+                | ParserConfigurationException e) {
+            throw new IOException("Cannot read workbook.", e);
+        } finally {
+            opcPackage.revert();
         }
+        return parse(grid, normalizer);
+    }
 
-        int lessonFirstShiftCount = countLessonsAtShift(tab,
-                1, schoolDay, schoolClass);
-        int lessonSecondShiftCount = countLessonsAtShift(tab,
-                2, schoolDay, schoolClass);
+    /**
+     * Read grid of classes from raw XML of sheet.
+     *
+     * @param reader   the reader of parts of workbook
+     * @param tabTitle the title of tab (sheet)
+     * @return grid of classes
+     * @throws IOException                  if part can't be read
+     * @throws OpenXML4JException           if part can't be opened
+     * @throws SAXException                 if XML of part can't be parsed
+     * @throws ParserConfigurationException if XML parser can't be created
+     */
+    private static TimetableGrid readGrid(XSSFReader reader, String tabTitle)
+            throws IOException, OpenXML4JException, SAXException,
+            ParserConfigurationException {
+        XSSFReader.SheetIterator sheets
+                = (XSSFReader.SheetIterator) reader.getSheetsData();
+        while (sheets.hasNext()) {
+            try (InputStream sheet = sheets.next()) {
+                if (!sheets.getSheetName().equals(tabTitle)) {
+                    continue;
+                }
+                SharedStringsIndex sharedStrings;
+                try (InputStream sharedStringsData
+                             = reader.getSharedStringsData()) {
+                    sharedStrings = SharedStringsIndex.read(sharedStringsData);
+                }
+                TimetableSheetHandler handler = new TimetableSheetHandler(
+                        sharedStrings, reader.getStylesTable());
+                XMLReader xmlReader = XMLHelper.newXMLReader();
+                xmlReader.setContentHandler(handler);
+                xmlReader.parse(new InputSource(sheet));
+                return handler.getGrid();
+            }
+        }
+        throw new IllegalArgumentException("Workbook doesn't have a sheet"
+                + " with title: " + tabTitle);
+    }
 
-        // If cannot determine shift by count of lessons by the shifts.
-        if (lessonFirstShiftCount == lessonSecondShiftCount) {
-            return parseShift(tab, schoolDay - 1, schoolClass);
+    /**
+     * Parse grid of classes to student timetable {@link StudentTimetable}.
+     *
+     * @param grid       the grid of classes
+     * @param normalizer the normalizer of subjects or {@code null}
+     * @return student timetable
+     */
+    private static StudentTimetable parse(TimetableGrid grid,
+                                          SubjectNormalizer normalizer) {
+        SubjectDictionary dictionary = new SubjectDictionary();
+        grid.encodeLessons(dictionary, normalizer);
+        List<SchoolClass> schoolClasses = new ArrayList<>();
+        // Loop by classes to get list of SchoolClasses.
+        for (int classNum = grid.getFirstColumnNum();
+             classNum < grid.getFirstColumnNum() + grid.getColumnCount();
+             classNum++) {
+            schoolClasses.add(parseSchoolClass(grid, classNum));
         }
 
-        if (lessonFirstShiftCount > lessonSecondShiftCount) {
-            return 1;
+        return new StudentTimetable(schoolClasses, dictionary);
+    }
+
+    /**
+     * Parse school class by column of grid.
+     *
+     * @param grid     the grid of classes with encoded lessons
+     * @param classNum the number of column of class
+     * @return school class
+     */
+    static SchoolClass parseSchoolClass(TimetableGrid grid, int classNum) {
+        int[] shifts = parseShifts(grid, classNum);
+        List<SchoolDay> schoolDays = new ArrayList<>();
+        // Loop by days to get list of SchoolDays.
+        for (int dayNum = 0;
+             dayNum < StudentTimetableConfig.QTY_SCHOOL_DAYS_PER_WEEK;
+             dayNum++) {
+            schoolDays.add(new SchoolDay(grid.getDictionary(),
+                    parseLessons(grid, shifts[dayNum], dayNum, classNum),
+                    shifts[dayNum]
+            ));
         }
 
-        return 2;
+        String schoolClassName = grid.getValue(
+                TimetableGrid.NUM_OF_CLASS_NAME_ROW, classNum);
+        return new SchoolClass(schoolClassName, schoolDays);
+    }
+
+    /**
+     * Parse shifts of all days of class in one forward pass. Shift of day
+     * is determined by count of lessons at shifts. If counts are equal, shift
+     * of previous day is taken, {@code 1} shift for the first day.
+     *
+     * @param grid        the grid of classes
+     * @param schoolClass the school class
+     * @return shifts by days
+     */
+    private static int[] parseShifts(TimetableGrid grid, int schoolClass) {
+        int[] shifts
+                = new int[StudentTimetableConfig.QTY_SCHOOL_DAYS_PER_WEEK];
+        for (int schoolDay = 0; schoolDay < shifts.length; schoolDay++) {
+            int lessonFirstShiftCount = countLessonsAtShift(grid,
+                    1, schoolDay, schoolClass);
+            int lessonSecondShiftCount = countLessonsAtShift(grid,
+                    2, schoolDay, schoolClass);
+
+            if (lessonFirstShiftCount > lessonSecondShiftCount) {
+                shifts[schoolDay] = 1;
+            } else if (lessonFirstShiftCount < lessonSecondShiftCount) {
+                shifts[schoolDay] = 2;
+            } else {
+                // Cannot determine shift by count of lessons by the shifts.
+                shifts[schoolDay] = schoolDay == 0 ? 1 : shifts[schoolDay - 1];
+            }
+        }
+        return shifts;
     }
 
     /**
      * Count lessons per day according to shift, day and class.
      *
-     * @param tab         the tab (sheet)
+     * @param grid        the grid of classes
      * @param shift       the shift of school day
      * @param schoolDay   the school day
      * @param schoolClass the school class
      * @return count of the lessons per day according to shift and class
      */
-    private static int countLessonsAtShift(SpreadsheetTab tab,
+    private static int countLessonsAtShift(TimetableGrid grid,
                                            int shift,
                                            int schoolDay,
                                            int schoolClass) {
         int shiftBeginRow
                 = StudentTimetableConfig.NUM_OF_FIRST_ROW_WITH_LESSON
                 + schoolDay * StudentTimetableConfig.QTY_LESSONS_PER_DAY;
-        int shiftEndRow = shiftBeginRow
-                + StudentTimetableConfig.MAX_QTY_LESSONS_PER_FIRST_SHIFT;
+        int lessonCount
+                = StudentTimetableConfig.MAX_QTY_LESSONS_PER_FIRST_SHIFT;
 
         if (shift == 2) {
             shiftBeginRow
-                    = StudentTimetableConfig.NUM_OF_FIRST_ROW_WITH_LESSON
-                    + schoolDay * StudentTimetableConfig.QTY_LESSONS_PER_DAY
-                    + StudentTimetableConfig.QTY_LESSONS_PER_FIRST_SHIFT;
-            shiftEndRow = shiftBeginRow
-                    + StudentTimetableConfig.MAX_QTY_LESSONS_PER_SECOND_SHIFT;
-        }
-
-        int lessonPerShiftCount = 0;
-        for (int i = shiftBeginRow; i < shiftEndRow; i++) {
-            if (!tab.getOrCreateCell(i, schoolClass).getValue().isEmpty()) {
-                lessonPerShiftCount++;
-            }
+                    += StudentTimetableConfig.QTY_LESSONS_PER_FIRST_SHIFT;
+            lessonCount
+                    = StudentTimetableConfig.MAX_QTY_LESSONS_PER_SECOND_SHIFT;
         }
 
-        return lessonPerShiftCount;
+        return grid.countValues(schoolClass, shiftBeginRow, lessonCount);
     }
 
     /**
-     * Parse list of the lessons by shift, day and class.
+     * Parse ids of subjects of the lessons by shift, day and class.
      *
+     * @param grid        the grid of classes with encoded lessons
+     * @param shift       the shift of school day
      * @param schoolDay   the school day
      * @param schoolClass the school class
-     * @return list of the lessons according to day and class
+     * @return ids of subjects of the lessons according to day and class
      */
-    private static List<String> parseLessons(SpreadsheetTab tab, int shift,
-                                             int schoolDay, int schoolClass) {
+    private static short[] parseLessons(TimetableGrid grid, int shift,
+                                        int schoolDay, int schoolClass) {
         int lessonCount
                 = StudentTimetableConfig.MAX_QTY_LESSONS_PER_FIRST_SHIFT;
         if (shift == 2) {
@@ -141,11 +325,11 @@ public class StudentTimetableParser {
                 + schoolDay * StudentTimetableConfig.QTY_LESSONS_PER_DAY
                 + (shift - 1) * StudentTimetableConfig.QTY_LESSONS_PER_FIRST_SHIFT;
 
-        List<String> lessons = new ArrayList<>();
+        short[] lessonIds = new short[lessonCount];
         // Read all lessons with tilings the window.
-        for (int i = numFirstLesson; i < numFirstLesson + lessonCount; i++) {
-            lessons.add(tab.getOrCreateCell(i, schoolClass).getValue().trim());
+        for (int i = 0; i < lessonCount; i++) {
+            lessonIds[i] = grid.getLessonId(numFirstLesson + i, schoolClass);
         }
-        return lessons;
+        return lessonIds;
     }
 }
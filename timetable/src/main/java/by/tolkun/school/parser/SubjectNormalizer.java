@@ -0,0 +1,195 @@
+package by.tolkun.school.parser;
+
+import by.tolkun.school.config.StudentTimetableConfig;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class to normalize names of subjects of lessons. Name is canonicalized
+ * in one pass: it's trimmed, runs of whitespaces are replaced by one space
+ * and spaces around slashes are removed. At the same pass canonical name
+ * is looked up ignoring case in trie compiled from replacement rules; if
+ * rule matches whole name, name is replaced. Results are cached by raw
+ * names, so every distinct name is normalized once.
+ */
+public final class SubjectNormalizer {
+
+    /**
+     * Root of trie of canonical lower-case names of rules.
+     */
+    private final Node root = new Node();
+
+    /**
+     * Normalized names by raw names.
+     */
+    private final Map<String, String> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor with parameters. Names of rules are canonicalized like
+     * names of subjects, so rules that differ in case or spaces only are
+     * the same rule and the last of them wins.
+     *
+     * @param rules the replacements by names of subjects
+     */
+    public SubjectNormalizer(Map<String, String> rules) {
+        for (Map.Entry<String, String> rule : rules.entrySet()) {
+            String name = canonicalize(rule.getKey(), null, null);
+            Node node = root;
+            for (int i = 0; i < name.length(); i++) {
+                node = node.getOrCreateChild(
+                        Character.toLowerCase(name.charAt(i)));
+            }
+            node.replacement = rule.getValue();
+        }
+    }
+
+    /**
+     * Create normalizer by rules of
+     * {@link StudentTimetableConfig#SUBJECTS_TO_REPLACE}.
+     *
+     * @return normalizer of subjects
+     */
+    public static SubjectNormalizer fromConfig() {
+        return new SubjectNormalizer(
+                StudentTimetableConfig.SUBJECTS_TO_REPLACE);
+    }
+
+    /**
+     * Normalize name of subject.
+     *
+     * @param subject the raw name of subject
+     * @return replacement if rule matches canonical name, canonical name
+     * otherwise
+     */
+    public String normalize(String subject) {
+        String normalized = cache.get(subject);
+        if (normalized == null) {
+            Node[] node = {root};
+            String[] replacement = new String[1];
+            normalized = canonicalize(subject, node, replacement);
+            if (replacement[0] != null) {
+                normalized = replacement[0];
+            }
+            cache.put(subject, normalized);
+        }
+        return normalized;
+    }
+
+    /**
+     * Get quantity of distinct raw names normalized so far.
+     *
+     * @return quantity of cached names
+     */
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * Canonicalize name walking trie by chars of canonical name.
+     *
+     * @param subject     the raw name of subject
+     * @param node        the holder of current node of trie or {@code null}
+     *                    if trie isn't walked
+     * @param replacement the holder of replacement of matched rule
+     *                    or {@code null} if trie isn't walked
+     * @return canonical name
+     */
+    private static String canonicalize(String subject, Node[] node,
+                                       String[] replacement) {
+        StringBuilder canonical = new StringBuilder(subject.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < subject.length(); i++) {
+            char c = subject.charAt(i);
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                pendingSpace = canonical.length() > 0;
+                continue;
+            }
+            if (pendingSpace && c != '/'
+                    && canonical.charAt(canonical.length() - 1) != '/') {
+                append(canonical, ' ', node);
+            }
+            pendingSpace = false;
+            append(canonical, c, node);
+        }
+        if (node != null && node[0] != null) {
+            replacement[0] = node[0].replacement;
+        }
+        return canonical.toString();
+    }
+
+    /**
+     * Append char to canonical name and move to child node of trie.
+     *
+     * @param canonical the canonical name
+     * @param c         the char
+     * @param node      the holder of current node of trie or {@code null}
+     *                  if trie isn't walked
+     */
+    private static void append(StringBuilder canonical, char c, Node[] node) {
+        canonical.append(c);
+        if (node != null && node[0] != null) {
+            node[0] = node[0].getChild(Character.toLowerCase(c));
+        }
+    }
+
+    /**
+     * Node of trie. Children are kept in arrays sorted by chars.
+     */
+    private static final class Node {
+
+        /**
+         * Sorted chars of children.
+         */
+        private char[] chars = new char[0];
+
+        /**
+         * Children by positions of their chars.
+         */
+        private Node[] children = new Node[0];
+
+        /**
+         * Replacement of rule ending at node or {@code null}.
+         */
+        private String replacement;
+
+        /**
+         * Get child by char.
+         *
+         * @param c the char
+         * @return child or {@code null} if it's missing
+         */
+        private Node getChild(char c) {
+            int index = Arrays.binarySearch(chars, c);
+            return index < 0 ? null : children[index];
+        }
+
+        /**
+         * Get child by char creating it if it's missing.
+         *
+         * @param c the char
+         * @return child
+         */
+        private Node getOrCreateChild(char c) {
+            int index = Arrays.binarySearch(chars, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            index = -index - 1;
+            char[] newChars = new char[chars.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(chars, 0, newChars, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newChars[index] = c;
+            newChildren[index] = new Node();
+            System.arraycopy(chars, index, newChars, index + 1,
+                    chars.length - index);
+            System.arraycopy(children, index, newChildren, index + 1,
+                    children.length - index);
+            chars = newChars;
+            children = newChildren;
+            return newChildren[index];
+        }
+    }
+}
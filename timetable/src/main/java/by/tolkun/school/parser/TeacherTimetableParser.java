@@ -0,0 +1,168 @@
+package by.tolkun.school.parser;
+
+import by.tolkun.school.config.StudentTimetableConfig;
+import by.tolkun.school.config.TeacherTimetableLayout;
+import by.tolkun.school.entity.SpreadsheetTab;
+import by.tolkun.school.entity.SubjectDictionary;
+import by.tolkun.school.entity.TeacherTimetable;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Class to parse tab {@link by.tolkun.school.entity.SpreadsheetTab} with
+ * teacher timetable exported by "Paragraph" into teacher timetable
+ * {@link by.tolkun.school.entity.TeacherTimetable}. Positions of teachers
+ * and lessons are described by layout {@link TeacherTimetableLayout}.
+ */
+public class TeacherTimetableParser {
+
+    /**
+     * Parse tab of excel workbook to teacher timetable
+     * {@link TeacherTimetable} by default layout. See
+     * {@link #parse(SpreadsheetTab, TeacherTimetableLayout, SubjectDictionary,
+     * ForkJoinPool)}.
+     *
+     * @param tab the tab (sheet)
+     * @return teacher timetable
+     */
+    public static TeacherTimetable parse(SpreadsheetTab tab) {
+        return parse(tab, TeacherTimetableLayout.DEFAULT,
+                new SubjectDictionary(), null);
+    }
+
+    /**
+     * Parse tab of excel workbook to teacher timetable
+     * {@link TeacherTimetable}. See
+     * {@link #parse(SpreadsheetTab, TeacherTimetableLayout, SubjectDictionary,
+     * ForkJoinPool)}.
+     *
+     * @param tab    the tab (sheet)
+     * @param layout the layout of teacher timetable
+     * @return teacher timetable
+     */
+    public static TeacherTimetable parse(SpreadsheetTab tab,
+                                         TeacherTimetableLayout layout) {
+        return parse(tab, layout, new SubjectDictionary(), null);
+    }
+
+    /**
+     * Parse tab of excel workbook to teacher timetable
+     * {@link TeacherTimetable}. Area of timetable is read from tab once,
+     * cells of tab are not created. Columns of teachers end with the last
+     * column having non-empty name of teacher. Trimmed lessons are encoded
+     * by the dictionary, so dictionary may be shared with other timetables.
+     * If pool is given, columns of teachers are split across workers
+     * of pool; teachers are kept in order of columns either way.
+     *
+     * @param tab        the tab (sheet)
+     * @param layout     the layout of teacher timetable
+     * @param dictionary the dictionary of labels of lessons
+     * @param pool       the fork/join pool or {@code null} to parse on the
+     *                   calling thread
+     * @return teacher timetable
+     */
+    public static TeacherTimetable parse(SpreadsheetTab tab,
+                                         TeacherTimetableLayout layout,
+                                         SubjectDictionary dictionary,
+                                         ForkJoinPool pool) {
+        int firstColumnNum = layout.getNumOfFirstColumnWithTeacher();
+        TimetableGrid grid = TimetableGrid.load(tab, layout.getNumOfNameRow(),
+                layout.getQtyRows(), firstColumnNum,
+                findLastNameColumnNum(tab, layout) - firstColumnNum + 1);
+        grid.encodeLessons(dictionary, null,
+                layout.getNumOfFirstRowWithLesson());
+
+        List<short[]> labelIdsByTeachers;
+        if (pool == null) {
+            labelIdsByTeachers = new ArrayList<>(grid.getColumnCount());
+            for (int teacherNum = firstColumnNum;
+                 teacherNum < firstColumnNum + grid.getColumnCount();
+                 teacherNum++) {
+                labelIdsByTeachers.add(parseLabels(grid, layout, teacherNum));
+            }
+        } else {
+            labelIdsByTeachers = ColumnTask.parseColumns(pool,
+                    firstColumnNum, grid.getColumnCount(),
+                    teacherNum -> parseLabels(grid, layout, teacherNum));
+        }
+
+        List<String> teachers = new ArrayList<>(grid.getColumnCount());
+        short[] labelIds = new short[grid.getColumnCount()
+                * TeacherTimetable.QTY_SLOTS_PER_WEEK];
+        for (int i = 0; i < grid.getColumnCount(); i++) {
+            teachers.add(grid.getValue(layout.getNumOfNameRow(),
+                    firstColumnNum + i).trim());
+            System.arraycopy(labelIdsByTeachers.get(i), 0, labelIds,
+                    i * TeacherTimetable.QTY_SLOTS_PER_WEEK,
+                    TeacherTimetable.QTY_SLOTS_PER_WEEK);
+        }
+        return new TeacherTimetable(teachers, dictionary, labelIds);
+    }
+
+    /**
+     * Parse tab of excel workbook to teacher timetable
+     * {@link TeacherTimetable} parsing teachers concurrently in the common
+     * fork/join pool.
+     *
+     * @param tab    the tab (sheet)
+     * @param layout the layout of teacher timetable
+     * @return teacher timetable
+     */
+    public static TeacherTimetable parseInParallel(
+            SpreadsheetTab tab, TeacherTimetableLayout layout) {
+        return parse(tab, layout, new SubjectDictionary(),
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Find the number of last column having non-empty name of teacher
+     * in one pass over existing cells of row with names.
+     *
+     * @param tab    the tab (sheet)
+     * @param layout the layout of teacher timetable
+     * @return the number of last column or number of first column minus one
+     * if there are no teachers
+     */
+    private static int findLastNameColumnNum(SpreadsheetTab tab,
+                                             TeacherTimetableLayout layout) {
+        int[] lastColumnNum = {layout.getNumOfFirstColumnWithTeacher() - 1};
+        tab.forEach(new CellRangeAddress(layout.getNumOfNameRow(),
+                        layout.getNumOfNameRow(),
+                        layout.getNumOfFirstColumnWithTeacher(),
+                        SpreadsheetVersion.EXCEL2007.getLastColumnIndex()),
+                true,
+                cursor -> {
+                    if (!cursor.getValue().trim().isEmpty()) {
+                        lastColumnNum[0] = cursor.getColumnNum();
+                    }
+                });
+        return lastColumnNum[0];
+    }
+
+    /**
+     * Parse ids of labels of lessons of teacher by slots of week.
+     *
+     * @param grid       the grid of teachers with encoded lessons
+     * @param layout     the layout of teacher timetable
+     * @param teacherNum the number of column of teacher
+     * @return ids of labels by slots of week
+     */
+    private static short[] parseLabels(TimetableGrid grid,
+                                       TeacherTimetableLayout layout,
+                                       int teacherNum) {
+        short[] labelIds = new short[TeacherTimetable.QTY_SLOTS_PER_WEEK];
+        for (int dayNum = 0; dayNum < layout.getQtySchoolDays(); dayNum++) {
+            for (int lessonNum = 0; lessonNum < layout.getQtyLessonsPerDay();
+                 lessonNum++) {
+                labelIds[dayNum * StudentTimetableConfig.QTY_LESSONS_PER_DAY
+                        + lessonNum] = grid.getLessonId(
+                        layout.getRowNum(dayNum, lessonNum), teacherNum);
+            }
+        }
+        return labelIds;
+    }
+}
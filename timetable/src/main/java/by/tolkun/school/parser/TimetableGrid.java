@@ -0,0 +1,265 @@
+package by.tolkun.school.parser;
+
+import by.tolkun.school.config.StudentTimetableConfig;
+import by.tolkun.school.entity.SpreadsheetTab;
+import by.tolkun.school.entity.SubjectDictionary;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+/**
+ * Class to represent area of timetable with names of columns (classes
+ * or teachers) and lessons loaded from tab (sheet) into arrays. Values are
+ * stored by columns, so lessons of one column are read from one array.
+ * Missing cells are read as empty strings. Lessons may be encoded
+ * by dictionary of subjects.
+ */
+final class TimetableGrid {
+
+    /**
+     * The number of row with names of classes of student timetable.
+     */
+    static final int NUM_OF_CLASS_NAME_ROW
+            = StudentTimetableConfig.NUM_OF_FIRST_ROW_WITH_LESSON - 1;
+
+    /**
+     * The quantity of rows of grid of student timetable: row with names
+     * of classes and rows with lessons of all days.
+     */
+    static final int QTY_ROWS = StudentTimetableConfig
+            .NUM_OF_FIRST_ROW_WITH_LESSON - NUM_OF_CLASS_NAME_ROW
+            + StudentTimetableConfig.QTY_SCHOOL_DAYS_PER_WEEK
+            * StudentTimetableConfig.QTY_LESSONS_PER_DAY;
+
+    /**
+     * Values of cells by number of column and number of row relative
+     * to the first row and column of grid.
+     */
+    private final String[][] values;
+
+    /**
+     * The number of first row of grid.
+     */
+    private final int firstRowNum;
+
+    /**
+     * The number of first column of grid.
+     */
+    private final int firstColumnNum;
+
+    /**
+     * Dictionary of subjects of encoded lessons or {@code null} if lessons
+     * aren't encoded.
+     */
+    private SubjectDictionary dictionary;
+
+    /**
+     * The number of first row with encoded lesson.
+     */
+    private int firstLessonRowNum;
+
+    /**
+     * Ids of subjects of encoded lessons by number of column and number
+     * of row relative to the first row with lesson and first column of grid.
+     */
+    private short[][] lessonIds;
+
+    /**
+     * Constructor with parameters. Creates grid of student timetable.
+     *
+     * @param firstColumnNum the number of first column of grid
+     * @param columnCount    the quantity of columns of grid
+     */
+    TimetableGrid(int firstColumnNum, int columnCount) {
+        this(NUM_OF_CLASS_NAME_ROW, QTY_ROWS, firstColumnNum, columnCount);
+    }
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param firstRowNum    the number of first row of grid
+     * @param rowCount       the quantity of rows of grid
+     * @param firstColumnNum the number of first column of grid
+     * @param columnCount    the quantity of columns of grid
+     */
+    TimetableGrid(int firstRowNum, int rowCount, int firstColumnNum,
+                  int columnCount) {
+        this.firstRowNum = firstRowNum;
+        this.firstColumnNum = firstColumnNum;
+        this.values = new String[Math.max(columnCount, 0)][rowCount];
+    }
+
+    /**
+     * Load grid of classes of student timetable from tab in one pass over
+     * existing cells. Cells of tab are neither created nor changed. Columns
+     * of classes are bounded by count of columns of tab.
+     *
+     * @param tab the tab (sheet)
+     * @return grid of classes
+     */
+    static TimetableGrid load(SpreadsheetTab tab) {
+        int firstColumnNum
+                = StudentTimetableConfig.NUM_OF_FIRST_COLUMN_WITH_LESSON;
+        return load(tab, NUM_OF_CLASS_NAME_ROW, QTY_ROWS, firstColumnNum,
+                tab.getColumnCount() - firstColumnNum);
+    }
+
+    /**
+     * Load grid from tab in one pass over existing cells. Cells of tab are
+     * neither created nor changed.
+     *
+     * @param tab            the tab (sheet)
+     * @param firstRowNum    the number of first row of grid
+     * @param rowCount       the quantity of rows of grid
+     * @param firstColumnNum the number of first column of grid
+     * @param columnCount    the quantity of columns of grid
+     * @return grid
+     */
+    static TimetableGrid load(SpreadsheetTab tab, int firstRowNum,
+                              int rowCount, int firstColumnNum,
+                              int columnCount) {
+        TimetableGrid grid = new TimetableGrid(firstRowNum, rowCount,
+                firstColumnNum, columnCount);
+        if (grid.getColumnCount() == 0 || rowCount == 0) {
+            return grid;
+        }
+        tab.forEach(new CellRangeAddress(firstRowNum,
+                        firstRowNum + rowCount - 1,
+                        firstColumnNum,
+                        firstColumnNum + grid.getColumnCount() - 1),
+                cursor -> grid.setValue(cursor.getRowNum(),
+                        cursor.getColumnNum(), cursor.getValue()));
+        return grid;
+    }
+
+    /**
+     * Get the number of first column of grid.
+     *
+     * @return the number of first column
+     */
+    int getFirstColumnNum() {
+        return firstColumnNum;
+    }
+
+    /**
+     * Get quantity of columns of grid.
+     *
+     * @return quantity of columns
+     */
+    int getColumnCount() {
+        return values.length;
+    }
+
+    /**
+     * Get value of cell.
+     *
+     * @param rowNum    the number of row of tab
+     * @param columnNum the number of column of tab
+     * @return value of cell or empty string if cell is missing
+     */
+    String getValue(int rowNum, int columnNum) {
+        String value = values[columnNum - firstColumnNum]
+                [rowNum - firstRowNum];
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Set value of cell.
+     *
+     * @param rowNum    the number of row of tab
+     * @param columnNum the number of column of tab
+     * @param value     the value of cell
+     */
+    void setValue(int rowNum, int columnNum, String value) {
+        values[columnNum - firstColumnNum][rowNum - firstRowNum] = value;
+    }
+
+    /**
+     * Encode lessons of all columns of student timetable by dictionary
+     * of subjects. See
+     * {@link #encodeLessons(SubjectDictionary, SubjectNormalizer, int)}.
+     *
+     * @param dictionary the dictionary of subjects
+     * @param normalizer the normalizer of subjects or {@code null} to encode
+     *                   trimmed lessons
+     */
+    void encodeLessons(SubjectDictionary dictionary,
+                       SubjectNormalizer normalizer) {
+        encodeLessons(dictionary, normalizer,
+                StudentTimetableConfig.NUM_OF_FIRST_ROW_WITH_LESSON);
+    }
+
+    /**
+     * Encode lessons of all columns by dictionary of subjects. Columns are
+     * encoded in order, so subjects get the same ids for the same grid
+     * regardless of how columns are parsed later.
+     *
+     * @param dictionary        the dictionary of subjects
+     * @param normalizer        the normalizer of subjects or {@code null}
+     *                          to encode trimmed lessons
+     * @param firstLessonRowNum the number of first row with lesson
+     */
+    void encodeLessons(SubjectDictionary dictionary,
+                       SubjectNormalizer normalizer, int firstLessonRowNum) {
+        int firstLessonIndex = firstLessonRowNum - firstRowNum;
+        int lessonRowCount = values.length == 0
+                ? 0
+                : values[0].length - firstLessonIndex;
+        short[][] ids = new short[values.length][lessonRowCount];
+        for (int i = 0; i < values.length; i++) {
+            for (int j = 0; j < ids[i].length; j++) {
+                String value = values[i][firstLessonIndex + j];
+                if (value == null) {
+                    ids[i][j] = SubjectDictionary.EMPTY_ID;
+                } else {
+                    ids[i][j] = (short) dictionary.getId(normalizer == null
+                            ? value.trim()
+                            : normalizer.normalize(value));
+                }
+            }
+        }
+        this.dictionary = dictionary;
+        this.firstLessonRowNum = firstLessonRowNum;
+        this.lessonIds = ids;
+    }
+
+    /**
+     * Get dictionary of subjects of encoded lessons.
+     *
+     * @return dictionary of subjects or {@code null} if lessons aren't
+     * encoded
+     */
+    SubjectDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Get id of subject of encoded lesson.
+     *
+     * @param rowNum    the number of row of tab with lesson
+     * @param columnNum the number of column of tab
+     * @return id of subject in dictionary
+     */
+    short getLessonId(int rowNum, int columnNum) {
+        return lessonIds[columnNum - firstColumnNum]
+                [rowNum - firstLessonRowNum];
+    }
+
+    /**
+     * Count non-empty cells of column.
+     *
+     * @param columnNum   the number of column of tab
+     * @param firstRowNum the number of first row of tab
+     * @param rowCount    the quantity of rows
+     * @return quantity of non-empty cells
+     */
+    int countValues(int columnNum, int firstRowNum, int rowCount) {
+        String[] column = values[columnNum - firstColumnNum];
+        int count = 0;
+        for (int i = firstRowNum - this.firstRowNum;
+             i < firstRowNum - this.firstRowNum + rowCount; i++) {
+            if (column[i] != null && !column[i].isEmpty()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,295 @@
+package by.tolkun.school.parser;
+
+import by.tolkun.school.config.StudentTimetableConfig;
+import by.tolkun.school.entity.SpreadsheetStrings;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.util.Arrays;
+
+/**
+ * Handler of raw XML of sheet that fills area of timetable on the fly.
+ * Values of cells outside of area aren't read. Values are formatted like
+ * in tab: shared and inline strings as is with escaped characters decoded,
+ * numbers by formats of styles, booleans as {@code TRUE} or {@code FALSE};
+ * cached results are taken for formulas.
+ */
+final class TimetableSheetHandler extends DefaultHandler {
+
+    /**
+     * The number of first column of grid.
+     */
+    private static final int FIRST_COLUMN_NUM
+            = StudentTimetableConfig.NUM_OF_FIRST_COLUMN_WITH_LESSON;
+
+    /**
+     * The number of last row of grid.
+     */
+    private static final int LAST_ROW_NUM
+            = TimetableGrid.NUM_OF_CLASS_NAME_ROW + TimetableGrid.QTY_ROWS - 1;
+
+    /**
+     * Shared strings of workbook.
+     */
+    private final SharedStringsIndex sharedStrings;
+
+    /**
+     * Styles of workbook or {@code null} if workbook has no styles.
+     */
+    private final StylesTable styles;
+
+    /**
+     * Formatter of numeric values.
+     */
+    private final DataFormatter dataFormatter = new DataFormatter();
+
+    /**
+     * Values of cells by columns relative to the first column of grid.
+     */
+    private String[][] columns = new String[16][];
+
+    /**
+     * The number of last column with non-empty value or {@code -1}.
+     */
+    private int lastColumnNum = -1;
+
+    /**
+     * Text of value of current cell.
+     */
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * Start of current text element of inline string in text of value.
+     */
+    private int runStart;
+
+    /**
+     * The number of current row.
+     */
+    private int rowNum = -1;
+
+    /**
+     * The number of current column.
+     */
+    private int columnNum = -1;
+
+    /**
+     * Type of current cell.
+     */
+    private String cellType;
+
+    /**
+     * Index of style of current cell.
+     */
+    private int styleIndex;
+
+    /**
+     * Whether current cell is inside of grid.
+     */
+    private boolean inGrid;
+
+    /**
+     * Whether text of current cell is being read.
+     */
+    private boolean inText;
+
+    /**
+     * Whether inline string of current cell is being read.
+     */
+    private boolean inInlineString;
+
+    /**
+     * Whether phonetic run of inline string is being read.
+     */
+    private boolean inPhoneticRun;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param sharedStrings the shared strings of workbook
+     * @param styles        the styles of workbook or {@code null}
+     */
+    TimetableSheetHandler(SharedStringsIndex sharedStrings,
+                          StylesTable styles) {
+        this.sharedStrings = sharedStrings;
+        this.styles = styles;
+    }
+
+    /**
+     * Get grid of classes read from sheet. Columns of classes end with the
+     * last column having non-empty value inside of area of timetable.
+     *
+     * @return grid of classes
+     */
+    TimetableGrid getGrid() {
+        int columnCount = lastColumnNum - FIRST_COLUMN_NUM + 1;
+        TimetableGrid grid = new TimetableGrid(FIRST_COLUMN_NUM, columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            if (columns[i] == null) {
+                continue;
+            }
+            for (int j = 0; j < TimetableGrid.QTY_ROWS; j++) {
+                grid.setValue(TimetableGrid.NUM_OF_CLASS_NAME_ROW + j,
+                        FIRST_COLUMN_NUM + i, columns[i][j]);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void startElement(String uri, String localName, String qName,
+                             Attributes attributes) {
+        switch (localName) {
+            case "row":
+                String rowReference = attributes.getValue("r");
+                rowNum = rowReference == null
+                        ? rowNum + 1
+                        : Integer.parseInt(rowReference) - 1;
+                columnNum = -1;
+                break;
+            case "c":
+                String cellReference = attributes.getValue("r");
+                columnNum = cellReference == null
+                        ? columnNum + 1
+                        : new CellReference(cellReference).getCol();
+                cellType = attributes.getValue("t");
+                String styleReference = attributes.getValue("s");
+                styleIndex = styleReference == null
+                        ? 0
+                        : Integer.parseInt(styleReference);
+                inGrid = rowNum >= TimetableGrid.NUM_OF_CLASS_NAME_ROW
+                        && rowNum <= LAST_ROW_NUM
+                        && columnNum >= FIRST_COLUMN_NUM;
+                text.setLength(0);
+                break;
+            case "v":
+                inText = inGrid;
+                break;
+            case "is":
+                inInlineString = true;
+                break;
+            case "rPh":
+                inPhoneticRun = true;
+                break;
+            case "t":
+                inText = inGrid && inInlineString && !inPhoneticRun;
+                runStart = text.length();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        switch (localName) {
+            case "v":
+                inText = false;
+                break;
+            case "t":
+                if (inText) {
+                    // Escapes are decoded by text elements like by Poi.
+                    String run = text.substring(runStart);
+                    text.setLength(runStart);
+                    SpreadsheetStrings.appendDecoded(run, text);
+                }
+                inText = false;
+                break;
+            case "is":
+                inInlineString = false;
+                break;
+            case "rPh":
+                inPhoneticRun = false;
+                break;
+            case "c":
+                if (inGrid) {
+                    setValue(formatValue());
+                }
+                inGrid = false;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (inText) {
+            text.append(ch, start, length);
+        }
+    }
+
+    /**
+     * Format value of current cell by its type.
+     *
+     * @return formatted value
+     */
+    private String formatValue() {
+        if (text.length() == 0) {
+            return "";
+        }
+        String value = text.toString();
+        if (cellType == null || "n".equals(cellType)) {
+            return formatNumber(value);
+        }
+        switch (cellType) {
+            case "s":
+                return sharedStrings.getString(Integer.parseInt(value));
+            case "b":
+                return "0".equals(value) ? "FALSE" : "TRUE";
+            case "str":
+                return SpreadsheetStrings.decode(value);
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Format numeric value of current cell by format of its style.
+     *
+     * @param value the raw numeric value
+     * @return formatted value
+     */
+    private String formatNumber(String value) {
+        double number = Double.parseDouble(value);
+        if (styles == null || styleIndex >= styles.getNumCellStyles()) {
+            return dataFormatter.formatRawCellContents(number, 0, "General");
+        }
+        XSSFCellStyle style = styles.getStyleAt(styleIndex);
+        return dataFormatter.formatRawCellContents(number,
+                style.getDataFormat(), style.getDataFormatString());
+    }
+
+    /**
+     * Set value of current cell into column of grid.
+     *
+     * @param value the value of cell
+     */
+    private void setValue(String value) {
+        int index = columnNum - FIRST_COLUMN_NUM;
+        if (index >= columns.length) {
+            columns = Arrays.copyOf(columns,
+                    Math.max(columns.length * 2, index + 1));
+        }
+        if (columns[index] == null) {
+            columns[index] = new String[TimetableGrid.QTY_ROWS];
+        }
+        columns[index][rowNum - TimetableGrid.NUM_OF_CLASS_NAME_ROW] = value;
+        if (!value.isEmpty() && columnNum > lastColumnNum) {
+            lastColumnNum = columnNum;
+        }
+    }
+}
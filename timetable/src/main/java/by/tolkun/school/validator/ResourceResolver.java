@@ -0,0 +1,18 @@
+package by.tolkun.school.validator;
+
+/**
+ * Resolver of resource occupied by lesson, e.g. teacher or room.
+ */
+@FunctionalInterface
+public interface ResourceResolver {
+
+    /**
+     * Get resource occupied by lesson of subject in class.
+     *
+     * @param schoolClassName the name of school class
+     * @param subject         the name of subject
+     * @return name of resource or {@code null} if lesson doesn't occupy
+     * resource
+     */
+    String getResource(String schoolClassName, String subject);
+}
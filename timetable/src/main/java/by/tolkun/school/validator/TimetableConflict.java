@@ -0,0 +1,183 @@
+package by.tolkun.school.validator;
+
+import java.util.Objects;
+
+/**
+ * Class to represent conflict of two lessons of different classes occupying
+ * the same resource at the same slot.
+ */
+public final class TimetableConflict {
+
+    /**
+     * Type of conflict.
+     */
+    public enum Type {
+        /**
+         * Lessons of the same shift occupy resource at the same slot.
+         */
+        RESOURCE,
+
+        /**
+         * Lesson of the first shift and lesson of the second shift occupy
+         * resource at the same slot.
+         */
+        SHIFT_OVERLAP
+    }
+
+    /**
+     * Type of conflict.
+     */
+    private final Type type;
+
+    /**
+     * Name of resource.
+     */
+    private final String resource;
+
+    /**
+     * The number of day.
+     */
+    private final int dayNum;
+
+    /**
+     * The number of slot in day.
+     */
+    private final int slotNum;
+
+    /**
+     * Name of class that occupied resource first.
+     */
+    private final String firstSchoolClassName;
+
+    /**
+     * Name of class that occupied resource second.
+     */
+    private final String secondSchoolClassName;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param type                  the type of conflict
+     * @param resource              the name of resource
+     * @param dayNum                the number of day
+     * @param slotNum               the number of slot in day
+     * @param firstSchoolClassName  the name of class that occupied resource
+     *                              first
+     * @param secondSchoolClassName the name of class that occupied resource
+     *                              second
+     */
+    public TimetableConflict(Type type, String resource, int dayNum,
+                             int slotNum, String firstSchoolClassName,
+                             String secondSchoolClassName) {
+        this.type = type;
+        this.resource = resource;
+        this.dayNum = dayNum;
+        this.slotNum = slotNum;
+        this.firstSchoolClassName = firstSchoolClassName;
+        this.secondSchoolClassName = secondSchoolClassName;
+    }
+
+    /**
+     * Get type of conflict.
+     *
+     * @return type of conflict
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Get name of resource.
+     *
+     * @return name of resource
+     */
+    public String getResource() {
+        return resource;
+    }
+
+    /**
+     * Get number of day.
+     *
+     * @return number of day
+     */
+    public int getDayNum() {
+        return dayNum;
+    }
+
+    /**
+     * Get number of slot in day.
+     *
+     * @return number of slot
+     */
+    public int getSlotNum() {
+        return slotNum;
+    }
+
+    /**
+     * Get name of class that occupied resource first.
+     *
+     * @return name of class
+     */
+    public String getFirstSchoolClassName() {
+        return firstSchoolClassName;
+    }
+
+    /**
+     * Get name of class that occupied resource second.
+     *
+     * @return name of class
+     */
+    public String getSecondSchoolClassName() {
+        return secondSchoolClassName;
+    }
+
+    /**
+     * Compares this TimetableConflict to the specified object.
+     *
+     * @param o the object to compare this TimetableConflict against
+     * @return true if the given object is equivalent TimetableConflict,
+     * false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TimetableConflict)) return false;
+        TimetableConflict that = (TimetableConflict) o;
+        return dayNum == that.dayNum &&
+                slotNum == that.slotNum &&
+                type == that.type &&
+                resource.equals(that.resource) &&
+                Objects.equals(firstSchoolClassName,
+                        that.firstSchoolClassName) &&
+                Objects.equals(secondSchoolClassName,
+                        that.secondSchoolClassName);
+    }
+
+    /**
+     * Returns a hash code for this TimetableConflict.
+     *
+     * @return a hash code value for this object
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, resource, dayNum, slotNum,
+                firstSchoolClassName, secondSchoolClassName);
+    }
+
+    /**
+     * Returns the string representation of the TimetableConflict.
+     *
+     * @return the string representation of the TimetableConflict
+     */
+    @Override
+    public String toString() {
+        return "TimetableConflict{" +
+                "type=" + type +
+                ", resource='" + resource + '\'' +
+                ", dayNum=" + dayNum +
+                ", slotNum=" + slotNum +
+                ", firstSchoolClassName='" + firstSchoolClassName + '\'' +
+                ", secondSchoolClassName='" + secondSchoolClassName + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,315 @@
+package by.tolkun.school.validator;
+
+import by.tolkun.school.config.StudentTimetableConfig;
+import by.tolkun.school.entity.SchoolClass;
+import by.tolkun.school.entity.SchoolDay;
+import by.tolkun.school.entity.StudentTimetable;
+import by.tolkun.school.entity.SubjectDictionary;
+import by.tolkun.school.entity.TeacherAssignment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class to find conflicts of student timetable: lessons of different classes
+ * occupying the same resource (teacher, room) at the same slot. Occupancy
+ * of every resource per day is kept as bitmask over slots of day, slot
+ * of lesson is its number in day counted from the first lesson of the
+ * first shift, so late lessons of the first shift and early lessons of the
+ * second shift share slots. Lessons marked with
+ * {@value SchoolDay#PRE_SHIFT_MARK} cross shifts; they are placed at slots
+ * of the first shift and mark is dropped when resource of lesson is
+ * resolved, see {@link SchoolDay#getLessonSlots()}.
+ */
+public final class TimetableConflictDetector {
+
+    /**
+     * Mark of resource of subject that isn't resolved yet.
+     */
+    private static final int UNRESOLVED = -2;
+
+    /**
+     * Mark of subject without resource.
+     */
+    private static final int NO_RESOURCE = -1;
+
+    /**
+     * The quantity of days checked.
+     */
+    private static final int QTY_DAYS
+            = StudentTimetableConfig.QTY_SCHOOL_DAYS_PER_WEEK;
+
+    /**
+     * The quantity of slots per day.
+     */
+    private static final int QTY_SLOTS
+            = StudentTimetableConfig.QTY_LESSONS_PER_DAY;
+
+    /**
+     * Resolvers of resources of lessons.
+     */
+    private final ResourceResolver[] resolvers;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param resolvers the resolvers of resources of lessons, e.g. teachers
+     *                  and rooms
+     */
+    public TimetableConflictDetector(ResourceResolver... resolvers) {
+        this.resolvers = resolvers.clone();
+    }
+
+    /**
+     * Create detector of conflicts of teachers.
+     *
+     * @param assignment the assignment of teachers
+     * @return detector of conflicts
+     */
+    public static TimetableConflictDetector forTeachers(
+            TeacherAssignment assignment) {
+        return new TimetableConflictDetector(assignment::getTeacher);
+    }
+
+    /**
+     * Find conflicts in one pass over lessons of timetable. Resource
+     * of every distinct subject of class in dictionary of timetable is
+     * resolved once, dictionary isn't changed. Lesson collides with resource
+     * of day if bitwise AND of their masks is non-zero. Every lesson that
+     * collides is reported once against the class that occupied the slot
+     * first.
+     *
+     * @param timetable the student timetable
+     * @return list of conflicts in order of classes, days and slots
+     */
+    public List<TimetableConflict> detect(StudentTimetable timetable) {
+        List<TimetableConflict> conflicts = new ArrayList<>();
+        Occupancy occupancy = new Occupancy(resolvers.length);
+        SubjectDictionary subjects = timetable.getSubjectDictionary();
+        List<SchoolClass> schoolClasses = timetable.getSchoolClasses();
+        int[][] resourceNums = new int[resolvers.length][];
+
+        for (int classNum = 0; classNum < schoolClasses.size(); classNum++) {
+            SchoolClass schoolClass = schoolClasses.get(classNum);
+            for (int i = 0; i < resolvers.length; i++) {
+                resourceNums[i] = new int[subjects.size()];
+                Arrays.fill(resourceNums[i], UNRESOLVED);
+            }
+            List<SchoolDay> week = schoolClass.getWeek();
+            for (int dayNum = 0; dayNum < week.size() && dayNum < QTY_DAYS;
+                 dayNum++) {
+                SchoolDay schoolDay = week.get(dayNum);
+                boolean secondShift = schoolDay.getShift() == 2;
+                int[] slots = schoolDay.getLessonSlots();
+                for (int lessonNum = 0; lessonNum < slots.length;
+                     lessonNum++) {
+                    int slotNum = slots[lessonNum];
+                    if (slotNum < 0) {
+                        continue;
+                    }
+                    int subjectId = schoolDay.isEncoded()
+                            && schoolDay.getDictionary() == subjects
+                            ? schoolDay.getLessonId(lessonNum)
+                            : subjects.findId(schoolDay.getLesson(lessonNum));
+                    if (subjectId == SubjectDictionary.EMPTY_ID) {
+                        continue;
+                    }
+                    boolean marked = schoolDay.isPreShiftLesson(lessonNum);
+                    for (int i = 0; i < resolvers.length; i++) {
+                        int resourceNum;
+                        if (subjectId < 0) {
+                            // Subject missing in dictionary is resolved
+                            // by name every time.
+                            resourceNum = occupancy.getResourceNum(i,
+                                    resolvers[i].getResource(
+                                            schoolClass.getName(),
+                                            SchoolDay.getSubject(schoolDay
+                                                    .getLesson(lessonNum))));
+                        } else {
+                            if (subjectId >= resourceNums[i].length) {
+                                int length = resourceNums[i].length;
+                                resourceNums[i] = Arrays.copyOf(
+                                        resourceNums[i], subjects.size());
+                                Arrays.fill(resourceNums[i], length,
+                                        resourceNums[i].length, UNRESOLVED);
+                            }
+                            if (resourceNums[i][subjectId] == UNRESOLVED) {
+                                String resource = resolvers[i].getResource(
+                                        schoolClass.getName(),
+                                        SchoolDay.getSubject(subjects
+                                                .getSubject(subjectId)));
+                                resourceNums[i][subjectId] = occupancy
+                                        .getResourceNum(i, resource);
+                            }
+                            resourceNum = resourceNums[i][subjectId];
+                        }
+                        if (resourceNum == NO_RESOURCE) {
+                            continue;
+                        }
+                        TimetableConflict.Type type = occupancy.occupy(
+                                resourceNum, dayNum, slotNum, classNum,
+                                secondShift, marked);
+                        if (type != null) {
+                            conflicts.add(new TimetableConflict(type,
+                                    occupancy.getResource(resourceNum),
+                                    dayNum, slotNum,
+                                    schoolClasses.get(occupancy.getOwner(
+                                            resourceNum, dayNum, slotNum))
+                                            .getName(),
+                                    schoolClass.getName()));
+                        }
+                    }
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Occupancy of resources by days and slots.
+     */
+    private static final class Occupancy {
+
+        /**
+         * Numbers of resources by names by number of resolver, so resources
+         * of different resolvers with the same name don't collide.
+         */
+        private final List<Map<String, Integer>> resourceNums;
+
+        /**
+         * Names of resources by numbers.
+         */
+        private final List<String> resources = new ArrayList<>();
+
+        /**
+         * Masks of slots occupied by lessons of the first shift by number
+         * of resource and day.
+         */
+        private long[] firstShiftMasks = new long[QTY_DAYS * 16];
+
+        /**
+         * Masks of slots occupied by lessons of the second shift by number
+         * of resource and day.
+         */
+        private long[] secondShiftMasks = new long[QTY_DAYS * 16];
+
+        /**
+         * Masks of slots occupied by lessons crossing shifts by number
+         * of resource and day.
+         */
+        private long[] markedMasks = new long[QTY_DAYS * 16];
+
+        /**
+         * Numbers of classes that occupied slots first by number
+         * of resource, day and slot.
+         */
+        private int[] owners = new int[QTY_DAYS * QTY_SLOTS * 16];
+
+        /**
+         * Constructor with parameters.
+         *
+         * @param qtyResolvers the quantity of resolvers of resources
+         */
+        private Occupancy(int qtyResolvers) {
+            resourceNums = new ArrayList<>(qtyResolvers);
+            for (int i = 0; i < qtyResolvers; i++) {
+                resourceNums.add(new HashMap<>());
+            }
+        }
+
+        /**
+         * Get number of resource of resolver adding resource if it's
+         * missing.
+         *
+         * @param resolverNum the number of resolver
+         * @param resource    the name of resource or {@code null}
+         * @return number of resource or {@link #NO_RESOURCE}
+         */
+        private int getResourceNum(int resolverNum, String resource) {
+            if (resource == null) {
+                return NO_RESOURCE;
+            }
+            Map<String, Integer> nums = resourceNums.get(resolverNum);
+            Integer resourceNum = nums.get(resource);
+            if (resourceNum != null) {
+                return resourceNum;
+            }
+            resourceNum = resources.size();
+            nums.put(resource, resourceNum);
+            resources.add(resource);
+            if ((resourceNum + 1) * QTY_DAYS > firstShiftMasks.length) {
+                int length = firstShiftMasks.length * 2;
+                firstShiftMasks = Arrays.copyOf(firstShiftMasks, length);
+                secondShiftMasks = Arrays.copyOf(secondShiftMasks, length);
+                markedMasks = Arrays.copyOf(markedMasks, length);
+                owners = Arrays.copyOf(owners, length * QTY_SLOTS);
+            }
+            return resourceNum;
+        }
+
+        /**
+         * Get name of resource.
+         *
+         * @param resourceNum the number of resource
+         * @return name of resource
+         */
+        private String getResource(int resourceNum) {
+            return resources.get(resourceNum);
+        }
+
+        /**
+         * Get number of class that occupied slot first.
+         *
+         * @param resourceNum the number of resource
+         * @param dayNum      the number of day
+         * @param slotNum     the number of slot
+         * @return number of class
+         */
+        private int getOwner(int resourceNum, int dayNum, int slotNum) {
+            return owners[(resourceNum * QTY_DAYS + dayNum) * QTY_SLOTS
+                    + slotNum];
+        }
+
+        /**
+         * Occupy slot of resource by lesson.
+         *
+         * @param resourceNum the number of resource
+         * @param dayNum      the number of day
+         * @param slotNum     the number of slot
+         * @param classNum    the number of class
+         * @param secondShift whether lesson is at the second shift
+         * @param marked      whether lesson crosses shifts
+         * @return type of conflict or {@code null} if slot was free
+         */
+        private TimetableConflict.Type occupy(int resourceNum, int dayNum,
+                                              int slotNum, int classNum,
+                                              boolean secondShift,
+                                              boolean marked) {
+            int index = resourceNum * QTY_DAYS + dayNum;
+            long slot = 1L << slotNum;
+            long occupied = firstShiftMasks[index] | secondShiftMasks[index];
+            if ((occupied & slot) != 0) {
+                boolean otherShift = ((secondShift
+                        ? firstShiftMasks[index]
+                        : secondShiftMasks[index]) & slot) != 0;
+                return otherShift || marked
+                        || (markedMasks[index] & slot) != 0
+                        ? TimetableConflict.Type.SHIFT_OVERLAP
+                        : TimetableConflict.Type.RESOURCE;
+            }
+            if (secondShift) {
+                secondShiftMasks[index] |= slot;
+            } else {
+                firstShiftMasks[index] |= slot;
+            }
+            if (marked) {
+                markedMasks[index] |= slot;
+            }
+            owners[index * QTY_SLOTS + slotNum] = classNum;
+            return null;
+        }
+    }
+}
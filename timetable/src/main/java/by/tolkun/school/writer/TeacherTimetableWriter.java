@@ -0,0 +1,88 @@
+package by.tolkun.school.writer;
+
+import by.tolkun.school.config.StudentTimetableConfig;
+import by.tolkun.school.entity.SpreadsheetCellStyle;
+import by.tolkun.school.entity.SpreadsheetTab;
+import by.tolkun.school.entity.SpreadsheetWriteReport;
+import by.tolkun.school.entity.SubjectDictionary;
+import by.tolkun.school.entity.TeacherTimetable;
+
+/**
+ * Class to write teacher timetable {@link TeacherTimetable} into tab
+ * {@link SpreadsheetTab}. Teachers are written by rows, slots of week
+ * by columns: the first row has names of days, the second row has numbers
+ * of lessons, the first column has names of teachers.
+ */
+public final class TeacherTimetableWriter {
+
+    /**
+     * The number of first row with teacher.
+     */
+    public static final int NUM_OF_FIRST_ROW_WITH_TEACHER = 2;
+
+    /**
+     * The number of first column with lesson.
+     */
+    public static final int NUM_OF_FIRST_COLUMN_WITH_LESSON = 1;
+
+    /**
+     * Constructor without parameters.
+     */
+    private TeacherTimetableWriter() {
+    }
+
+    /**
+     * Write teacher timetable into tab starting from the first cell. All
+     * values are written by one batch write, slots without lessons are left
+     * empty.
+     *
+     * @param timetable the teacher timetable
+     * @param tab       the tab (sheet)
+     * @param style     the style of cells or {@code null} to keep styles
+     * @return report of write
+     */
+    public static SpreadsheetWriteReport write(TeacherTimetable timetable,
+                                               SpreadsheetTab tab,
+                                               SpreadsheetCellStyle style) {
+        int teacherCount = timetable.getTeachers().size();
+        Object[][] values = new Object[NUM_OF_FIRST_ROW_WITH_TEACHER
+                + teacherCount][NUM_OF_FIRST_COLUMN_WITH_LESSON
+                + TeacherTimetable.QTY_SLOTS_PER_WEEK];
+
+        for (int dayNum = 0;
+             dayNum < StudentTimetableConfig.QTY_SCHOOL_DAYS_PER_WEEK;
+             dayNum++) {
+            int firstColumn = NUM_OF_FIRST_COLUMN_WITH_LESSON
+                    + dayNum * StudentTimetableConfig.QTY_LESSONS_PER_DAY;
+            values[0][firstColumn]
+                    = StudentTimetableConfig.WEEK_DAYS.get(dayNum);
+            for (int slotNum = 0;
+                 slotNum < StudentTimetableConfig.QTY_LESSONS_PER_DAY;
+                 slotNum++) {
+                values[1][firstColumn + slotNum] = slotNum + 1;
+            }
+        }
+
+        SubjectDictionary labels = timetable.getLabelDictionary();
+        for (int teacherNum = 0; teacherNum < teacherCount; teacherNum++) {
+            Object[] row = values[NUM_OF_FIRST_ROW_WITH_TEACHER + teacherNum];
+            row[0] = timetable.getTeachers().get(teacherNum);
+            for (int dayNum = 0;
+                 dayNum < StudentTimetableConfig.QTY_SCHOOL_DAYS_PER_WEEK;
+                 dayNum++) {
+                for (int slotNum = 0;
+                     slotNum < StudentTimetableConfig.QTY_LESSONS_PER_DAY;
+                     slotNum++) {
+                    int labelId = timetable.getLabelId(teacherNum, dayNum,
+                            slotNum);
+                    if (labelId != SubjectDictionary.EMPTY_ID) {
+                        row[NUM_OF_FIRST_COLUMN_WITH_LESSON + dayNum
+                                * StudentTimetableConfig.QTY_LESSONS_PER_DAY
+                                + slotNum] = labels.getSubject(labelId);
+                    }
+                }
+            }
+        }
+        return tab.setValues(0, 0, values, style);
+    }
+}
@@ -0,0 +1,102 @@
+package by.tolkun.school.builder;
+
+import by.tolkun.school.entity.SchoolClass;
+import by.tolkun.school.entity.SchoolDay;
+import by.tolkun.school.entity.StudentTimetable;
+import by.tolkun.school.entity.SubjectDictionary;
+import by.tolkun.school.entity.TeacherAssignment;
+import by.tolkun.school.entity.TeacherTimetable;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of building of teacher timetable from student timetable.
+ */
+public class TeacherTimetableBuilderTest {
+
+    private TeacherAssignment assignment;
+
+    private static SchoolDay day(int shift, String... lessons) {
+        return new SchoolDay(new ArrayList<>(Arrays.asList(lessons)), shift);
+    }
+
+    private static SchoolClass schoolClass(String name, SchoolDay... days) {
+        List<SchoolDay> week = new ArrayList<>(Arrays.asList(days));
+        while (week.size() < 5) {
+            week.add(day(1));
+        }
+        return new SchoolClass(name, week);
+    }
+
+    @Before
+    public void setUp() {
+        assignment = new TeacherAssignment();
+        assignment.assign("5А", "математика", "Иванова");
+        assignment.assign("5А", "информатика", "Петров");
+        assignment.assign("6Б", "математика", "Иванова");
+        assignment.assign("6Б", "труд", "Петров");
+    }
+
+    @Test
+    public void lessonsArePlacedAtSlotsOfShifts() {
+        TeacherTimetable teacherTimetable = TeacherTimetableBuilder.build(
+                new StudentTimetable(Arrays.asList(
+                        schoolClass("5А", day(1, "математика", ""),
+                                day(2, "", "математика")),
+                        schoolClass("6Б", day(1, "", "математика")))),
+                assignment);
+
+        int teacherNum = assignment.getTeacherNum("Иванова");
+        assertEquals("5А", teacherTimetable.getLabel(teacherNum, 0, 0));
+        assertEquals("6Б", teacherTimetable.getLabel(teacherNum, 0, 1));
+        assertEquals("5А", teacherTimetable.getLabel(teacherNum, 1, 7));
+        assertEquals(3, teacherTimetable.getQtyLessons(teacherNum));
+    }
+
+    @Test
+    public void dictionaryOfTimetableIsNotChanged() {
+        SubjectDictionary dictionary = new SubjectDictionary();
+        short[] lessonIds = {(short) dictionary.getId("математика")};
+        StudentTimetable timetable = new StudentTimetable(Arrays.asList(
+                schoolClass("5А", new SchoolDay(dictionary, lessonIds, 1),
+                        day(1, "информатика")),
+                schoolClass("6Б", day(1, "история", "математика"))),
+                dictionary);
+
+        TeacherTimetable teacherTimetable
+                = TeacherTimetableBuilder.build(timetable, assignment);
+
+        assertEquals(2, dictionary.size());
+        int teacherNum = assignment.getTeacherNum("Иванова");
+        assertEquals("5А", teacherTimetable.getLabel(teacherNum, 0, 0));
+        assertEquals("6Б", teacherTimetable.getLabel(teacherNum, 0, 1));
+        assertEquals("5А", teacherTimetable.getLabel(
+                assignment.getTeacherNum("Петров"), 1, 0));
+    }
+
+    @Test
+    public void preShiftLessonsAreLookedUpWithoutMark() {
+        TeacherTimetable teacherTimetable = TeacherTimetableBuilder.build(
+                new StudentTimetable(Arrays.asList(
+                        schoolClass("5А", day(2, "математика",
+                                "!информатика")),
+                        schoolClass("6Б", day(2, "", "", "!информатика",
+                                "! труд")))),
+                assignment);
+
+        int teacherNum = assignment.getTeacherNum("Петров");
+        // The k-th marked lesson takes the k-th slot from the end of
+        // the first shift.
+        assertEquals("5А", teacherTimetable.getLabel(teacherNum, 0, 5));
+        assertEquals("6Б", teacherTimetable.getLabel(teacherNum, 0, 4));
+        assertEquals(2, teacherTimetable.getQtyLessons(teacherNum));
+        assertEquals("5А", teacherTimetable.getLabel(
+                assignment.getTeacherNum("Иванова"), 0, 6));
+    }
+}
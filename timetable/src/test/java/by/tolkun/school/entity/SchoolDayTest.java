@@ -0,0 +1,97 @@
+package by.tolkun.school.entity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of school day with lessons encoded as ids of subjects.
+ */
+public class SchoolDayTest {
+
+    private SubjectDictionary dictionary;
+    private short[] lessonIds;
+
+    @Before
+    public void setUp() {
+        dictionary = new SubjectDictionary();
+        lessonIds = new short[]{
+                (short) dictionary.getId("математика"),
+                (short) dictionary.getId("физика"),
+                SubjectDictionary.EMPTY_ID
+        };
+    }
+
+    @Test
+    public void lessonsAreDecodedOnAccess() {
+        SchoolDay day = new SchoolDay(dictionary, lessonIds, 1);
+
+        assertTrue(day.isEncoded());
+        assertSame(dictionary, day.getDictionary());
+        assertEquals(3, day.getLessonCount());
+        assertEquals(Arrays.asList("математика", "физика", ""),
+                day.getLessons());
+        assertEquals(2, day.getLessonId(1));
+    }
+
+    @Test
+    public void replacedLessonIsAddedToDictionary() {
+        SchoolDay day = new SchoolDay(dictionary, lessonIds, 1);
+
+        assertEquals("", day.getLessons().set(2, "химия"));
+
+        assertEquals("химия", day.getLesson(2));
+        assertEquals(dictionary.findId("химия"), day.getLessonId(2));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void plainLessonsHaveNoIds() {
+        SchoolDay day = new SchoolDay(dictionary, lessonIds, 1);
+        day.setLessons(new ArrayList<>(Arrays.asList("история")));
+
+        assertFalse(day.isEncoded());
+        day.getLessonId(0);
+    }
+
+    @Test
+    public void encodedAndPlainDaysAreEqual() {
+        SchoolDay encoded = new SchoolDay(dictionary, lessonIds, 2);
+        SchoolDay plain = new SchoolDay(
+                Arrays.asList("математика", "физика", ""), 2);
+
+        assertEquals(plain, encoded);
+        assertEquals(encoded, plain);
+        assertEquals(plain.hashCode(), encoded.hashCode());
+        assertEquals(encoded, new SchoolDay(dictionary, lessonIds.clone(), 2));
+        assertFalse(encoded.equals(new SchoolDay(dictionary, lessonIds, 1)));
+    }
+
+    @Test
+    public void preShiftLessonsTakeLastSlotsOfFirstShift() {
+        SchoolDay day = new SchoolDay(Arrays.asList("физика", "химия",
+                "!информатика", "! труд"), 2);
+
+        assertEquals("[6, 7, 5, 4]", Arrays.toString(day.getLessonSlots()));
+        assertTrue(day.isPreShiftLesson(3));
+        assertEquals("труд", SchoolDay.getSubject(day.getLesson(3)));
+        assertEquals("физика", SchoolDay.getSubject(day.getLesson(0)));
+    }
+
+    @Test
+    public void slotsOutOfDayAreSkipped() {
+        SchoolDay day = new SchoolDay(Arrays.asList("1", "2", "3", "4", "5",
+                "6", "7"), 2);
+
+        assertEquals("[6, 7, 8, 9, 10, 11, -1]",
+                Arrays.toString(day.getLessonSlots()));
+        assertEquals("[0, 1]", Arrays.toString(new SchoolDay(
+                Arrays.asList("1", "!2"), 1).getLessonSlots()));
+    }
+}
@@ -0,0 +1,131 @@
+package by.tolkun.school.entity;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of dictionary of subjects.
+ */
+public class SubjectDictionaryTest {
+
+    @Test
+    public void emptyLessonHasReservedId() {
+        SubjectDictionary dictionary = new SubjectDictionary();
+
+        assertEquals(1, dictionary.size());
+        assertEquals(SubjectDictionary.EMPTY_ID, dictionary.getId(""));
+        assertEquals("", dictionary.getSubject(SubjectDictionary.EMPTY_ID));
+    }
+
+    @Test
+    public void idsAreAssignedInOrderOfAdding() {
+        SubjectDictionary dictionary = new SubjectDictionary();
+
+        assertEquals(1, dictionary.getId("математика"));
+        assertEquals(2, dictionary.getId("физика"));
+        assertEquals(1, dictionary.getId("математика"));
+        assertEquals("физика", dictionary.getSubject(2));
+        assertEquals(3, dictionary.size());
+    }
+
+    @Test
+    public void findingDoesNotAddSubject() {
+        SubjectDictionary dictionary = new SubjectDictionary();
+        dictionary.getId("химия");
+
+        assertEquals(1, dictionary.findId("химия"));
+        assertEquals(-1, dictionary.findId("биология"));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void missingIdIsRejected() {
+        new SubjectDictionary().getSubject(1);
+    }
+
+    @Test
+    public void dictionaryGrowsBeyondInitialCapacity() {
+        SubjectDictionary dictionary = new SubjectDictionary();
+        for (int i = 1; i < 100; i++) {
+            assertEquals(i, dictionary.getId("Subject " + i));
+        }
+        for (int i = 1; i < 100; i++) {
+            assertEquals("Subject " + i, dictionary.getSubject(i));
+        }
+    }
+
+    @Test
+    public void concurrentAddingGivesOneIdPerSubject() throws Exception {
+        SubjectDictionary dictionary = new SubjectDictionary();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<int[]>> tasks = new ArrayList<>();
+            for (int task = 0; task < 4; task++) {
+                tasks.add(() -> {
+                    int[] ids = new int[200];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = dictionary.getId("Subject " + i);
+                    }
+                    return ids;
+                });
+            }
+            List<Future<int[]>> futures = executor.invokeAll(tasks);
+            int[] expected = futures.get(0).get();
+            for (Future<int[]> future : futures) {
+                int[] ids = future.get();
+                for (int i = 0; i < ids.length; i++) {
+                    assertEquals(expected[i], ids[i]);
+                    assertEquals("Subject " + i,
+                            dictionary.getSubject(ids[i]));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(201, dictionary.size());
+    }
+
+    @Test
+    public void idFoundByReaderIsResolved() throws Exception {
+        SubjectDictionary dictionary = new SubjectDictionary();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            tasks.add(() -> {
+                for (int i = 0; i < 20000; i++) {
+                    dictionary.getId("Subject " + i);
+                }
+                return 0;
+            });
+            for (int task = 0; task < 3; task++) {
+                tasks.add(() -> {
+                    int resolved = 0;
+                    for (int i = 0; i < 20000; i++) {
+                        // Subject may be just added by the writer.
+                        int id = dictionary.findId("Subject " + i);
+                        if (id >= 0) {
+                            assertEquals("Subject " + i,
+                                    dictionary.getSubject(id));
+                            resolved++;
+                        }
+                    }
+                    return resolved;
+                });
+            }
+            for (Future<Integer> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(20001, dictionary.size());
+    }
+}
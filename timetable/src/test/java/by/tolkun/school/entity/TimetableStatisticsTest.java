@@ -0,0 +1,138 @@
+package by.tolkun.school.entity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of statistics of student timetable and their invalidation.
+ */
+public class TimetableStatisticsTest {
+
+    private SubjectDictionary dictionary;
+    private StudentTimetable timetable;
+
+    private static SchoolClass schoolClass(String name, SchoolDay... days) {
+        List<SchoolDay> week = new ArrayList<>(Arrays.asList(days));
+        while (week.size() < 5) {
+            week.add(new SchoolDay(new ArrayList<>(), 1));
+        }
+        return new SchoolClass(name, week);
+    }
+
+    @Before
+    public void setUp() {
+        dictionary = new SubjectDictionary();
+        short mathId = (short) dictionary.getId("математика");
+        timetable = new StudentTimetable(Arrays.asList(
+                schoolClass("5А", new SchoolDay(dictionary, new short[]{
+                        mathId, mathId, SubjectDictionary.EMPTY_ID}, 1)),
+                schoolClass("6Б", new SchoolDay(new ArrayList<>(
+                        Arrays.asList("физика", "математика")), 2))),
+                dictionary);
+    }
+
+    @Test
+    public void statisticsAreComputedInOnePass() {
+        TimetableStatistics statistics = timetable.getStatistics();
+
+        assertEquals(3, statistics.getMaxLessonsPerDay(0));
+        assertEquals(2, statistics.getMinLessonsPerDay(0));
+        assertEquals(2, statistics.getLessonsPerShift(1, 0));
+        assertEquals(2, statistics.getLessonsPerShift(2, 0));
+        assertEquals(4, statistics.getQtyLessonsPerWeek());
+        assertEquals(2, statistics.getSubjectCount(0, "математика"));
+        assertEquals(1, statistics.getSubjectCount(1, "математика"));
+        assertEquals(0, statistics.getSubjectCount(0, ""));
+    }
+
+    @Test
+    public void dictionaryIsNotChanged() {
+        TimetableStatistics statistics = timetable.getStatistics();
+
+        assertEquals(2, dictionary.size());
+        assertEquals(-1, dictionary.findId("физика"));
+        assertEquals(1, statistics.getSubjectCount(1, "физика"));
+        assertEquals(0, statistics.getSubjectCount(0, "физика"));
+        // Subject added to dictionary later is still counted.
+        assertEquals(1, statistics.getSubjectCount(1,
+                dictionary.getId("физика")));
+    }
+
+    @Test
+    public void statisticsAreCached() {
+        TimetableStatistics statistics = timetable.getStatistics();
+
+        assertSame(statistics, timetable.getStatistics());
+        assertEquals(3, timetable.getQtyMaxLessonsPerDay(0));
+        assertSame(statistics, timetable.getStatistics());
+    }
+
+    @Test
+    public void changeOfEncodedLessonInvalidatesStatistics() {
+        TimetableStatistics statistics = timetable.getStatistics();
+        timetable.getSchoolClass(0).getSchoolDay(0).getLessons()
+                .set(2, "история");
+
+        assertNotSame(statistics, timetable.getStatistics());
+        assertEquals(1, timetable.getStatistics()
+                .getSubjectCount(0, "история"));
+        assertEquals(5, timetable.getStatistics().getQtyLessonsPerWeek());
+    }
+
+    @Test
+    public void addedLessonsInvalidateStatistics() {
+        assertEquals(3, timetable.getQtyMaxLessonsPerDay(0));
+
+        timetable.getSchoolClass(1).getSchoolDay(0).getLessons()
+                .addAll(Arrays.asList("химия", "история"));
+
+        assertEquals(4, timetable.getQtyMaxLessonsPerDay(0));
+        assertEquals(4, timetable.getStatistics().getMaxLessonsPerDay(0));
+    }
+
+    @Test
+    public void changesOfDaysAndClassesInvalidateStatistics() {
+        SchoolDay schoolDay = timetable.getSchoolClass(1).getSchoolDay(0);
+        assertEquals(2, timetable.getStatistics().getLessonsPerShift(2, 0));
+
+        schoolDay.setShift(1);
+        assertEquals(0, timetable.getStatistics().getLessonsPerShift(2, 0));
+
+        schoolDay.setLessons(new ArrayList<>(Arrays.asList("музыка")));
+        assertEquals(3, timetable.getStatistics().getQtyLessonsPerWeek());
+
+        timetable.getSchoolClass(1).setWeek(new ArrayList<>());
+        assertEquals(2, timetable.getStatistics().getQtyLessonsPerWeek());
+    }
+
+    @Test
+    public void inPlaceChangeOfWeekNeedsInvalidation() {
+        TimetableStatistics statistics = timetable.getStatistics();
+        timetable.getSchoolClass(1).getWeek().remove(0);
+
+        assertSame(statistics, timetable.getStatistics());
+
+        timetable.invalidateStatistics();
+
+        assertEquals(2, timetable.getStatistics().getQtyLessonsPerWeek());
+    }
+
+    @Test
+    public void replacedClassesInvalidateStatistics() {
+        TimetableStatistics statistics = timetable.getStatistics();
+
+        timetable.setSchoolClasses(new ArrayList<>());
+
+        assertNotSame(statistics, timetable.getStatistics());
+        assertEquals(-1, timetable.getStatistics().getMaxLessonsPerDay(0));
+        assertEquals(-1, timetable.getQtyMaxLessonsPerDay(0));
+    }
+}
@@ -0,0 +1,139 @@
+package by.tolkun.school.index;
+
+import by.tolkun.school.entity.SchoolClass;
+import by.tolkun.school.entity.SchoolDay;
+import by.tolkun.school.entity.StudentTimetable;
+import by.tolkun.school.entity.SubjectDictionary;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of inverted index of student timetable.
+ */
+public class TimetableIndexTest {
+
+    private StudentTimetable timetable;
+    private TimetableIndex index;
+
+    static SchoolDay day(int shift, String... lessons) {
+        return new SchoolDay(new ArrayList<>(Arrays.asList(lessons)), shift);
+    }
+
+    static SchoolClass schoolClass(String name, SchoolDay... days) {
+        List<SchoolDay> week = new ArrayList<>(Arrays.asList(days));
+        while (week.size() < 5) {
+            week.add(day(1));
+        }
+        return new SchoolClass(name, week);
+    }
+
+    private static BitSet classes(int... classNums) {
+        BitSet classes = new BitSet();
+        for (int classNum : classNums) {
+            classes.set(classNum);
+        }
+        return classes;
+    }
+
+    @Before
+    public void setUp() {
+        timetable = new StudentTimetable(Arrays.asList(
+                schoolClass("5А",
+                        day(1, "математика", "физика"),
+                        day(2, "химия")),
+                schoolClass("6Б",
+                        day(1, "физика", "математика"),
+                        day(2, "химия", "математика")),
+                schoolClass("7В",
+                        day(2, "", "математика"))));
+        index = new TimetableIndex(timetable);
+    }
+
+    @Test
+    public void classesAreFoundBySlot() {
+        assertEquals(classes(0), index.getClasses("математика", 0, 0));
+        assertEquals(classes(1), index.getClasses("математика", 0, 1));
+        assertEquals(classes(2), index.getClasses("математика", 0, 7));
+        assertEquals(classes(0, 1), index.getClasses("химия", 1, 6));
+        assertEquals(classes(), index.getClasses("химия", 1, 0));
+    }
+
+    @Test
+    public void classesAreFoundByDayAndWeek() {
+        assertEquals(classes(0, 1), index.getClasses("физика", 0));
+        assertEquals(classes(1), index.getClasses("математика", 1));
+        assertEquals(classes(0, 1, 2), index.getClasses("математика"));
+    }
+
+    @Test
+    public void setsAreCombined() {
+        BitSet physics = index.getClasses("физика", 0, 1);
+        BitSet maths = index.getClasses("математика", 0, 1);
+
+        assertEquals(classes(), TimetableIndex.and(physics, maths));
+        assertEquals(classes(0, 1), TimetableIndex.or(physics, maths));
+        assertEquals(classes(1), TimetableIndex.and(
+                index.getClasses("химия"), index.getClasses("математика", 1)));
+        assertEquals(classes(0), physics);
+    }
+
+    @Test
+    public void missingSubjectIsNotAdded() {
+        int size = timetable.getSubjectDictionary().size();
+
+        assertEquals(classes(), index.getClasses("биология", 0, 0));
+        assertEquals(classes(), index.getClasses("биология"));
+        assertEquals(size, timetable.getSubjectDictionary().size());
+    }
+
+    @Test
+    public void dictionaryIsNotChangedByIndex() {
+        assertEquals(1, timetable.getSubjectDictionary().size());
+        assertEquals(classes(0, 1, 2), index.getClasses("математика"));
+    }
+
+    @Test
+    public void preShiftLessonsAreFoundBySubjectWithoutMark() {
+        SubjectDictionary dictionary = new SubjectDictionary();
+        short[] lessonIds = {(short) dictionary.getId("физика"),
+                (short) dictionary.getId("!математика")};
+        TimetableIndex preShiftIndex = new TimetableIndex(new StudentTimetable(
+                Arrays.asList(
+                        schoolClass("5А", day(2, "история", "!математика")),
+                        schoolClass("6Б", new SchoolDay(dictionary,
+                                lessonIds, 2))),
+                dictionary));
+
+        assertEquals(classes(0, 1),
+                preShiftIndex.getClasses("математика", 0, 5));
+        assertEquals(classes(), preShiftIndex.getClasses("!математика"));
+        assertEquals(classes(0), preShiftIndex.getClasses("история", 0, 6));
+    }
+
+    @Test
+    public void classesAreListedInOrderOfNumbers() {
+        List<SchoolClass> schoolClasses
+                = index.getSchoolClasses(index.getClasses("математика"));
+
+        assertEquals(3, schoolClasses.size());
+        assertEquals("5А", schoolClasses.get(0).getName());
+        assertEquals("7В", schoolClasses.get(2).getName());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void dayOutOfWeekIsRejected() {
+        index.getClasses("математика", 5, 0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void slotOutOfDayIsRejected() {
+        index.getClasses("математика", 0, 12);
+    }
+}
@@ -0,0 +1,44 @@
+package by.tolkun.school.parser;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of parsing of columns in fork/join pool.
+ */
+public class ColumnTaskTest {
+
+    @Test
+    public void resultsKeepOrderOfColumns() {
+        Set<Integer> parsedColumns = ConcurrentHashMap.newKeySet();
+        List<String> results = ColumnTask.parseColumns(new ForkJoinPool(4),
+                3, 100, columnNum -> {
+                    assertTrue(parsedColumns.add(columnNum));
+                    return "column " + columnNum;
+                });
+
+        List<String> expected = new ArrayList<>();
+        for (int columnNum = 3; columnNum < 103; columnNum++) {
+            expected.add("column " + columnNum);
+        }
+        assertEquals(expected, results);
+        assertEquals(100, parsedColumns.size());
+    }
+
+    @Test
+    public void emptyRangeIsParsedToEmptyList() {
+        assertEquals(Collections.emptyList(), ColumnTask.parseColumns(
+                ForkJoinPool.commonPool(), 1, 0, columnNum -> columnNum));
+        assertEquals(Collections.emptyList(), ColumnTask.parseColumns(
+                ForkJoinPool.commonPool(), 1, -1, columnNum -> columnNum));
+    }
+}
@@ -0,0 +1,51 @@
+package by.tolkun.school.parser;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of shared strings table read from raw XML.
+ */
+public class SharedStringsIndexTest {
+
+    private static final String XML = "<sst xmlns=\"http://schemas"
+            + ".openxmlformats.org/spreadsheetml/2006/main\">"
+            + "<si><t>plain</t></si>"
+            + "<si><r><t>ин_x002F_</t></r><r><t>ин</t></r></si>"
+            + "<si><t>kept_x00zz_</t><rPh><t>phonetic</t></rPh></si>"
+            + "<si><t></t></si>"
+            + "</sst>";
+
+    private static SharedStringsIndex read(String xml) throws IOException {
+        return SharedStringsIndex.read(new ByteArrayInputStream(
+                xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void stringsAreReadWithDecodedEscapes() throws IOException {
+        SharedStringsIndex strings = read(XML);
+
+        assertEquals(4, strings.size());
+        assertEquals("plain", strings.getString(0));
+        assertEquals("ин/ин", strings.getString(1));
+        assertEquals("kept_x00zz_", strings.getString(2));
+        assertEquals("", strings.getString(3));
+        assertSame(strings.getString(1), strings.getString(1));
+    }
+
+    @Test
+    public void missingTableIsEmpty() throws IOException {
+        assertEquals(0, SharedStringsIndex.read(null).size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void indexOutOfTableIsRejected() throws IOException {
+        read(XML).getString(4);
+    }
+}
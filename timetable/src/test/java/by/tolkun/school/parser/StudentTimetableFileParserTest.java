@@ -0,0 +1,85 @@
+package by.tolkun.school.parser;
+
+import by.tolkun.school.entity.SchoolDay;
+import by.tolkun.school.entity.SharedStringsPolicy;
+import by.tolkun.school.entity.SpreadsheetTab;
+import by.tolkun.school.entity.SpreadsheetWorkbook;
+import by.tolkun.school.entity.StudentTimetable;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import static by.tolkun.school.parser.StudentTimetableParserTest.rowOf;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of parsing of student timetable streamed from raw XML of sheet.
+ */
+public class StudentTimetableFileParserTest {
+
+    private static final String TITLE = "Timetable";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File writeTimetable(SharedStringsPolicy policy)
+            throws IOException {
+        SpreadsheetWorkbook workbook = new SpreadsheetWorkbook();
+        workbook.setSharedStringsPolicy(policy);
+        SpreadsheetTab tab = workbook.createTab(TITLE);
+        tab.setValue(1, 1, "5А");
+        tab.setValue(rowOf(0, 1, 0), 1, "математика");
+        tab.setValue(rowOf(0, 1, 1), 1, "физ_x002F_ра");
+        XSSFCell formula = tab.getOrCreateCell(rowOf(0, 1, 2), 1)
+                .getPoiCell();
+        formula.setCellFormula("\"ин/ин\"");
+        formula.setCellValue("ин_x002F_ин");
+        tab.setValue(rowOf(1, 2, 3), 1, 5);
+        tab.setValue(1, 2, "6Б");
+        tab.setValue(rowOf(0, 1, 0), 2, "химия");
+        // Value outside of area of timetable doesn't add a class.
+        tab.setValue(0, 3, "end");
+
+        File file = folder.newFile();
+        try (OutputStream out = new FileOutputStream(file)) {
+            workbook.write(out);
+        }
+        return file;
+    }
+
+    private static void assertParsed(File file) throws IOException {
+        StudentTimetable timetable = StudentTimetableParser.parse(file, TITLE);
+
+        assertEquals(2, timetable.getSchoolClasses().size());
+        SchoolDay monday = timetable.getSchoolClass(0).getSchoolDay(0);
+        assertEquals(Arrays.asList("математика", "физ/ра", "ин/ин", "", "",
+                "", "", ""), monday.getLessons());
+        assertEquals("5", timetable.getSchoolClass(0).getSchoolDay(1)
+                .getLesson(3));
+        assertEquals("химия", timetable.getSchoolClass(1).getSchoolDay(0)
+                .getLesson(0));
+    }
+
+    @Test
+    public void sharedStringsAreDecoded() throws IOException {
+        assertParsed(writeTimetable(SharedStringsPolicy.SHARED));
+    }
+
+    @Test
+    public void inlineStringsAreDecoded() throws IOException {
+        assertParsed(writeTimetable(SharedStringsPolicy.INLINE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingTabIsRejected() throws IOException {
+        StudentTimetableParser.parse(
+                writeTimetable(SharedStringsPolicy.SHARED), "Missing");
+    }
+}
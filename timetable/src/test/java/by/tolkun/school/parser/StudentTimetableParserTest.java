@@ -0,0 +1,105 @@
+package by.tolkun.school.parser;
+
+import by.tolkun.school.entity.SchoolClass;
+import by.tolkun.school.entity.SpreadsheetTab;
+import by.tolkun.school.entity.SpreadsheetWorkbook;
+import by.tolkun.school.entity.StudentTimetable;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests of parsing of student timetable from grid loaded from tab.
+ */
+public class StudentTimetableParserTest {
+
+    private SpreadsheetTab tab;
+
+    static int rowOf(int dayNum, int shift, int lessonNum) {
+        return 2 + dayNum * 12 + (shift - 1) * 6 + lessonNum;
+    }
+
+    @Before
+    public void setUp() {
+        tab = new SpreadsheetWorkbook().createTab("Timetable");
+        tab.setValue(1, 1, "5А");
+        tab.setValue(rowOf(0, 1, 0), 1, "математика");
+        tab.setValue(rowOf(0, 1, 1), 1, " русский язык ");
+        tab.setValue(rowOf(0, 1, 2), 1, "история");
+        tab.setValue(rowOf(1, 2, 2), 1, "физика");
+        tab.setValue(rowOf(1, 2, 3), 1, "химия");
+        tab.setValue(rowOf(3, 1, 0), 1, "музыка");
+
+        tab.setValue(1, 2, "6Б");
+        tab.setValue(rowOf(0, 1, 7), 2, "биология");
+        // Count of columns of tab is the number of its last column, so
+        // the last column isn't parsed as class.
+        tab.setValue(0, 3, "end");
+    }
+
+    @Test
+    public void classesAreParsedInOrderOfColumns() {
+        StudentTimetable timetable = StudentTimetableParser.parse(tab);
+
+        assertEquals(2, timetable.getSchoolClasses().size());
+        assertEquals("5А", timetable.getSchoolClass(0).getName());
+        assertEquals("6Б", timetable.getSchoolClass(1).getName());
+    }
+
+    @Test
+    public void shiftsAreResolvedByCountsOfLessons() {
+        SchoolClass schoolClass
+                = StudentTimetableParser.parse(tab).getSchoolClass(0);
+
+        int[] shifts = new int[5];
+        for (int dayNum = 0; dayNum < shifts.length; dayNum++) {
+            shifts[dayNum] = schoolClass.getSchoolDay(dayNum).getShift();
+        }
+        // Days without lessons take shift of previous day.
+        assertEquals("[1, 2, 2, 1, 1]", Arrays.toString(shifts));
+    }
+
+    @Test
+    public void lessonsAreReadFromRowsOfShift() {
+        SchoolClass schoolClass
+                = StudentTimetableParser.parse(tab).getSchoolClass(0);
+
+        assertEquals(Arrays.asList("математика", "русский язык", "история",
+                "", "", "", "", ""),
+                schoolClass.getSchoolDay(0).getLessons());
+        assertEquals(Arrays.asList("", "", "физика", "химия", "", ""),
+                schoolClass.getSchoolDay(1).getLessons());
+        assertEquals("биология", StudentTimetableParser.parse(tab)
+                .getSchoolClass(1).getSchoolDay(0).getLesson(7));
+    }
+
+    @Test
+    public void cellsOfTabAreNotCreated() {
+        StudentTimetableParser.parse(tab);
+
+        assertNull(tab.getCell(rowOf(2, 1, 0), 1));
+        assertNull(tab.getPoiSheet().getRow(rowOf(4, 1, 0)));
+    }
+
+    @Test
+    public void parallelParsingKeepsOrderOfColumns() {
+        for (int columnNum = 3; columnNum < 40; columnNum++) {
+            tab.setValue(1, columnNum, "Class " + columnNum);
+            tab.setValue(rowOf(columnNum % 5, columnNum % 2 + 1, 1),
+                    columnNum, "Subject " + columnNum % 7);
+        }
+
+        StudentTimetable sequential = StudentTimetableParser.parse(tab);
+        StudentTimetable parallel = StudentTimetableParser.parse(tab,
+                new ForkJoinPool(4));
+
+        assertEquals(38, parallel.getSchoolClasses().size());
+        assertEquals(sequential.getSchoolClasses(),
+                parallel.getSchoolClasses());
+    }
+}
@@ -0,0 +1,78 @@
+package by.tolkun.school.parser;
+
+import by.tolkun.school.entity.SpreadsheetTab;
+import by.tolkun.school.entity.SpreadsheetWorkbook;
+import by.tolkun.school.entity.StudentTimetable;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static by.tolkun.school.parser.StudentTimetableParserTest.rowOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of normalization of names of subjects.
+ */
+public class SubjectNormalizerTest {
+
+    private final SubjectNormalizer normalizer
+            = SubjectNormalizer.fromConfig();
+
+    @Test
+    public void namesAreCanonicalized() {
+        assertEquals("английский язык",
+                normalizer.normalize("  английский \t  язык "));
+        assertEquals("Физика", normalizer.normalize("Физика"));
+        assertEquals("ин/ин/ин", normalizer.normalize("ин / ин /ин"));
+        assertEquals("", normalizer.normalize("   "));
+    }
+
+    @Test
+    public void rulesMatchWholeNameIgnoringCaseAndSpaces() {
+        assertEquals("английский язык", normalizer.normalize("а / а / а"));
+        assertEquals("информатика", normalizer.normalize("ИН/Ин"));
+        assertEquals("трудовое обуч.", normalizer.normalize(" тр/тр"));
+        assertEquals("ин", normalizer.normalize("ин"));
+        assertEquals("ин/", normalizer.normalize("ин/"));
+    }
+
+    @Test
+    public void rulesAreCanonicalized() {
+        Map<String, String> rules = new LinkedHashMap<>();
+        rules.put("Физ / ра", "физкультура");
+        rules.put("физ/ра", "физическая культура");
+        SubjectNormalizer custom = new SubjectNormalizer(rules);
+
+        assertEquals("физическая культура", custom.normalize("ФИЗ/РА"));
+    }
+
+    @Test
+    public void rawNamesAreNormalizedOnce() {
+        String normalized = normalizer.normalize(" физика ");
+
+        assertSame(normalized, normalizer.normalize(" физика "));
+        normalizer.normalize("физика  ");
+        assertEquals(2, normalizer.getCacheSize());
+    }
+
+    @Test
+    public void parsedLessonsAreNormalized() {
+        SpreadsheetTab tab = new SpreadsheetWorkbook().createTab("Timetable");
+        tab.setValue(1, 1, "5А");
+        tab.setValue(rowOf(0, 1, 0), 1, "ин / ин");
+        tab.setValue(rowOf(0, 1, 1), 1, "информатика");
+        tab.setValue(0, 2, "end");
+
+        StudentTimetable timetable
+                = StudentTimetableParser.parse(tab, normalizer);
+
+        assertEquals("информатика",
+                timetable.getSchoolClass(0).getSchoolDay(0).getLesson(0));
+        assertEquals(timetable.getSchoolClass(0).getSchoolDay(0)
+                        .getLessonId(0),
+                timetable.getSchoolClass(0).getSchoolDay(0).getLessonId(1));
+        assertEquals(-1, timetable.getSubjectDictionary().findId("ин / ин"));
+    }
+}
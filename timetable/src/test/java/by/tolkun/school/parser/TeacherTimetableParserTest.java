@@ -0,0 +1,119 @@
+package by.tolkun.school.parser;
+
+import by.tolkun.school.config.TeacherTimetableLayout;
+import by.tolkun.school.entity.SpreadsheetTab;
+import by.tolkun.school.entity.SpreadsheetWorkbook;
+import by.tolkun.school.entity.SubjectDictionary;
+import by.tolkun.school.entity.TeacherTimetable;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of parsing of teacher timetable from tab by layout.
+ */
+public class TeacherTimetableParserTest {
+
+    private SpreadsheetTab tab;
+
+    private static int rowOf(int dayNum, int lessonNum) {
+        return 2 + dayNum * 12 + lessonNum;
+    }
+
+    @Before
+    public void setUp() {
+        tab = new SpreadsheetWorkbook().createTab("Teachers");
+        tab.setValue(1, 1, " Иванова ");
+        tab.setValue(rowOf(0, 0), 1, "5А");
+        tab.setValue(rowOf(0, 7), 1, " 6Б ");
+        tab.setValue(rowOf(4, 11), 1, "7В");
+
+        tab.setValue(1, 2, "Петров");
+        tab.setValue(rowOf(1, 2), 2, "5А");
+        // Columns after the last name of teacher aren't parsed.
+        tab.setValue(rowOf(0, 0), 4, "8Г");
+    }
+
+    @Test
+    public void teachersEndWithLastName() {
+        TeacherTimetable timetable = TeacherTimetableParser.parse(tab);
+
+        assertEquals(Arrays.asList("Иванова", "Петров"),
+                timetable.getTeachers());
+    }
+
+    @Test
+    public void lessonsAreReadBySlots() {
+        TeacherTimetable timetable = TeacherTimetableParser.parse(tab);
+
+        assertEquals("5А", timetable.getLabel(0, 0, 0));
+        assertEquals("6Б", timetable.getLabel(0, 0, 7));
+        assertEquals("7В", timetable.getLabel(0, 4, 11));
+        assertEquals("", timetable.getLabel(0, 1, 2));
+        assertEquals("5А", timetable.getLabel(1, 1, 2));
+        assertEquals(3, timetable.getQtyLessons(0));
+        assertEquals(1, timetable.getQtyLessons(1));
+    }
+
+    @Test
+    public void lessonsAreReadByCustomLayout() {
+        SpreadsheetTab custom = new SpreadsheetWorkbook().createTab("Custom");
+        custom.setValue(0, 2, "Сидорова");
+        custom.setValue(2, 2, "9А");
+        custom.setValue(2 + 6 + 1, 2, "9Б");
+        // Rows after the last day of layout aren't parsed.
+        custom.setValue(2 + 2 * 6, 2, "10А");
+
+        TeacherTimetable timetable = TeacherTimetableParser.parse(custom,
+                new TeacherTimetableLayout(0, 2, 2, 2, 6));
+
+        assertEquals(Arrays.asList("Сидорова"), timetable.getTeachers());
+        assertEquals("9А", timetable.getLabel(0, 0, 0));
+        assertEquals("9Б", timetable.getLabel(0, 1, 1));
+        assertEquals(2, timetable.getQtyLessons(0));
+    }
+
+    @Test
+    public void labelsAreEncodedBySharedDictionary() {
+        SubjectDictionary dictionary = new SubjectDictionary();
+        int id = dictionary.getId("5А");
+
+        TeacherTimetable timetable = TeacherTimetableParser.parse(tab,
+                TeacherTimetableLayout.DEFAULT, dictionary, null);
+
+        assertSame(dictionary, timetable.getLabelDictionary());
+        assertEquals(id, timetable.getLabelId(1, 1, 2));
+        assertEquals(dictionary.findId("6Б"), timetable.getLabelId(0, 0, 7));
+    }
+
+    @Test
+    public void cellsOfTabAreNotCreated() {
+        TeacherTimetableParser.parse(tab);
+
+        assertNull(tab.getCell(rowOf(2, 0), 1));
+        assertNull(tab.getCell(1, 3));
+    }
+
+    @Test
+    public void parallelParsingKeepsOrderOfColumns() {
+        for (int columnNum = 3; columnNum < 40; columnNum++) {
+            tab.setValue(1, columnNum, "Teacher " + columnNum);
+            tab.setValue(rowOf(columnNum % 5, columnNum % 12), columnNum,
+                    "Class " + columnNum % 7);
+        }
+
+        TeacherTimetable sequential = TeacherTimetableParser.parse(tab);
+        TeacherTimetable parallel = TeacherTimetableParser.parse(tab,
+                TeacherTimetableLayout.DEFAULT, new SubjectDictionary(),
+                new ForkJoinPool(4));
+
+        assertEquals(39, parallel.getTeachers().size());
+        assertEquals(sequential, parallel);
+    }
+}
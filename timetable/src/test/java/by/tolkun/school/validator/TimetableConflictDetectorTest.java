@@ -0,0 +1,143 @@
+package by.tolkun.school.validator;
+
+import by.tolkun.school.entity.SchoolClass;
+import by.tolkun.school.entity.SchoolDay;
+import by.tolkun.school.entity.StudentTimetable;
+import by.tolkun.school.entity.SubjectDictionary;
+import by.tolkun.school.entity.TeacherAssignment;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of detection of conflicts of resources of student timetable.
+ */
+public class TimetableConflictDetectorTest {
+
+    private TeacherAssignment assignment;
+    private TimetableConflictDetector detector;
+
+    private static SchoolDay day(int shift, String... lessons) {
+        return new SchoolDay(new ArrayList<>(Arrays.asList(lessons)), shift);
+    }
+
+    private static SchoolClass schoolClass(String name, SchoolDay... days) {
+        List<SchoolDay> week = new ArrayList<>(Arrays.asList(days));
+        while (week.size() < 5) {
+            week.add(day(1));
+        }
+        return new SchoolClass(name, week);
+    }
+
+    private static StudentTimetable timetable(SchoolClass... schoolClasses) {
+        return new StudentTimetable(Arrays.asList(schoolClasses));
+    }
+
+    @Before
+    public void setUp() {
+        assignment = new TeacherAssignment();
+        for (String schoolClassName : new String[]{"5А", "6Б", "7В"}) {
+            assignment.assign(schoolClassName, "математика", "Иванова");
+            assignment.assign(schoolClassName, "физика", "Петров");
+        }
+        detector = TimetableConflictDetector.forTeachers(assignment);
+    }
+
+    @Test
+    public void lessonsOfSameShiftCollide() {
+        List<TimetableConflict> conflicts = detector.detect(timetable(
+                schoolClass("5А", day(1, "физика", "математика")),
+                schoolClass("6Б", day(1, "математика", "математика")),
+                schoolClass("7В", day(1, "история", "математика"))));
+
+        assertEquals(Arrays.asList(
+                new TimetableConflict(TimetableConflict.Type.RESOURCE,
+                        "Иванова", 0, 1, "5А", "6Б"),
+                new TimetableConflict(TimetableConflict.Type.RESOURCE,
+                        "Иванова", 0, 1, "5А", "7В")), conflicts);
+    }
+
+    @Test
+    public void lateLessonOfFirstShiftOverlapsSecondShift() {
+        List<TimetableConflict> conflicts = detector.detect(timetable(
+                schoolClass("5А", day(1, "", "", "", "", "", "", "физика")),
+                schoolClass("6Б", day(2, "физика"))));
+
+        assertEquals(Collections.singletonList(new TimetableConflict(
+                TimetableConflict.Type.SHIFT_OVERLAP, "Петров", 0, 6,
+                "5А", "6Б")), conflicts);
+    }
+
+    @Test
+    public void preShiftLessonsOfSecondShiftTakeSlotsOfFirstShift() {
+        // Pre-shift lessons follow all lessons of the second shift, the
+        // k-th of them takes the k-th slot from the end of the first shift.
+        List<TimetableConflict> conflicts = detector.detect(timetable(
+                schoolClass("5А", day(1, "", "", "", "", "физика",
+                        "математика")),
+                schoolClass("6Б", day(2, "история", "история", "история",
+                        "история", "история", "история", "!математика",
+                        "! физика"))));
+
+        assertEquals(Arrays.asList(
+                new TimetableConflict(TimetableConflict.Type.SHIFT_OVERLAP,
+                        "Иванова", 0, 5, "5А", "6Б"),
+                new TimetableConflict(TimetableConflict.Type.SHIFT_OVERLAP,
+                        "Петров", 0, 4, "5А", "6Б")), conflicts);
+    }
+
+    @Test
+    public void preShiftLessonsAtFreeSlotsDontCollide() {
+        assertEquals(Collections.emptyList(), detector.detect(timetable(
+                schoolClass("5А", day(1, "математика", "физика")),
+                schoolClass("6Б", day(2, "математика", "!физика")))));
+    }
+
+    @Test
+    public void resourcesOfDifferentResolversDontCollide() {
+        TimetableConflictDetector teachersAndRooms
+                = new TimetableConflictDetector(assignment::getTeacher,
+                (schoolClassName, subject) -> "5А".equals(schoolClassName)
+                        ? "Петров" : null);
+
+        List<TimetableConflict> conflicts = teachersAndRooms.detect(
+                timetable(schoolClass("5А", day(1, "математика")),
+                        schoolClass("6Б", day(1, "физика"))));
+
+        assertEquals(Collections.emptyList(), conflicts);
+    }
+
+    @Test
+    public void dictionaryOfTimetableIsNotChanged() {
+        SubjectDictionary dictionary = new SubjectDictionary();
+        short[] lessonIds = {(short) dictionary.getId("математика")};
+
+        List<TimetableConflict> conflicts = detector.detect(
+                new StudentTimetable(Arrays.asList(
+                        schoolClass("5А", new SchoolDay(dictionary,
+                                lessonIds, 1)),
+                        schoolClass("6Б", day(1, "математика")),
+                        schoolClass("7В", day(1, "физика", "!физика"))),
+                        dictionary));
+
+        assertEquals(2, dictionary.size());
+        assertEquals(Collections.singletonList(new TimetableConflict(
+                TimetableConflict.Type.RESOURCE, "Иванова", 0, 0, "5А",
+                "6Б")), conflicts);
+    }
+
+    @Test
+    public void lessonsWithoutResourceAreSkipped() {
+        assertEquals(Collections.emptyList(), detector.detect(timetable(
+                schoolClass("5А", day(1, "история")),
+                schoolClass("6Б", day(1, "история")),
+                schoolClass("8Г", day(1, "математика")),
+                schoolClass("9Д", day(1, "математика")))));
+    }
+}